@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Generates the inputs of the benchmarks: Maven logs with ANSI colors, expected results files with artifact
+ * expressions and POMs. The content is derived from a fixed seed, so all runs see the same input.
+ */
+final class BenchmarkData {
+
+    private static final String BOLD = "\u001B[1m";
+
+    private static final String BLUE = "\u001B[1;34m";
+
+    private static final String YELLOW = "\u001B[1;33m";
+
+    private static final String GREEN = "\u001B[1;32m";
+
+    private static final String CYAN = "\u001B[36m";
+
+    private static final String RESET = "\u001B[m";
+
+    private static final String[] PLUGINS = {
+        "maven-clean-plugin:3.3.2:clean (default-clean)",
+        "maven-resources-plugin:3.3.1:resources (default-resources)",
+        "maven-compiler-plugin:3.13.0:compile (default-compile)",
+        "maven-surefire-plugin:3.5.2:test (default-test)",
+        "maven-jar-plugin:3.4.1:jar (default-jar)",
+        "maven-install-plugin:3.1.2:install (default-install)"
+    };
+
+    private BenchmarkData() {}
+
+    /**
+     * Writes a colored log of a reactor build, ending with <code>BUILD SUCCESS</code> and free of errors.
+     *
+     * @param file  The log file to write, must not be <code>null</code>.
+     * @param bytes The minimum size of the log.
+     * @throws IOException If the log could not be written.
+     */
+    static void writeLog(File file, long bytes) throws IOException {
+        Random random = new Random(42);
+        long written = 0;
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int module = 0; written < bytes; module++) {
+                written += line(out, info(BOLD + "Building module-" + module + " 1.0-SNAPSHOT" + RESET));
+                for (String plugin : PLUGINS) {
+                    written += line(
+                            out,
+                            info(BOLD + "--- " + GREEN + plugin + RESET + " @ " + CYAN + "module-" + module + RESET
+                                    + BOLD + " ---" + RESET));
+                    for (int i = random.nextInt(40); i >= 0; i--) {
+                        written += line(out, detail(random, module));
+                    }
+                }
+            }
+            written += line(out, info(BOLD + GREEN + "BUILD SUCCESS" + RESET));
+        }
+    }
+
+    private static String detail(Random random, int module) {
+        int n = random.nextInt(1000);
+        switch (random.nextInt(5)) {
+            case 0:
+                return info("Downloading from central: https://repo.maven.apache.org/maven2/org/example/lib-" + n
+                        + "/1." + n + "/lib-" + n + "-1." + n + ".jar");
+            case 1:
+                return "[" + YELLOW + "WARNING" + RESET + "] /work/module-" + module + "/src/main/java/org/example/Type"
+                        + n + ".java:[" + n + ",17] [deprecation] method in Legacy has been deprecated";
+            case 2:
+                return "Running org.example.module" + module + ".Type" + n + "Test";
+            case 3:
+                return info("Tests run: " + n + ", Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 0." + n + " s");
+            default:
+                return info("Compiling " + n + " source files with javac [debug release 8] to target/classes");
+        }
+    }
+
+    private static String info(String message) {
+        return "[" + BLUE + "INFO" + RESET + "] " + message;
+    }
+
+    private static int line(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        return line.length() + 1;
+    }
+
+    /**
+     * Writes an expected results file listing artifacts and creates the artifacts with their repository metadata in
+     * a local repository.
+     *
+     * @param file            The expected results file to write, must not be <code>null</code>.
+     * @param localRepository The local repository to populate, must not be <code>null</code>.
+     * @param artifacts       The number of artifacts.
+     * @throws IOException If the files could not be written.
+     */
+    static void writeExpectedResults(File file, File localRepository, int artifacts) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("# generated expected results\n");
+            for (int i = 0; i < artifacts; i++) {
+                String groupId = "org.example.group" + (i % 50);
+                String artifactId = "lib-" + i;
+                String version = "1." + i;
+                File versionDir =
+                        new File(localRepository, groupId.replace('.', '/') + '/' + artifactId + '/' + version);
+                Files.createDirectories(versionDir.toPath());
+                touch(new File(versionDir, artifactId + '-' + version + ".jar"));
+                touch(new File(versionDir, "maven-metadata-local.xml"));
+                touch(new File(versionDir.getParentFile(), "maven-metadata-local.xml"));
+
+                out.write("${artifact:" + groupId + ':' + artifactId + ':' + version + ":jar}\n");
+                out.write("target/classes/org/example/Type" + i + ".class\n");
+            }
+        }
+    }
+
+    private static void touch(File file) throws IOException {
+        Files.write(file.toPath(), new byte[0]);
+    }
+
+    /**
+     * Writes a POM with tokens to filter in the dependencies.
+     *
+     * @param file         The POM to write, must not be <code>null</code>.
+     * @param dependencies The number of dependencies.
+     * @throws IOException If the POM could not be written.
+     */
+    static void writePom(File file, int dependencies) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project>\n  <modelVersion>4.0.0</modelVersion>\n"
+                    + "  <groupId>org.example</groupId>\n  <artifactId>filtered</artifactId>\n"
+                    + "  <version>@version@</version>\n  <url>@baseurl@</url>\n  <dependencies>\n");
+            for (int i = 0; i < dependencies; i++) {
+                out.write("    <dependency>\n      <groupId>org.example.group" + (i % 50) + "</groupId>\n"
+                        + "      <artifactId>lib-" + i + "</artifactId>\n      <version>@version@</version>\n"
+                        + "      <scope>system</scope>\n      <systemPath>@basedir@/lib/lib-" + i
+                        + ".jar</systemPath>\n    </dependency>\n");
+            }
+            out.write("  </dependencies>\n</project>\n");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks loading expected results files, whose artifact expressions are replaced by paths in the local repository
+ * and expanded to the repository metadata next to the artifacts.
+ */
+@SuppressWarnings("deprecation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExpectedResultsBenchmark {
+
+    @Param({"100", "10000"})
+    public int artifacts;
+
+    private File basedir;
+
+    private Verifier verifier;
+
+    private File expectedResults;
+
+    private String[] lines;
+
+    @Setup
+    public void setUp() throws IOException, VerificationException {
+        basedir = Files.createTempDirectory("expected-results-benchmark").toFile();
+        File localRepository = new File(basedir, "repository");
+        expectedResults = new File(basedir, "expected-results.txt");
+        BenchmarkData.writeExpectedResults(expectedResults, localRepository, artifacts);
+        lines = Files.readAllLines(expectedResults.toPath(), StandardCharsets.UTF_8)
+                .toArray(new String[0]);
+
+        verifier = new Verifier(basedir.getAbsolutePath());
+        verifier.setLocalRepo(localRepository.getAbsolutePath());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(basedir);
+    }
+
+    @Benchmark
+    public List<String> loadFile() throws VerificationException {
+        return verifier.loadFile(expectedResults, false);
+    }
+
+    @Benchmark
+    public void replaceArtifacts(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(FileChecks.replaceArtifacts(line, false, artifact -> {
+                String[] a = artifact.split(":");
+                return verifier.getArtifactPath(a[0], a[1], a[2], a[3]);
+            }));
+        }
+    }
+
+    @Benchmark
+    public void getArtifactPath(Blackhole blackhole) {
+        for (int i = 0; i < artifacts; i++) {
+            blackhole.consume(verifier.getArtifactPath("org.example.group" + (i % 50), "lib-" + i, "1." + i, "jar"));
+        }
+    }
+}
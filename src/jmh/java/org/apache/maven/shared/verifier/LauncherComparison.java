@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.apache.maven.shared.verifier.util.ResourceExtractor;
+
+/**
+ * Runs the sample projects in <code>launcher-projects</code> under each launcher strategy and compares them: the
+ * latency of the first build of a strategy in this JVM (cold) and of the following builds (warm), the throughput at
+ * several numbers of concurrent builds and the growth of the heap and metaspace of this JVM, which is where embedded
+ * builds leave their classes. The builds run offline with the local repository given by <code>maven.repo.local</code>,
+ * so it has to contain the plugins of the build, e.g. by running once with <code>benchmark.prime=true</code>.
+ * <p>
+ * The harness is configured by system properties:
+ * <ul>
+ * <li><code>maven.home</code>: the Maven installation of the forked and embedded builds, required</li>
+ * <li><code>benchmark.strategies</code>: the strategies to compare, default
+ * <code>embedded,auto,adaptive,forked,wrapper</code></li>
+ * <li><code>benchmark.projects</code>: the sample projects, default <code>single-module,multi-module</code></li>
+ * <li><code>benchmark.goals</code>: the goals to run, default <code>package</code></li>
+ * <li><code>benchmark.iterations</code>: the builds per project, strategy and concurrent build, default 5</li>
+ * <li><code>benchmark.concurrency</code>: the numbers of concurrent builds, default <code>1,4</code></li>
+ * <li><code>benchmark.prime</code>: whether to run each project once online before measuring, default
+ * <code>false</code></li>
+ * <li><code>benchmark.report</code>: the report to write, default <code>target/launcher-comparison.md</code></li>
+ * </ul>
+ * The wrapper strategy runs <code>mvnw</code>; projects without one get a script delegating to
+ * <code>maven.home</code>, so it measures the launch through the wrapper script without downloading a distribution.
+ */
+@SuppressWarnings("deprecation")
+public final class LauncherComparison {
+
+    private static final String PROJECTS = "/launcher-projects/";
+
+    private static final long MB = 1024 * 1024;
+
+    enum Strategy {
+        EMBEDDED,
+        AUTO,
+        ADAPTIVE,
+        FORKED,
+        WRAPPER;
+
+        void configure(Verifier verifier, String mavenHome) {
+            verifier.setMavenHome(mavenHome);
+            switch (this) {
+                case EMBEDDED:
+                    verifier.setForkMode("embedded");
+                    break;
+                case AUTO:
+                    verifier.setForkMode("auto");
+                    break;
+                case ADAPTIVE:
+                    verifier.setForkMode(AdaptiveForkMode.MODE);
+                    break;
+                case FORKED:
+                    verifier.setForkJvm(true);
+                    break;
+                default:
+                    verifier.setUseWrapper(true);
+            }
+        }
+    }
+
+    private final String mavenHome;
+
+    private final List<String> projects;
+
+    private final List<String> goals;
+
+    private final int iterations;
+
+    private final File workDir;
+
+    private final AtomicInteger workDirs = new AtomicInteger();
+
+    private final StringBuilder coldReport = new StringBuilder();
+
+    private final StringBuilder warmReport = new StringBuilder();
+
+    LauncherComparison(String mavenHome, List<String> projects, List<String> goals, int iterations, File workDir) {
+        this.mavenHome = mavenHome;
+        this.projects = projects;
+        this.goals = goals;
+        this.iterations = iterations;
+        this.workDir = workDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mavenHome = System.getProperty("maven.home");
+        if (mavenHome == null || !new File(mavenHome, "bin").isDirectory()) {
+            throw new IllegalArgumentException("maven.home must point to a Maven installation: " + mavenHome);
+        }
+        List<Strategy> strategies = new ArrayList<>();
+        for (String strategy : list("benchmark.strategies", "embedded,auto,adaptive,forked,wrapper")) {
+            strategies.add(Strategy.valueOf(strategy.toUpperCase(Locale.ENGLISH)));
+        }
+        List<Integer> concurrency = new ArrayList<>();
+        for (String level : list("benchmark.concurrency", "1,4")) {
+            concurrency.add(Integer.valueOf(level));
+        }
+        File report = new File(System.getProperty("benchmark.report", "target/launcher-comparison.md"));
+
+        File workDir = Files.createTempDirectory("launcher-comparison").toFile();
+        try {
+            LauncherComparison comparison = new LauncherComparison(
+                    mavenHome,
+                    list("benchmark.projects", "single-module,multi-module"),
+                    list("benchmark.goals", "package"),
+                    Integer.getInteger("benchmark.iterations", 5),
+                    workDir);
+            if (Boolean.getBoolean("benchmark.prime")) {
+                comparison.prime();
+            }
+            for (Strategy strategy : strategies) {
+                comparison.measure(strategy, concurrency);
+            }
+            comparison.writeReport(report);
+        } finally {
+            FileUtils.deleteDirectory(workDir);
+        }
+    }
+
+    private static List<String> list(String key, String defaultValue) {
+        return Arrays.asList(System.getProperty(key, defaultValue).trim().split("\\s*,\\s*"));
+    }
+
+    /**
+     * Runs each project once in a forked build that may download the plugins.
+     */
+    void prime() throws IOException, VerificationException {
+        for (String project : projects) {
+            Verifier verifier = newVerifier(extract(project, Strategy.FORKED), Strategy.FORKED);
+            verifier.addCliArguments(goals.toArray(new String[0]));
+            verifier.execute();
+        }
+    }
+
+    /**
+     * Measures one strategy: a cold build of each project, then the warm builds at each concurrency level.
+     */
+    void measure(Strategy strategy, List<Integer> concurrency) throws Exception {
+        long[] memory = usedMemory();
+        for (String project : projects) {
+            System.out.println("Cold build of " + project + " with " + strategy);
+            long cold = build(extract(project, strategy), strategy);
+            long[] grown = usedMemory();
+            coldReport.append(String.format(
+                    Locale.ENGLISH,
+                    "| %s | %s | %s | %d | %d |%n",
+                    strategy.name().toLowerCase(Locale.ENGLISH),
+                    project,
+                    millis(cold),
+                    (grown[0] - memory[0]) / MB,
+                    (grown[1] - memory[1]) / MB));
+            memory = grown;
+        }
+
+        for (int threads : concurrency) {
+            for (String project : projects) {
+                measureWarm(strategy, project, threads);
+            }
+        }
+    }
+
+    private void measureWarm(Strategy strategy, String project, int threads) throws Exception {
+        System.out.println("Warm builds of " + project + " with " + strategy + ", " + threads + " concurrent");
+        long[] memory = usedMemory();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> builds = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                builds.add(executor.submit(() -> {
+                    // the builds of a thread share a copy of the project, as repeated builds in a test would
+                    File basedir = extract(project, strategy);
+                    for (int n = 0; n < iterations; n++) {
+                        try {
+                            latencies.add(build(basedir, strategy));
+                        } catch (IOException | VerificationException e) {
+                            System.out.println("Build of " + project + " with " + strategy + " failed: " + e);
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> build : builds) {
+                build.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+        long[] grown = usedMemory();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        warmReport.append(String.format(
+                Locale.ENGLISH,
+                "| %s | %s | %d | %d | %d | %s | %s | %.1f | %d | %d |%n",
+                strategy.name().toLowerCase(Locale.ENGLISH),
+                project,
+                threads,
+                sorted.size(),
+                failures.get(),
+                sorted.isEmpty() ? "-" : millis(percentile(sorted, 50)),
+                sorted.isEmpty() ? "-" : millis(percentile(sorted, 90)),
+                sorted.size() * (double) TimeUnit.MINUTES.toNanos(1) / elapsed,
+                (grown[0] - memory[0]) / MB,
+                (grown[1] - memory[1]) / MB));
+    }
+
+    /**
+     * Builds a copy of a project.
+     *
+     * @return The wall clock time of the build in nanoseconds.
+     */
+    private long build(File basedir, Strategy strategy) throws IOException, VerificationException {
+        Verifier verifier = newVerifier(basedir, strategy);
+        verifier.addCliArgument("--offline");
+        verifier.addCliArguments(goals.toArray(new String[0]));
+        long started = System.nanoTime();
+        verifier.execute();
+        long latency = System.nanoTime() - started;
+        verifier.verifyErrorFreeLog();
+        return latency;
+    }
+
+    /**
+     * Extracts a fresh copy of a project.
+     */
+    private File extract(String project, Strategy strategy) throws IOException {
+        File basedir = ResourceExtractor.extractResourceToDestination(
+                LauncherComparison.class,
+                PROJECTS + project,
+                new File(workDir, project + '-' + workDirs.incrementAndGet()),
+                true);
+        if (strategy == Strategy.WRAPPER) {
+            writeWrapper(basedir);
+        }
+        return basedir;
+    }
+
+    private Verifier newVerifier(File basedir, Strategy strategy) throws VerificationException {
+        Verifier verifier = new Verifier(basedir.getAbsolutePath());
+        strategy.configure(verifier, mavenHome);
+        return verifier;
+    }
+
+    private static void writeWrapper(File basedir) throws IOException {
+        File mvnw = new File(basedir, "mvnw");
+        if (!mvnw.exists()) {
+            Files.write(
+                    mvnw.toPath(), "#!/bin/sh\nexec \"$M2_HOME/bin/mvn\" \"$@\"\n".getBytes(StandardCharsets.US_ASCII));
+            Files.write(
+                    new File(basedir, "mvnw.cmd").toPath(),
+                    "@\"%M2_HOME%\\bin\\mvn.cmd\" %*\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        //noinspection ResultOfMethodCallIgnored
+        mvnw.setExecutable(true);
+    }
+
+    /**
+     * Measures the memory of this JVM after a garbage collection.
+     *
+     * @return The used heap and metaspace in bytes.
+     */
+    private static long[] usedMemory() {
+        System.gc();
+        long metaspace = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(pool.getName())) {
+                metaspace = pool.getUsage().getUsed();
+            }
+        }
+        return new long[] {
+            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), metaspace
+        };
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100));
+    }
+
+    private static String millis(long nanos) {
+        return Long.toString(TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    void writeReport(File report) throws IOException {
+        String content = "# Launcher comparison\n\n"
+                + "Maven " + mavenHome + ", goals " + String.join(" ", goals) + ", " + iterations
+                + " builds per concurrent build.\n\n"
+                + "## Cold builds\n\n"
+                + "| Strategy | Project | Latency (ms) | Heap growth (MB) | Metaspace growth (MB) |\n"
+                + "|---|---|---:|---:|---:|\n"
+                + coldReport
+                + "\n## Warm builds\n\n"
+                + "| Strategy | Project | Concurrency | Builds | Failures | p50 (ms) | p90 (ms) | Builds/min"
+                + " | Heap growth (MB) | Metaspace growth (MB) |\n"
+                + "|---|---|---:|---:|---:|---:|---:|---:|---:|---:|\n"
+                + warmReport;
+        File dir = report.getAbsoluteFile().getParentFile();
+        Files.createDirectories(dir.toPath());
+        Files.write(report.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        System.out.println(content);
+    }
+}
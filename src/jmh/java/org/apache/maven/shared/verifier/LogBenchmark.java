@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the log verifications on colored Maven logs of 1 MB up to 500 MB.
+ */
+@SuppressWarnings("deprecation")
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LogBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Log {
+        @Param({"1", "100", "500"})
+        public int sizeMb;
+
+        public File basedir;
+
+        public Verifier verifier;
+
+        @Setup
+        public void setUp() throws IOException, VerificationException {
+            basedir = Files.createTempDirectory("log-benchmark").toFile();
+            BenchmarkData.writeLog(new File(basedir, "log.txt"), sizeMb * 1024L * 1024L);
+            verifier = new Verifier(basedir.getAbsolutePath());
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            FileUtils.deleteDirectory(basedir);
+        }
+    }
+
+    /**
+     * Some thousand lines of a colored log.
+     */
+    @State(Scope.Benchmark)
+    public static class Lines {
+        public String[] lines;
+
+        @Setup
+        public void setUp() throws IOException {
+            File log = File.createTempFile("lines", ".txt");
+            try {
+                BenchmarkData.writeLog(log, 512 * 1024);
+                lines = Files.readAllLines(log.toPath(), StandardCharsets.UTF_8).toArray(new String[0]);
+            } finally {
+                Files.delete(log.toPath());
+            }
+        }
+    }
+
+    @Benchmark
+    public void stripAnsi(Lines lines, Blackhole blackhole) {
+        for (String line : lines.lines) {
+            blackhole.consume(Verifier.stripAnsi(line));
+        }
+    }
+
+    @Benchmark
+    public List<String> loadFile(Log log) throws VerificationException {
+        return log.verifier.loadFile(log.verifier.getLogFile(), false);
+    }
+
+    @Benchmark
+    public void verifyErrorFreeLog(Log log) throws VerificationException {
+        log.verifier.verifyErrorFreeLog();
+    }
+
+    @Benchmark
+    public void verifyTextInLog(Log log) throws VerificationException {
+        // the last line, so the whole log is searched
+        log.verifier.verifyTextInLog("BUILD SUCCESS");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.apache.maven.shared.utils.io.IOUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks extracting test projects from a jar with thousands of entries, as when the tests run from a packaged
+ * test jar. The jar holds projects of four files in ten directories each.
+ */
+@SuppressWarnings("deprecation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResourceExtractorBenchmark {
+
+    private static final String[] PROJECT_FILES = {
+        "pom.xml",
+        "src/main/java/org/example/App.java",
+        "src/test/java/org/example/AppTest.java",
+        "expected-results.txt"
+    };
+
+    /**
+     * Loaded from the generated jar to locate the projects in it.
+     */
+    public static final class Anchor {}
+
+    @Param({"1000", "10000"})
+    public int entries;
+
+    private File tempDir;
+
+    private URLClassLoader loader;
+
+    private Class<?> anchor;
+
+    @Setup
+    public void setUp() throws IOException, ClassNotFoundException {
+        tempDir = Files.createTempDirectory("resource-extractor-benchmark").toFile();
+        File jar = new File(tempDir, "tests.jar");
+        String anchorEntry = Anchor.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()));
+                InputStream in = Anchor.class.getResourceAsStream('/' + anchorEntry)) {
+            out.putNextEntry(new JarEntry(anchorEntry));
+            IOUtil.copy(in, out);
+            int written = 1;
+            for (int project = 0; written < entries; project++) {
+                String dir = "projects/project-" + project + '/';
+                for (String name : new String[] {
+                    dir,
+                    dir + "src/",
+                    dir + "src/main/",
+                    dir + "src/main/java/",
+                    dir + "src/main/java/org/",
+                    dir + "src/main/java/org/example/",
+                    dir + "src/test/",
+                    dir + "src/test/java/",
+                    dir + "src/test/java/org/",
+                    dir + "src/test/java/org/example/"
+                }) {
+                    out.putNextEntry(new JarEntry(name));
+                    written++;
+                }
+                for (String file : PROJECT_FILES) {
+                    out.putNextEntry(new JarEntry(dir + file));
+                    out.write((dir + file + '\n').getBytes(StandardCharsets.UTF_8));
+                    written++;
+                }
+            }
+        }
+
+        // no parent, so the anchor is loaded from the jar
+        loader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null);
+        anchor = loader.loadClass(Anchor.class.getName());
+        Files.createDirectories(tempDir.toPath().resolve("projects/project-0"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        loader.close();
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public File extractProject() throws IOException {
+        return ResourceExtractor.extractResourcePath(anchor, "/projects/project-0", tempDir, true);
+    }
+
+    @Benchmark
+    public File extractFile() throws IOException {
+        return ResourceExtractor.extractResourcePath(anchor, "/projects/project-0/pom.xml", tempDir, true);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chooses between the embedded and the forked launcher by the costs measured for earlier executions in the same base
+ * directory, for the fork mode <code>adaptive</code>. The first execution in a base directory is embedded, the second
+ * forked, and later executions use the launcher that was cheaper so far. The cost of an embedded execution is its
+ * duration plus the garbage collection time of this JVM meanwhile, as the collections also stall everything else
+ * running in it. The costs are averaged with exponentially decreasing weights, so they follow changes of the build.
+ * After a number of executions with one launcher given by the system property
+ * <code>verifier.adaptive.resampleInterval</code>, by default 10, the other launcher is measured again, as its cost
+ * changes with the build and the state of this JVM.
+ * <p>
+ * Independent of the costs, an execution is forked if the heap left after the last garbage collection plus the heap
+ * growth of the embedded executions in the base directory would exceed the limit given by the system property
+ * <code>verifier.adaptive.heapLimit</code> as fraction of the maximum heap size, by default 0.8.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class AdaptiveForkMode {
+
+    static final String MODE = "adaptive";
+
+    private static final double HEAP_LIMIT =
+            Double.parseDouble(System.getProperty("verifier.adaptive.heapLimit", "0.8"));
+
+    private static final int RESAMPLE_INTERVAL = Integer.getInteger("verifier.adaptive.resampleInterval", 10);
+
+    private static final Map<String, Costs> COSTS = new ConcurrentHashMap<>();
+
+    private static final class Costs {
+        private long embeddedNanos = -1;
+
+        private long embeddedHeapGrowth;
+
+        private long forkedNanos = -1;
+
+        private int executionsSinceEmbedded;
+
+        private int executionsSinceForked;
+
+        synchronized boolean isForkCheaper() {
+            if (embeddedNanos < 0) {
+                return false;
+            }
+            if (forkedNanos < 0) {
+                return true;
+            }
+            if (forkedNanos < embeddedNanos) {
+                return executionsSinceEmbedded < RESAMPLE_INTERVAL;
+            }
+            return executionsSinceForked >= RESAMPLE_INTERVAL;
+        }
+
+        synchronized long getEmbeddedHeapGrowth() {
+            return embeddedHeapGrowth;
+        }
+
+        synchronized void add(ExecutionResult result) {
+            long nanos = result.getDuration().toNanos();
+            if (result.isForked()) {
+                forkedNanos = average(forkedNanos, nanos);
+                executionsSinceForked = 0;
+                executionsSinceEmbedded++;
+            } else {
+                executionsSinceEmbedded = 0;
+                executionsSinceForked++;
+                Duration gcTime = result.getGcTime();
+                long heapGrowth = Math.max(0, result.getHeapDelta());
+                embeddedHeapGrowth = embeddedNanos < 0 ? heapGrowth : (embeddedHeapGrowth + heapGrowth) / 2;
+                embeddedNanos = average(embeddedNanos, nanos + (gcTime != null ? gcTime.toNanos() : 0));
+            }
+        }
+
+        private static long average(long average, long value) {
+            return average < 0 ? value : (average + value) / 2;
+        }
+    }
+
+    private AdaptiveForkMode() {}
+
+    /**
+     * Decides whether to fork the next execution in a base directory.
+     *
+     * @param basedir The base directory of the execution, must not be <code>null</code>.
+     * @return <code>true</code> to use the forked launcher, <code>false</code> to use the embedded one.
+     */
+    static boolean isFork(String basedir) {
+        return isFork(basedir, Runtime.getRuntime().maxMemory());
+    }
+
+    static boolean isFork(String basedir, long maxHeap) {
+        Costs costs = COSTS.get(key(basedir));
+        long heapGrowth = costs != null ? costs.getEmbeddedHeapGrowth() : 0;
+        if (maxHeap != Long.MAX_VALUE && ExecutionMetrics.getLiveHeap() + heapGrowth > maxHeap * HEAP_LIMIT) {
+            return true;
+        }
+        return costs != null && costs.isForkCheaper();
+    }
+
+    /**
+     * Records the costs of a successful execution.
+     *
+     * @param basedir The base directory of the execution, must not be <code>null</code>.
+     * @param result  The result of the execution, must not be <code>null</code>.
+     */
+    static void record(String basedir, ExecutionResult result) {
+        COSTS.computeIfAbsent(key(basedir), k -> new Costs()).add(result);
+    }
+
+    /**
+     * Forgets all recorded costs.
+     */
+    static void reset() {
+        COSTS.clear();
+    }
+
+    private static String key(String basedir) {
+        return new File(basedir).getAbsoluteFile().toPath().normalize().toString();
+    }
+}
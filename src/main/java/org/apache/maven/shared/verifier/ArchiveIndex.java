@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The names of the entries of a JAR/ZIP archive, read once from its central directory. Entry existence and wildcard
+ * queries (see {@link FileGlobs}) are answered from memory.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class ArchiveIndex {
+
+    private final long lastModified;
+
+    private final long length;
+
+    private final Set<String> names;
+
+    private final String[] sortedNames;
+
+    private ArchiveIndex(long lastModified, long length, Set<String> names) {
+        this.lastModified = lastModified;
+        this.length = length;
+        this.names = names;
+        this.sortedNames = names.toArray(new String[0]);
+        Arrays.sort(this.sortedNames);
+    }
+
+    /**
+     * Reads the entry names of the specified archive.
+     *
+     * @param archive The archive to read, must not be <code>null</code>.
+     * @return The index of the archive, never <code>null</code>.
+     * @throws IOException If the archive could not be read.
+     */
+    static ArchiveIndex read(File archive) throws IOException {
+        long lastModified = archive.lastModified();
+        long length = archive.length();
+
+        Set<String> names = new HashSet<>();
+        try (ZipFile zip = new ZipFile(archive)) {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+                names.add(entries.nextElement().getName());
+            }
+        }
+
+        return new ArchiveIndex(lastModified, length, names);
+    }
+
+    /**
+     * Tells whether this index still reflects the specified archive.
+     *
+     * @param archive The archive this index was read from, must not be <code>null</code>.
+     * @return <code>true</code> if the archive was not modified since it was read, <code>false</code> otherwise.
+     */
+    boolean isCurrent(File archive) {
+        return archive.lastModified() == lastModified && archive.length() == length;
+    }
+
+    /**
+     * Tells whether the archive contains the specified entry. Like a <code>jar:</code> URL, a directory entry can be
+     * named with or without trailing slash.
+     *
+     * @param name The entry name, may contain wildcards.
+     * @return <code>true</code> if the entry exists, <code>false</code> otherwise.
+     */
+    boolean contains(String name) {
+        if (FileGlobs.isGlob(name)) {
+            return FileGlobs.matchesAny(sortedNames, name);
+        }
+        return names.contains(name) || names.contains(name + '/');
+    }
+
+    /**
+     * Checks the presence of the specified entries.
+     *
+     * @param entries The names of the entries, must not be <code>null</code>. Names prefixed with <code>!</code>
+     *                denote unwanted entries.
+     * @return One line per missing or unwanted entry or <code>null</code> if the archive matches.
+     */
+    String describeMismatches(Collection<String> entries) {
+        List<String> missing = new ArrayList<>();
+        List<String> unwanted = new ArrayList<>();
+        for (String entry : entries) {
+            if (entry.startsWith("!")) {
+                if (contains(entry.substring(1))) {
+                    unwanted.add(entry.substring(1));
+                }
+            } else if (!contains(entry)) {
+                missing.add(entry);
+            }
+        }
+
+        if (missing.isEmpty() && unwanted.isEmpty()) {
+            return null;
+        }
+        StringBuilder message = new StringBuilder();
+        for (String entry : missing) {
+            message.append("\n  missing: ").append(entry);
+        }
+        for (String entry : unwanted) {
+            message.append("\n  unwanted: ").append(entry);
+        }
+        return message.toString();
+    }
+}
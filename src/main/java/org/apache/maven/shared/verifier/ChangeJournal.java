@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The files created, modified or deleted by an execution, determined by comparing snapshots of the local repository
+ * and the base directory taken before and after the execution. A file counts as modified if its size or modification
+ * time changed. Directories are not recorded.
+ * <p>
+ * Only the first execution of a verifier walks both trees before the build. Later executions reuse the snapshot taken
+ * after the previous execution and attribute a difference to the build only if the file or its closest existing
+ * directory was modified since the build started, so changes made by the test between executions are not recorded.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class ChangeJournal {
+
+    private final SortedSet<File> created;
+
+    private final SortedSet<File> modified;
+
+    private final SortedSet<File> deleted;
+
+    private ChangeJournal(SortedSet<File> created, SortedSet<File> modified, SortedSet<File> deleted) {
+        this.created = Collections.unmodifiableSortedSet(created);
+        this.modified = Collections.unmodifiableSortedSet(modified);
+        this.deleted = Collections.unmodifiableSortedSet(deleted);
+    }
+
+    /**
+     * Records the changes of consecutive executions with one walk per execution once the first snapshot is taken.
+     */
+    static final class Recorder {
+        private List<File> roots;
+
+        private FileManifest snapshot;
+
+        private FileManifest before;
+
+        private long since;
+
+        /**
+         * Takes or reuses the snapshot before an execution.
+         *
+         * @param roots The trees to record, must not be <code>null</code>.
+         * @throws VerificationException If a directory could not be read.
+         */
+        void begin(File... roots) throws VerificationException {
+            List<File> current = Arrays.asList(roots);
+            // whole seconds, the resolution of the modification times of some file systems
+            since = System.currentTimeMillis() / 1000 * 1000;
+            if (snapshot != null && current.equals(this.roots)) {
+                before = snapshot;
+            } else {
+                before = scan(current);
+                since = Long.MIN_VALUE;
+            }
+            this.roots = current;
+            // not reused if the execution fails
+            snapshot = null;
+        }
+
+        /**
+         * Takes the snapshot after an execution.
+         *
+         * @return The changes of the execution, never <code>null</code>.
+         * @throws VerificationException If a directory could not be read.
+         */
+        ChangeJournal end() throws VerificationException {
+            snapshot = scan(roots);
+            return diff(before, snapshot, since);
+        }
+
+        private static FileManifest scan(List<File> roots) throws VerificationException {
+            try {
+                return FileManifest.scan(roots);
+            } catch (IOException e) {
+                throw new VerificationException("Failed to capture local repository and base directory", e);
+            }
+        }
+
+        /**
+         * Gets the snapshot taken after the last execution.
+         *
+         * @return The snapshot or <code>null</code> if the last execution was not recorded completely.
+         */
+        FileManifest getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    /**
+     * Compares two snapshots of the same directory trees.
+     *
+     * @param before The snapshot taken before the execution, must not be <code>null</code>.
+     * @param after  The snapshot taken after the execution, must not be <code>null</code>.
+     * @return The changes between the snapshots, never <code>null</code>.
+     */
+    static ChangeJournal diff(FileManifest before, FileManifest after) {
+        return diff(before, after, Long.MIN_VALUE);
+    }
+
+    /**
+     * Compares two snapshots of the same directory trees, ignoring differences in directories not modified since the
+     * specified time.
+     *
+     * @param before The snapshot taken before the execution, must not be <code>null</code>.
+     * @param after  The snapshot taken after the execution, must not be <code>null</code>.
+     * @param since  The start of the execution in milliseconds since the epoch, {@link Long#MIN_VALUE} if the snapshot
+     *               before was taken at the start.
+     * @return The changes between the snapshots, never <code>null</code>.
+     */
+    static ChangeJournal diff(FileManifest before, FileManifest after, long since) {
+        SortedSet<File> created = new TreeSet<>();
+        SortedSet<File> modified = new TreeSet<>();
+        SortedSet<File> deleted = new TreeSet<>();
+
+        for (Map.Entry<String, FileManifest.Entry> entry : after.getEntries().entrySet()) {
+            if (entry.getValue().directory) {
+                continue;
+            }
+            FileManifest.Entry previous = before.get(entry.getKey());
+            if (previous != null && !previous.directory && previous.isSameAs(entry.getValue())) {
+                continue;
+            }
+            if (entry.getValue().lastModified < since && !isModifiedSince(after, entry.getKey(), since)) {
+                continue;
+            }
+            if (previous == null || previous.directory) {
+                created.add(new File(entry.getKey()));
+            } else {
+                modified.add(new File(entry.getKey()));
+            }
+        }
+        for (Map.Entry<String, FileManifest.Entry> entry : before.getEntries().entrySet()) {
+            if (!entry.getValue().directory) {
+                FileManifest.Entry current = after.get(entry.getKey());
+                if ((current == null || current.directory) && isModifiedSince(after, entry.getKey(), since)) {
+                    deleted.add(new File(entry.getKey()));
+                }
+            }
+        }
+
+        return new ChangeJournal(created, modified, deleted);
+    }
+
+    /**
+     * Tells whether the closest existing directory of the specified path was modified since the specified time, as
+     * happens when an entry is added, renamed or removed.
+     */
+    private static boolean isModifiedSince(FileManifest manifest, String path, long since) {
+        if (since == Long.MIN_VALUE) {
+            return true;
+        }
+        for (int end = path.lastIndexOf('/'); end > 0; end = path.lastIndexOf('/', end - 1)) {
+            FileManifest.Entry directory = manifest.get(path.substring(0, end));
+            if (directory != null) {
+                return directory.lastModified >= since;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the files created by the execution.
+     *
+     * @return The absolute paths of the created files, sorted, never <code>null</code>.
+     */
+    public SortedSet<File> getCreatedFiles() {
+        return created;
+    }
+
+    /**
+     * Gets the files modified by the execution.
+     *
+     * @return The absolute paths of the modified files, sorted, never <code>null</code>.
+     */
+    public SortedSet<File> getModifiedFiles() {
+        return modified;
+    }
+
+    /**
+     * Gets the files deleted by the execution.
+     *
+     * @return The absolute paths of the deleted files, sorted, never <code>null</code>.
+     */
+    public SortedSet<File> getDeletedFiles() {
+        return deleted;
+    }
+
+    /**
+     * Gets the files created or modified by the execution below the specified directory.
+     *
+     * @param directory The directory to restrict the result to, must not be <code>null</code>.
+     * @return The absolute paths of the created or modified files, sorted, never <code>null</code>.
+     */
+    public SortedSet<File> getWrittenFiles(File directory) {
+        String prefix = FileGlobs.normalize(directory);
+        prefix = prefix.endsWith("/") ? prefix : prefix + '/';
+
+        SortedSet<File> files = new TreeSet<>();
+        addFiles(created, prefix, files);
+        addFiles(modified, prefix, files);
+        return files;
+    }
+
+    /**
+     * Tells whether the execution did not change any file.
+     *
+     * @return <code>true</code> if no file was created, modified or deleted, <code>false</code> otherwise.
+     */
+    public boolean isEmpty() {
+        return created.isEmpty() && modified.isEmpty() && deleted.isEmpty();
+    }
+
+    private static void addFiles(SortedSet<File> source, String prefix, SortedSet<File> target) {
+        for (File file : source) {
+            if (FileGlobs.normalize(file.getPath()).startsWith(prefix)) {
+                target.add(file);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "created: " + created + ", modified: " + modified + ", deleted: " + deleted;
+    }
+}
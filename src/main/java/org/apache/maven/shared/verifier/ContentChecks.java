@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares file content by streaming it in fixed size chunks, so the memory used does not depend on the size of the
+ * files and comparisons stop at the first difference.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class ContentChecks {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The checksum files checked by {@link #checkSidecars(Collection)}, as pairs of extension and digest algorithm.
+     */
+    private static final String[][] SIDECARS = {{".sha1", "SHA-1"}, {".md5", "MD5"}};
+
+    /**
+     * A hexadecimal checksum within a checksum file, which may also name the checked file before or after it, e.g.
+     * <code>hash  file</code>, <code>hash&lt;TAB&gt;file</code> or the BSD format <code>MD5 (file) = hash</code>.
+     */
+    private static final Pattern CHECKSUM = Pattern.compile("(?<![0-9A-Za-z])[0-9A-Fa-f]{32,}(?![0-9A-Za-z])");
+
+    private ContentChecks() {}
+
+    /**
+     * Calculates digests of a file, reading it once.
+     *
+     * @param file       The file to digest, must not be <code>null</code>.
+     * @param algorithms The digest algorithms, e.g. <code>SHA-256</code>, must not be <code>null</code>.
+     * @return The lower case hexadecimal digests in the order of the algorithms, never <code>null</code>.
+     * @throws IOException If the file could not be read or an algorithm is not supported.
+     */
+    static String[] digest(File file, String... algorithms) throws IOException {
+        MessageDigest[] digests = new MessageDigest[algorithms.length];
+        for (int i = 0; i < algorithms.length; i++) {
+            try {
+                digests[i] = MessageDigest.getInstance(algorithms[i]);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException("Unsupported digest algorithm " + algorithms[i], e);
+            }
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+
+        String[] result = new String[digests.length];
+        for (int i = 0; i < digests.length; i++) {
+            result[i] = toHex(digests[i].digest());
+        }
+        return result;
+    }
+
+    /**
+     * Compares the content of two files.
+     *
+     * @param actual   The file to check, must not be <code>null</code>.
+     * @param expected The file with the expected content, must not be <code>null</code>.
+     * @return A description of the first difference or <code>null</code> if the content is equal.
+     * @throws IOException If a file could not be read.
+     */
+    static String compare(File actual, File expected) throws IOException {
+        long size = Files.size(actual.toPath());
+        long expectedSize = Files.size(expected.toPath());
+        if (size != expectedSize) {
+            return "size " + size + " differs from expected size " + expectedSize;
+        }
+        try (InputStream in = Files.newInputStream(actual.toPath());
+                InputStream expectedIn = Files.newInputStream(expected.toPath())) {
+            return compare(in, expectedIn);
+        }
+    }
+
+    /**
+     * Compares the content of a file with bytes.
+     *
+     * @param actual   The file to check, must not be <code>null</code>.
+     * @param expected The expected content, must not be <code>null</code>.
+     * @return A description of the first difference or <code>null</code> if the content is equal.
+     * @throws IOException If the file could not be read.
+     */
+    static String compare(File actual, byte[] expected) throws IOException {
+        long size = Files.size(actual.toPath());
+        if (size != expected.length) {
+            return "size " + size + " differs from expected size " + expected.length;
+        }
+        try (InputStream in = Files.newInputStream(actual.toPath())) {
+            return compare(in, new ByteArrayInputStream(expected));
+        }
+    }
+
+    private static String compare(InputStream in, InputStream expectedIn) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] expectedBuffer = new byte[BUFFER_SIZE];
+        long offset = 0;
+        while (true) {
+            int read = readFully(in, buffer);
+            int expectedRead = readFully(expectedIn, expectedBuffer);
+            int length = Math.min(read, expectedRead);
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] != expectedBuffer[i]) {
+                    return "first difference at byte " + (offset + i);
+                }
+            }
+            if (read != expectedRead) {
+                // the files changed since their sizes were compared
+                return "first difference at byte " + (offset + length);
+            }
+            if (read < buffer.length) {
+                return null;
+            }
+            offset += read;
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Checks the files against their <code>.sha1</code> and <code>.md5</code> checksum files, several files in
+     * parallel. Each file is read once for all its checksum files.
+     *
+     * @param files The files to check, must not be <code>null</code>.
+     * @return The problems found in the order of the files, possibly empty but never <code>null</code>.
+     * @throws IOException If the check was interrupted.
+     */
+    static List<String> checkSidecars(Collection<File> files) throws IOException {
+        List<String> problems = new ArrayList<>();
+        if (files.isEmpty()) {
+            return problems;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<List<String>>> checks = new ArrayList<>();
+            for (File file : files) {
+                checks.add(executor.submit(() -> checkSidecars(file)));
+            }
+            for (Future<List<String>> check : checks) {
+                problems.addAll(check.get());
+            }
+            return problems;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking checksums", e);
+        } catch (ExecutionException e) {
+            // checkSidecars(File) reports its failures as problems
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> checkSidecars(File file) {
+        List<String> problems = new ArrayList<>();
+        List<String> algorithms = new ArrayList<>();
+        List<String> declared = new ArrayList<>();
+        try {
+            if (!file.isFile()) {
+                problems.add("Expected file was not found: " + file.getPath());
+                return problems;
+            }
+
+            for (String[] sidecar : SIDECARS) {
+                File checksumFile = new File(file.getPath() + sidecar[0]);
+                if (checksumFile.isFile()) {
+                    String content =
+                            new String(Files.readAllBytes(checksumFile.toPath()), StandardCharsets.US_ASCII).trim();
+                    Matcher checksum = CHECKSUM.matcher(content);
+                    algorithms.add(sidecar[1]);
+                    declared.add((checksum.find() ? checksum.group() : content).toLowerCase(Locale.ROOT));
+                }
+            }
+            if (algorithms.isEmpty()) {
+                problems.add("No checksum file was found for " + file.getPath());
+                return problems;
+            }
+
+            String[] actual = digest(file, algorithms.toArray(new String[0]));
+            for (int i = 0; i < actual.length; i++) {
+                if (!actual[i].equals(declared.get(i))) {
+                    problems.add(algorithms.get(i) + " checksum of " + file.getPath() + " is " + actual[i]
+                            + " but the checksum file declares " + declared.get(i));
+                }
+            }
+        } catch (IOException e) {
+            problems.add("Could not read " + file.getPath() + ": " + e.getMessage());
+        }
+        return problems;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -33,6 +33,7 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.StringTokenizer;
 
 import org.apache.maven.shared.utils.io.IOUtil;
 
@@ -58,6 +59,29 @@ class Embedded3xLauncher implements MavenLauncher {
         this.doMain = doMain;
     }
 
+    /**
+     * Parses a class path of the platform.
+     *
+     * @param classpath The class path, may be <code>null</code>.
+     * @return The URLs of the class path entries or <code>null</code> if the class path is <code>null</code>.
+     * @throws LauncherException If an entry could not be converted to a URL.
+     */
+    static List<URL> parseClasspath(String classpath) throws LauncherException {
+        if (classpath == null) {
+            return null;
+        }
+        ArrayList<URL> classpathUrls = new ArrayList<>();
+        StringTokenizer st = new StringTokenizer(classpath, File.pathSeparator);
+        while (st.hasMoreTokens()) {
+            try {
+                classpathUrls.add(new File(st.nextToken()).toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new LauncherException("Invalid launcher classpath " + classpath, e);
+            }
+        }
+        return classpathUrls;
+    }
+
     /**
      * Launches an embedded Maven 3.x instance from some Maven installation directory.
      */
@@ -169,6 +193,17 @@ class Embedded3xLauncher implements MavenLauncher {
 
     public int run(String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile)
             throws IOException, LauncherException {
+        return run(cliArgs, systemProperties, workingDirectory, logFile, new ExecutionMetrics());
+    }
+
+    @Override
+    public int run(
+            String[] cliArgs,
+            Properties systemProperties,
+            String workingDirectory,
+            File logFile,
+            ExecutionMetrics metrics)
+            throws IOException, LauncherException {
         PrintStream out = (logFile != null) ? new PrintStream(Files.newOutputStream(logFile.toPath())) : System.out;
         try {
             File workingDirectoryPath = new File(workingDirectory);
@@ -189,7 +224,9 @@ class Embedded3xLauncher implements MavenLauncher {
             ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
             Thread.currentThread().setContextClassLoader(mavenCli.getClass().getClassLoader());
             try {
+                metrics.processStarted();
                 Object result = doMain.invoke(mavenCli, new Object[] {cliArgs, workingDirectory, out, out});
+                metrics.processExited();
 
                 return ((Number) result).intValue();
             } finally {
@@ -203,6 +240,7 @@ class Embedded3xLauncher implements MavenLauncher {
             if (logFile != null) {
                 out.close();
             }
+            metrics.logFlushed();
         }
     }
 
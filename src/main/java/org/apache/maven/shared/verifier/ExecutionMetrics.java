@@ -0,0 +1,439 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the timings and resource usage of one execution while it runs. The launchers mark the phases they go
+ * through; phases a launcher does not mark take no time. The phases are reported to the {@link VerifierListener}s of
+ * the verifier as they start and end.
+ * <p>
+ * For forked executions, the CPU time of the child processes is taken from <code>/proc/self/stat</code> (also counting
+ * other child processes of this JVM terminating meanwhile) and the peak resident set size of the Maven process is
+ * sampled from <code>/proc/&lt;pid&gt;/status</code>, both only on Linux. For embedded executions, garbage collections
+ * and heap usage are taken from the platform MXBeans, so concurrent activity in this JVM is included. The heap delta
+ * compares the heap left after the last garbage collections before and after the build, so garbage does not count. Optionally, the
+ * build is recorded with the Java Flight Recorder, see {@link FlightRecording}.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class ExecutionMetrics {
+
+    private static final File PROC_SELF_STAT = new File("/proc/self/stat");
+
+    /**
+     * The length of a clock tick in <code>/proc</code>, <code>USER_HZ</code> is 100 on all common Linux platforms.
+     */
+    private static final long NANOS_PER_TICK = TimeUnit.SECONDS.toNanos(1) / 100;
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+
+    private final long started = System.nanoTime();
+
+    private final Verifier verifier;
+
+    private final List<VerifierListener> listeners;
+
+    private final VerifierEvent execution;
+
+    private VerifierEvent phase;
+
+    private long launcherAcquired;
+
+    private long processStarted;
+
+    private long processExited;
+
+    private long logFlushed;
+
+    private boolean forked;
+
+    private long childCpuTicks = -1;
+
+    private long cpuTimeNanos = -1;
+
+    private volatile long peakRss = -1;
+
+    private Thread sampler;
+
+    private long gcCount = -1;
+
+    private long gcTimeMillis = -1;
+
+    private long heapUsed;
+
+    private long heapDelta;
+
+    private FlightRecording flightRecording;
+
+    private FlightRecordingSummary flightRecordingSummary;
+
+    private File mojoTimingsFile;
+
+    private List<MojoTiming> mojoTimings;
+
+    ExecutionMetrics() {
+        this(null, null, null);
+    }
+
+    /**
+     * Creates metrics reporting the phases of an execution to listeners.
+     *
+     * @param verifier  The executing verifier, may be <code>null</code> to not report the phases.
+     * @param listeners The listeners of the verifier, may be <code>null</code>.
+     * @param execution The started execution, receiving the exceptions thrown by the listeners notified about the
+     *                  phases, may be <code>null</code>.
+     */
+    ExecutionMetrics(Verifier verifier, List<VerifierListener> listeners, VerifierEvent execution) {
+        this.verifier = verifier;
+        this.listeners = listeners;
+        this.execution = execution;
+        enter(VerifierEvent.Phase.LAUNCHER);
+    }
+
+    /**
+     * Records the Maven build with the Java Flight Recorder.
+     *
+     * @param flightRecording The recording, may be <code>null</code> to not record the build.
+     */
+    void setFlightRecording(FlightRecording flightRecording) {
+        this.flightRecording = flightRecording;
+    }
+
+    FlightRecording getFlightRecording() {
+        return flightRecording;
+    }
+
+    /**
+     * Reads the mojo timings recorded by the build when the execution finishes.
+     *
+     * @param mojoTimingsFile The file written by {@link MojoTimingSpy}, may be <code>null</code>.
+     */
+    void setMojoTimingsFile(File mojoTimingsFile) {
+        this.mojoTimingsFile = mojoTimingsFile;
+    }
+
+    void launcherAcquired() {
+        launcherAcquired = System.nanoTime();
+        enter(VerifierEvent.Phase.SPAWN);
+    }
+
+    /**
+     * Marks the selection of a launcher.
+     *
+     * @param forked <code>true</code> if the launcher runs Maven in a separate process.
+     */
+    void launcherAcquired(boolean forked) {
+        this.forked = forked;
+        launcherAcquired();
+    }
+
+    /**
+     * Marks the start of a forked Maven process and starts sampling its memory usage.
+     *
+     * @param process The started process, must not be <code>null</code>.
+     */
+    void processStarted(Process process) {
+        processStarted = System.nanoTime();
+        forked = true;
+        enter(VerifierEvent.Phase.RUN);
+        childCpuTicks = readChildCpuTicks();
+
+        long pid = getPid(process);
+        File status = new File("/proc/" + pid + "/status");
+        if (pid > 0 && status.isFile()) {
+            sampler = new Thread(
+                    () -> {
+                        do {
+                            long rss = readPeakRss(status);
+                            if (rss > peakRss) {
+                                peakRss = rss;
+                            }
+                        } while (sleep());
+                    },
+                    "maven-verifier-sampler-" + pid);
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    /**
+     * Marks the start of a Maven execution within this JVM.
+     */
+    void processStarted() {
+        processStarted = System.nanoTime();
+        enter(VerifierEvent.Phase.RUN);
+        gcCount = 0;
+        gcTimeMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount -= Math.max(0, gc.getCollectionCount());
+            gcTimeMillis -= Math.max(0, gc.getCollectionTime());
+        }
+        heapUsed = getLiveHeap();
+        if (flightRecording != null) {
+            flightRecording.start();
+        }
+    }
+
+    void processExited() {
+        processExited = System.nanoTime();
+        enter(VerifierEvent.Phase.LOG_FLUSH);
+        if (!forked && flightRecording != null) {
+            flightRecording.stop();
+        }
+        if (forked) {
+            long ticks = readChildCpuTicks();
+            if (ticks >= 0 && childCpuTicks >= 0) {
+                cpuTimeNanos = (ticks - childCpuTicks) * NANOS_PER_TICK;
+            }
+            if (sampler != null) {
+                sampler.interrupt();
+                try {
+                    sampler.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } else if (gcCount >= 0) {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, gc.getCollectionCount());
+                gcTimeMillis += Math.max(0, gc.getCollectionTime());
+            }
+            heapDelta = getLiveHeap() - heapUsed;
+        }
+    }
+
+    void logFlushed() {
+        logFlushed = System.nanoTime();
+        enter(null);
+    }
+
+    /**
+     * Completes the phases not marked by the launcher. A recording of this JVM still running because the embedded
+     * build failed to complete is stopped.
+     *
+     * @param failed <code>true</code> if the launcher failed, ending the current phase as failed.
+     */
+    void finish(boolean failed) {
+        if (flightRecording != null) {
+            flightRecording.stop();
+        }
+        if (phase != null) {
+            addListenerFailure(VerifierListeners.notifyEnded(phase, listeners, getForkMode(), failed));
+            phase = null;
+        }
+        long now = System.nanoTime();
+        if (launcherAcquired == 0) {
+            launcherAcquired = now;
+        }
+        if (processStarted == 0) {
+            processStarted = launcherAcquired;
+        }
+        if (processExited == 0) {
+            processExited = now;
+        }
+        if (logFlushed == 0) {
+            logFlushed = Math.max(now, processExited);
+        }
+        if (flightRecording != null) {
+            flightRecordingSummary = flightRecording.summarize();
+        }
+        if (mojoTimingsFile != null) {
+            mojoTimings = MojoTimings.read(mojoTimingsFile);
+        }
+    }
+
+    /**
+     * Ends the current phase and starts the next one.
+     *
+     * @param next The next phase, may be <code>null</code>.
+     */
+    private void enter(VerifierEvent.Phase next) {
+        if (verifier == null) {
+            return;
+        }
+        addListenerFailure(VerifierListeners.notifyEnded(phase, listeners, getForkMode(), false));
+        phase = next != null ? VerifierListeners.started(next, verifier, listeners, null, getForkMode()) : null;
+    }
+
+    /**
+     * Defers an exception thrown by a listener to the end of the execution, so it does not abort the launcher.
+     */
+    private void addListenerFailure(RuntimeException failure) {
+        if (failure != null && execution != null) {
+            execution.addListenerFailure(failure);
+        }
+    }
+
+    String getForkMode() {
+        return launcherAcquired == 0 ? null : forked ? "forked" : "embedded";
+    }
+
+    long getLauncherNanos() {
+        return launcherAcquired - started;
+    }
+
+    long getSpawnNanos() {
+        return processStarted - launcherAcquired;
+    }
+
+    long getRunNanos() {
+        return processExited - processStarted;
+    }
+
+    long getLogFlushNanos() {
+        return logFlushed - processExited;
+    }
+
+    long getTotalNanos() {
+        return logFlushed - started;
+    }
+
+    boolean isForked() {
+        return forked;
+    }
+
+    long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    long getPeakRss() {
+        return peakRss;
+    }
+
+    long getGcCount() {
+        return gcCount;
+    }
+
+    long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * Gets the used heap after the last garbage collection of each heap pool, falling back to the current usage for
+     * pools not collected yet.
+     *
+     * @return The used heap in bytes.
+     */
+    static long getLiveHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                MemoryUsage usage = pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsage() : null;
+                // a pool not collected yet reports an empty usage
+                used += (usage != null && usage.getCommitted() > 0 ? usage : pool.getUsage()).getUsed();
+            }
+        }
+        return used;
+    }
+
+    long getHeapDelta() {
+        return heapDelta;
+    }
+
+    FlightRecordingSummary getFlightRecordingSummary() {
+        return flightRecordingSummary;
+    }
+
+    List<MojoTiming> getMojoTimings() {
+        return mojoTimings;
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the CPU time of the terminated and waited-for child processes of this JVM.
+     *
+     * @return The user and system time in clock ticks or <code>-1</code> if not available.
+     */
+    private static long readChildCpuTicks() {
+        if (!PROC_SELF_STAT.isFile()) {
+            return -1;
+        }
+        try {
+            String stat = new String(Files.readAllBytes(PROC_SELF_STAT.toPath()), StandardCharsets.US_ASCII);
+            // the command name in parentheses may contain spaces, fields 16 (cutime) and 17 (cstime) follow it
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split("\\s+");
+            return Long.parseLong(fields[13]) + Long.parseLong(fields[14]);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the peak resident set size of a process.
+     *
+     * @return The peak resident set size in bytes or <code>-1</code> if not available.
+     */
+    private static long readPeakRss(File status) {
+        try (BufferedReader reader = Files.newBufferedReader(status.toPath(), StandardCharsets.US_ASCII)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith("VmHWM:")) {
+                    String[] value = line.substring(6).trim().split("\\s+");
+                    return Long.parseLong(value[0]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // process exited
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the process id, using <code>Process.pid()</code> on Java 9 and later and the field of the process
+     * implementation on Java 8.
+     *
+     * @return The process id or <code>-1</code> if not available.
+     */
+    private static long getPid(Process process) {
+        try {
+            return ((Number) Process.class.getMethod("pid").invoke(process)).longValue();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            try {
+                Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return pid.getLong(process);
+            } catch (ReflectiveOperationException | RuntimeException e2) {
+                return -1;
+            }
+        }
+    }
+}
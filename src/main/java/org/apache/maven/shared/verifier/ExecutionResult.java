@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of the last {@link Verifier#execute()}, available through {@link Verifier#getExecutionResult()} also
+ * if the execution failed: the exit code, the time spent in each phase of the execution and the resources used by
+ * Maven.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class ExecutionResult {
+
+    private final int exitCode;
+
+    private final ChangeJournal changeJournal;
+
+    private final ExecutionMetrics metrics;
+
+    ExecutionResult(int exitCode, ChangeJournal changeJournal, ExecutionMetrics metrics) {
+        this.exitCode = exitCode;
+        this.changeJournal = changeJournal;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the exit code of Maven.
+     *
+     * @return The exit code, <code>0</code> if the build succeeded.
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Gets the files in the local repository and the base directory changed by the execution.
+     *
+     * @return The changed files or <code>null</code> if the change journal was not enabled, see
+     *         {@link Verifier#setChangeJournal(boolean)}.
+     */
+    public ChangeJournal changedArtifacts() {
+        return changeJournal;
+    }
+
+    /**
+     * Gets the time from the start of the execution until the log file was closed, excluding the change journal.
+     *
+     * @return The total duration, never <code>null</code>.
+     */
+    public Duration getDuration() {
+        return Duration.ofNanos(metrics.getTotalNanos());
+    }
+
+    /**
+     * Gets the time needed to select and, on first use, create the launcher.
+     *
+     * @return The duration, never <code>null</code>.
+     */
+    public Duration getLauncherDuration() {
+        return Duration.ofNanos(metrics.getLauncherNanos());
+    }
+
+    /**
+     * Gets the time needed to start the Maven process, respectively to set up the embedded execution.
+     *
+     * @return The duration, never <code>null</code>.
+     */
+    public Duration getSpawnDuration() {
+        return Duration.ofNanos(metrics.getSpawnNanos());
+    }
+
+    /**
+     * Gets the time Maven ran.
+     *
+     * @return The duration, never <code>null</code>.
+     */
+    public Duration getRunDuration() {
+        return Duration.ofNanos(metrics.getRunNanos());
+    }
+
+    /**
+     * Gets the time from the end of Maven until its output was written to the log file.
+     *
+     * @return The duration, never <code>null</code>.
+     */
+    public Duration getLogFlushDuration() {
+        return Duration.ofNanos(metrics.getLogFlushNanos());
+    }
+
+    /**
+     * Tells whether Maven ran in a separate process.
+     *
+     * @return <code>true</code> for a forked execution, <code>false</code> for an embedded one.
+     */
+    public boolean isForked() {
+        return metrics.isForked();
+    }
+
+    /**
+     * Gets the CPU time (user and system) of a forked execution, including the processes Maven started. Child
+     * processes of this JVM terminating during the execution are counted as well. Only available on Linux.
+     *
+     * @return The CPU time or <code>null</code> if not available.
+     */
+    public Duration getCpuTime() {
+        long nanos = metrics.getCpuTimeNanos();
+        return nanos >= 0 ? Duration.ofNanos(nanos) : null;
+    }
+
+    /**
+     * Gets the peak resident set size of the Maven process of a forked execution, sampled while it runs. Only
+     * available on Linux.
+     *
+     * @return The peak resident set size in bytes or <code>-1</code> if not available.
+     */
+    public long getPeakRss() {
+        return metrics.getPeakRss();
+    }
+
+    /**
+     * Gets the number of garbage collections in this JVM during an embedded execution.
+     *
+     * @return The number of collections or <code>-1</code> if not available.
+     */
+    public long getGcCount() {
+        return metrics.getGcCount();
+    }
+
+    /**
+     * Gets the accumulated collection time of the garbage collectors of this JVM during an embedded execution.
+     *
+     * @return The collection time or <code>null</code> if not available.
+     */
+    public Duration getGcTime() {
+        long millis = metrics.getGcTimeMillis();
+        return millis >= 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    /**
+     * Gets the change of the heap of this JVM left after garbage collections during an embedded execution, comparing
+     * the last collections before and after the execution. It is <code>0</code> if no collection ran meanwhile.
+     *
+     * @return The difference in bytes, <code>0</code> for forked executions.
+     */
+    public long getHeapDelta() {
+        return metrics.getHeapDelta();
+    }
+
+    /**
+     * Gets the summary of the Java Flight Recorder recording of the build.
+     *
+     * @return The summary or <code>null</code> if the build was not recorded, see
+     *         {@link Verifier#setFlightRecording(boolean)}, or the recording could not be read.
+     */
+    public FlightRecordingSummary getFlightRecording() {
+        return metrics.getFlightRecordingSummary();
+    }
+
+    /**
+     * Gets the time spent in each mojo execution of the build, recorded by an event spy injected into Maven.
+     *
+     * @return The timings in the order the mojo executions ended or <code>null</code> if they were not recorded, see
+     *         {@link Verifier#setMojoTimings(boolean)}.
+     */
+    public List<MojoTiming> getMojoTimings() {
+        return metrics.getMojoTimings();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder(128);
+        buffer.append("exit code ").append(exitCode);
+        buffer.append(", launcher ").append(getLauncherDuration().toMillis()).append(" ms");
+        buffer.append(", spawn ").append(getSpawnDuration().toMillis()).append(" ms");
+        buffer.append(", run ").append(getRunDuration().toMillis()).append(" ms");
+        buffer.append(", log flush ").append(getLogFlushDuration().toMillis()).append(" ms");
+        if (getCpuTime() != null) {
+            buffer.append(", cpu ").append(getCpuTime().toMillis()).append(" ms");
+        }
+        if (getPeakRss() >= 0) {
+            buffer.append(", peak rss ").append(getPeakRss() / 1024).append(" KiB");
+        }
+        if (getGcCount() >= 0) {
+            buffer.append(", gc ")
+                    .append(getGcCount())
+                    .append(" in ")
+                    .append(getGcTime().toMillis())
+                    .append(" ms");
+            buffer.append(", heap delta ").append(getHeapDelta() / 1024).append(" KiB");
+        }
+        return buffer.toString();
+    }
+}
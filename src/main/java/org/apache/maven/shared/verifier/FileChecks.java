@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the file presence checks of a {@link Verifier} from the cheapest source available: a captured
+ * {@link FileManifest}, the shared {@link LocalRepositoryIndex} for files in the local repository, or the file system.
+ * Archive indexes are cached until {@link #invalidate()}.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class FileChecks {
+
+    /**
+     * Shared by all verifiers, the listings are validated against the modification time of their directory.
+     */
+    private static final LocalRepositoryIndex LOCAL_REPOSITORY_INDEX = new LocalRepositoryIndex();
+
+    private FileManifest fileManifest;
+
+    private final Map<File, ArchiveIndex> archiveIndexes = new HashMap<>();
+
+    /**
+     * Discards the cached state after files may have been modified.
+     */
+    void invalidate() {
+        fileManifest = null;
+        archiveIndexes.clear();
+    }
+
+    void setFileManifest(FileManifest fileManifest) {
+        this.fileManifest = fileManifest;
+    }
+
+    /**
+     * Tells whether the specified file or directory exists.
+     *
+     * @param file            The absolute file to check, must not be <code>null</code>.
+     * @param localRepository The local repository, must not be <code>null</code>.
+     * @return <code>true</code> if the file exists, <code>false</code> otherwise.
+     */
+    boolean exists(File file, File localRepository) {
+        if (fileManifest != null && fileManifest.covers(file)) {
+            return fileManifest.exists(file);
+        }
+        if (FileGlobs.normalize(file).startsWith(FileGlobs.normalize(localRepository) + '/')) {
+            return LOCAL_REPOSITORY_INDEX.exists(file);
+        }
+        return file.exists();
+    }
+
+    /**
+     * Tells whether any file matches the specified pattern.
+     *
+     * @param expectedFile The absolute file pattern, must not be <code>null</code>.
+     * @return <code>true</code> if a file matches, <code>false</code> otherwise.
+     * @throws IOException If the directory tree spanned by the pattern could not be read.
+     */
+    boolean matches(File expectedFile) throws IOException {
+        String glob = FileGlobs.normalize(expectedFile);
+        File literalParent = new File(FileGlobs.literalPrefix(glob));
+
+        if (fileManifest != null && fileManifest.covers(literalParent)) {
+            return fileManifest.matches(glob);
+        }
+
+        if (FileGlobs.isGlob(expectedFile.getParent())) {
+            // wildcards spanning directories need a walk of the literal parent
+            return FileManifest.scan(Collections.singletonList(literalParent)).matches(glob);
+        }
+
+        String[] candidates = expectedFile.getParentFile().list();
+        if (candidates != null) {
+            Pattern pattern = FileGlobs.compileName(expectedFile.getName());
+            for (String candidate : candidates) {
+                if (pattern.matcher(candidate).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifies the presence of a file, a file pattern or an archive entry given as <code>archive!/entry</code>.
+     *
+     * @param filePath        The path to check, relative to the base directory or absolute, must not be
+     *                        <code>null</code>.
+     * @param wanted          <code>true</code> if the file must exist, <code>false</code> if it must not.
+     * @param basedir         The base directory, must not be <code>null</code>.
+     * @param localRepository The local repository, must not be <code>null</code>.
+     * @throws VerificationException If the check fails.
+     */
+    void verifyPresence(String filePath, boolean wanted, File basedir, File localRepository)
+            throws VerificationException {
+        if (filePath.contains("!/")) {
+            int separator = filePath.indexOf("!/");
+            String entry = filePath.substring(separator + 2);
+
+            ArchiveIndex index;
+            try {
+                index = getArchiveIndex(filePath.substring(0, separator), basedir);
+            } catch (IOException e) {
+                if (wanted) {
+                    throw new VerificationException("Error looking for JAR resource: " + filePath);
+                }
+                return;
+            }
+
+            if (!index.contains(entry)) {
+                if (wanted) {
+                    throw new VerificationException("Expected JAR resource was not found: " + filePath);
+                }
+            } else {
+                if (!wanted) {
+                    throw new VerificationException("Unwanted JAR resource was found: " + filePath);
+                }
+            }
+        } else {
+            File expectedFile = new File(filePath);
+
+            // NOTE: On Windows, a path with a leading (back-)slash is relative to the current drive
+            if (!expectedFile.isAbsolute() && !expectedFile.getPath().startsWith(File.separator)) {
+                expectedFile = new File(basedir, filePath);
+            }
+
+            if (FileGlobs.isGlob(filePath)) {
+                boolean found;
+                try {
+                    found = matches(expectedFile);
+                } catch (IOException e) {
+                    throw new VerificationException("Error looking for file pattern: " + expectedFile.getPath(), e);
+                }
+
+                if (!found && wanted) {
+                    throw new VerificationException("Expected file pattern was not found: " + expectedFile.getPath());
+                } else if (found && !wanted) {
+                    throw new VerificationException("Unwanted file pattern was found: " + expectedFile.getPath());
+                }
+            } else {
+                if (!exists(expectedFile, localRepository)) {
+                    if (wanted) {
+                        throw new VerificationException("Expected file was not found: " + expectedFile.getPath());
+                    }
+                } else {
+                    if (!wanted) {
+                        throw new VerificationException("Unwanted file was found: " + expectedFile.getPath());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the index of the specified archive, reading it if not cached or modified since.
+     *
+     * @param archivePath The path to the archive, relative to the base directory or absolute, must not be
+     *                    <code>null</code>.
+     * @param basedir     The base directory, must not be <code>null</code>.
+     * @return The index of the archive, never <code>null</code>.
+     * @throws IOException If the archive could not be read.
+     */
+    ArchiveIndex getArchiveIndex(String archivePath, File basedir) throws IOException {
+        File archive = new File(archivePath);
+        if (!archive.isAbsolute()) {
+            archive = new File(basedir, archivePath);
+        }
+        return getArchiveIndex(archive.getAbsoluteFile());
+    }
+
+    /**
+     * Gets the index of the specified archive, reading it if not cached or modified since.
+     *
+     * @param archive The absolute archive file, must not be <code>null</code>.
+     * @return The index of the archive, never <code>null</code>.
+     * @throws IOException If the archive could not be read.
+     */
+    ArchiveIndex getArchiveIndex(File archive) throws IOException {
+        ArchiveIndex index = archiveIndexes.get(archive);
+        if (index == null || !index.isCurrent(archive)) {
+            index = ArchiveIndex.read(archive);
+            archiveIndexes.put(archive, index);
+        }
+        return index;
+    }
+
+    private static final String MARKER = "${artifact:";
+
+    /**
+     * Checks the presence of the files of an artifact without throwing.
+     *
+     * @param fileNames       The files of the artifact, relative to the base directory or absolute, must not be
+     *                        <code>null</code>.
+     * @param wanted          <code>true</code> if the files must exist, <code>false</code> if they must not exist.
+     * @param basedir         The base directory, must not be <code>null</code>.
+     * @param localRepository The local repository, must not be <code>null</code>.
+     * @return The first problem found or <code>null</code> if the artifact is present respectively absent.
+     */
+    String checkPresence(List<String> fileNames, boolean wanted, File basedir, File localRepository) {
+        for (String fileName : fileNames) {
+            File file = new File(fileName);
+            if (!file.isAbsolute()) {
+                file = new File(basedir, fileName);
+            }
+
+            boolean exists = exists(file, localRepository);
+            if (!exists && wanted) {
+                return "Expected file was not found: " + file.getPath();
+            } else if (exists && !wanted) {
+                return "Unwanted file was found: " + file.getPath();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reports the problems found by checking several artifacts together.
+     *
+     * @param problems The problems, must not be <code>null</code>.
+     * @param total    The number of checked artifacts.
+     * @throws VerificationException If there are problems.
+     */
+    static void report(List<String> problems, int total) throws VerificationException {
+        if (!problems.isEmpty()) {
+            StringBuilder message =
+                    new StringBuilder(problems.size() + " of " + total + " artifacts failed verification:");
+            for (String problem : problems) {
+                message.append("\n  ").append(problem);
+            }
+            throw new VerificationException(message.toString());
+        }
+    }
+
+    /**
+     * Replaces an artifact expression <code>${artifact:g:a:v:ext}</code> in a line of an expected results file by the
+     * path of the artifact and adds lines for the repository metadata files next to it.
+     *
+     * @param line          The line, must not be <code>null</code>.
+     * @param hasCommand    <code>true</code> if the line starts with a command followed by a space.
+     * @param artifactPaths Maps the coordinates in the expression to the path of the artifact, must not be
+     *                      <code>null</code>.
+     * @return The expanded lines or the line itself if it contains no artifact expression, never <code>null</code>.
+     */
+    static List<String> replaceArtifacts(String line, boolean hasCommand, Function<String, String> artifactPaths) {
+        int index = line.indexOf(MARKER);
+        if (index >= 0) {
+            String newLine = line.substring(0, index);
+            index = line.indexOf("}", index);
+            if (index < 0) {
+                throw new IllegalArgumentException("line does not contain ending artifact marker: '" + line + "'");
+            }
+            String artifact = line.substring(newLine.length() + MARKER.length(), index);
+
+            newLine += artifactPaths.apply(artifact);
+            newLine += line.substring(index + 1);
+
+            List<String> l = new ArrayList<>();
+            l.add(newLine);
+
+            int endIndex = newLine.lastIndexOf('/');
+
+            String command = null;
+            String filespec;
+            if (hasCommand) {
+                int startIndex = newLine.indexOf(' ');
+
+                command = newLine.substring(0, startIndex);
+
+                filespec = newLine.substring(startIndex + 1, endIndex);
+            } else {
+                filespec = newLine;
+            }
+
+            File dir = new File(filespec);
+            addMetadataToList(dir, hasCommand, l, command);
+            addMetadataToList(dir.getParentFile(), hasCommand, l, command);
+
+            return l;
+        } else {
+            return Collections.singletonList(line);
+        }
+    }
+
+    static void addMetadataToList(File dir, boolean hasCommand, List<String> l, String command) {
+        for (File file : getMetadataFiles(dir)) {
+            if (hasCommand) {
+                l.add(command + " " + file.getPath());
+            } else {
+                l.add(file.getPath());
+            }
+        }
+    }
+
+    /**
+     * Gets the repository metadata files in the specified directory of the local repository.
+     *
+     * @param dir The directory to list, must not be <code>null</code>.
+     * @return The metadata files, possibly empty but never <code>null</code>.
+     */
+    static List<File> getMetadataFiles(File dir) {
+        return LOCAL_REPOSITORY_INDEX.getMetadataFiles(dir);
+    }
+}
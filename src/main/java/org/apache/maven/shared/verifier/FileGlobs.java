@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles file name patterns to regular expressions. The patterns are matched against paths using <code>/</code> as
+ * separator: <code>*</code> matches any characters but the separator and <code>**</code> matches any characters
+ * including the separator, i.e. any number of directories. When matching paths of files, the file name is matched as
+ * in earlier versions instead: it is a regular expression in which <code>*</code> stands for <code>.*</code>. The
+ * most recently used compiled patterns are cached.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class FileGlobs {
+
+    private static final int CACHE_SIZE = 256;
+
+    private static final Map<String, Pattern> CACHE =
+            Collections.synchronizedMap(new LinkedHashMap<String, Pattern>(64, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private FileGlobs() {}
+
+    /**
+     * Tells whether the specified path contains a wildcard.
+     *
+     * @param path The path to check, must not be <code>null</code>.
+     * @return <code>true</code> if the path contains a wildcard, <code>false</code> otherwise.
+     */
+    static boolean isGlob(String path) {
+        return path.indexOf('*') > -1;
+    }
+
+    /**
+     * Gets the compiled regular expression for the specified pattern.
+     *
+     * @param glob The pattern to compile, must not be <code>null</code>.
+     * @return The compiled regular expression, never <code>null</code>.
+     */
+    static Pattern compile(String glob) {
+        Pattern pattern = CACHE.get(glob);
+        if (pattern == null) {
+            pattern = Pattern.compile(toRegex(glob));
+            CACHE.put(glob, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Gets the compiled regular expression for the specified file name pattern.
+     *
+     * @param name The file name pattern, a regular expression in which <code>*</code> stands for <code>.*</code>,
+     *             must not be <code>null</code>.
+     * @return The compiled regular expression, never <code>null</code>.
+     */
+    static Pattern compileName(String name) {
+        String key = "name:" + name;
+        Pattern pattern = CACHE.get(key);
+        if (pattern == null) {
+            pattern = Pattern.compile(name.replace("*", ".*"));
+            CACHE.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Gets the leading part of the specified pattern up to the last separator preceding the first wildcard.
+     *
+     * @param glob The pattern, must not be <code>null</code>.
+     * @return The literal directory prefix of the pattern, possibly empty but never <code>null</code>.
+     */
+    static String literalPrefix(String glob) {
+        int wildcard = glob.indexOf('*');
+        if (wildcard < 0) {
+            wildcard = glob.length();
+        }
+        return glob.substring(0, glob.lastIndexOf('/', wildcard - 1) + 1);
+    }
+
+    /**
+     * Tells whether any of the specified paths matches the pattern, the directories of the pattern by
+     * {@link #compile(String)} and its file name by {@link #compileName(String)}. Only the paths sharing the literal
+     * prefix of the pattern are matched against it.
+     *
+     * @param sortedPaths The paths to match, sorted in natural order, must not be <code>null</code>.
+     * @param glob        The pattern, must not be <code>null</code>.
+     * @return <code>true</code> if a path matches, <code>false</code> otherwise.
+     */
+    static boolean matchesAny(String[] sortedPaths, String glob) {
+        int separator = glob.lastIndexOf('/');
+        Pattern directoryPattern = compile(glob.substring(0, separator + 1));
+        Pattern namePattern = compileName(glob.substring(separator + 1));
+        String prefix = literalPrefix(glob);
+
+        int index = Arrays.binarySearch(sortedPaths, prefix);
+        for (int i = index < 0 ? -index - 1 : index; i < sortedPaths.length; i++) {
+            String path = sortedPaths[i];
+            if (!path.startsWith(prefix)) {
+                break;
+            }
+            int nameStart = path.lastIndexOf('/') + 1;
+            if (directoryPattern.matcher(path.substring(0, nameStart)).matches()
+                    && namePattern.matcher(path.substring(nameStart)).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts the path of the specified file to the separator used by the patterns, removing <code>.</code> and
+     * <code>..</code> segments.
+     *
+     * @param file The file, must not be <code>null</code>.
+     * @return The absolute path of the file using <code>/</code> as separator, never <code>null</code>.
+     */
+    static String normalize(File file) {
+        String path = file.getAbsolutePath();
+        try {
+            path = Paths.get(path).normalize().toString();
+        } catch (InvalidPathException e) {
+            // wildcards are no valid path characters on Windows
+        }
+        return normalize(path);
+    }
+
+    static String normalize(String path) {
+        return File.separatorChar == '/' ? path : path.replace(File.separatorChar, '/');
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 16);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    i++;
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                        // "**/" also matches no directory at all
+                        i++;
+                        regex.append("(?:.*/)?");
+                    } else {
+                        regex.append(".*");
+                    }
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
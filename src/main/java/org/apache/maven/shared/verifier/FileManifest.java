@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An in-memory snapshot of one or more directory trees, taken with a single parallel walk. Links to directories are
+ * followed unless they point to a directory of the walked path, the files below a link are recorded by their path
+ * through the link. Presence checks against the covered trees are answered from memory: exact lookups by hashing,
+ * wildcard patterns (see {@link FileGlobs}) by a binary search on the sorted paths sharing the literal prefix of the
+ * pattern.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class FileManifest {
+
+    /**
+     * The attributes of a file recorded in the manifest.
+     */
+    static final class Entry {
+        final boolean directory;
+
+        final long size;
+
+        final long lastModified;
+
+        Entry(BasicFileAttributes attributes) {
+            this.directory = attributes.isDirectory();
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        boolean isSameAs(Entry other) {
+            return directory == other.directory && size == other.size && lastModified == other.lastModified;
+        }
+    }
+
+    private final List<String> roots;
+
+    private final Map<String, Entry> entries;
+
+    private final String[] sortedPaths;
+
+    private FileManifest(List<String> roots, Map<String, Entry> entries) {
+        this.roots = roots;
+        this.entries = entries;
+        this.sortedPaths = entries.keySet().toArray(new String[0]);
+        Arrays.sort(this.sortedPaths);
+    }
+
+    /**
+     * Walks the specified directory trees in parallel.
+     *
+     * @param directories The roots of the trees to walk, must not be <code>null</code>. Missing roots are recorded as
+     *                    covered but empty.
+     * @return The manifest of the trees, never <code>null</code>.
+     * @throws IOException If a directory could not be read.
+     */
+    static FileManifest scan(Collection<File> directories) throws IOException {
+        List<String> roots = new ArrayList<>();
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        List<ScanTask> tasks = new ArrayList<>();
+
+        for (File directory : directories) {
+            File root = directory.getAbsoluteFile().toPath().normalize().toFile();
+            roots.add(FileGlobs.normalize(root));
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(root.toPath(), BasicFileAttributes.class);
+                entries.put(FileGlobs.normalize(root), new Entry(attributes));
+                if (attributes.isDirectory()) {
+                    tasks.add(new ScanTask(
+                            root.toPath(), entries, new Ancestor(ScanTask.getKey(root.toPath(), attributes), null)));
+                }
+            } catch (NoSuchFileException e) {
+                // covered but empty
+            }
+        }
+
+        try {
+            for (ScanTask task : tasks) {
+                ForkJoinPool.commonPool().execute(task);
+            }
+            for (ScanTask task : tasks) {
+                task.join();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return new FileManifest(roots, entries);
+    }
+
+    /**
+     * Tells whether the specified file lies within the trees covered by this manifest.
+     *
+     * @param file The file to check, must not be <code>null</code>.
+     * @return <code>true</code> if this manifest can answer queries about the file, <code>false</code> otherwise.
+     */
+    boolean covers(File file) {
+        String path = FileGlobs.normalize(file);
+        for (String root : roots) {
+            if (path.equals(root) || path.startsWith(root.endsWith("/") ? root : root + '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the specified file or directory exists.
+     *
+     * @param file The file to check, must be {@link #covers(File) covered} by this manifest.
+     * @return <code>true</code> if the file exists, <code>false</code> otherwise.
+     */
+    boolean exists(File file) {
+        return entries.containsKey(FileGlobs.normalize(file));
+    }
+
+    /**
+     * Gets the recorded attributes of the specified file.
+     *
+     * @param path The normalized absolute path of the file, must not be <code>null</code>.
+     * @return The attributes of the file or <code>null</code> if the file does not exist.
+     */
+    Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * Gets the attributes of all files and directories in this manifest.
+     *
+     * @return The attributes keyed by normalized absolute path, never <code>null</code>.
+     */
+    Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Tells whether any file or directory matches the specified pattern.
+     *
+     * @param glob The pattern as normalized absolute path, must not be <code>null</code>.
+     * @return <code>true</code> if a match exists, <code>false</code> otherwise.
+     */
+    boolean matches(String glob) {
+        return FileGlobs.matchesAny(sortedPaths, glob);
+    }
+
+    /**
+     * A directory of the walked path, identified by its file key or real path.
+     */
+    private static final class Ancestor {
+        private final Object key;
+
+        private final Ancestor parent;
+
+        Ancestor(Object key, Ancestor parent) {
+            this.key = key;
+            this.parent = parent;
+        }
+
+        boolean contains(Object key) {
+            for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor.key.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Lists the directory in the calling fork-join task and forks a sub-task per sub-directory.
+     */
+    private static class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+
+        private final transient Map<String, Entry> entries;
+
+        private final transient Ancestor ancestors;
+
+        ScanTask(Path directory, Map<String, Entry> entries, Ancestor ancestors) {
+            this.directory = directory;
+            this.entries = entries;
+            this.ancestors = ancestors;
+        }
+
+        /**
+         * Gets the file key of a directory, or its real path where the file system has no file keys.
+         */
+        static Object getKey(Path directory, BasicFileAttributes attributes) throws IOException {
+            Object key = attributes.fileKey();
+            return key != null ? key : directory.toRealPath();
+        }
+
+        @Override
+        protected void compute() {
+            List<ScanTask> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attributes.isSymbolicLink()) {
+                            // record the link target like File.exists() would see it
+                            attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                        }
+                    } catch (NoSuchFileException e) {
+                        // dangling link or deleted concurrently
+                        continue;
+                    }
+                    entries.put(FileGlobs.normalize(child.toString()), new Entry(attributes));
+                    if (attributes.isDirectory()) {
+                        Object key = getKey(child, attributes);
+                        if (!ancestors.contains(key)) {
+                            subTasks.add(new ScanTask(child, entries, new Ancestor(key, ancestors)));
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subTasks);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits Java Flight Recorder events for the phases of verifier operations, one event type per phase named
+ * <code>org.apache.maven.verifier.&lt;Phase&gt;</code>, e.g. <code>org.apache.maven.verifier.Execute</code>. The
+ * events carry the base directory, the detail of the operation, the fork mode and whether it failed, execution events
+ * the exit code as well; their thread and stack trace identify the test.
+ * <p>
+ * The event types are defined with <code>jdk.jfr.EventFactory</code> through reflection, since this library is
+ * compiled for Java 8, so events are only emitted on Java 11 and later. Phases whose event type is not enabled in a
+ * running recording are not observed at all.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class FlightRecorderEvents {
+
+    static final String NAME_PREFIX = "org.apache.maven.verifier.";
+
+    private static final int BASEDIR = 0;
+
+    private static final int DETAIL = 1;
+
+    private static final int FORK_MODE = 2;
+
+    private static final int FAILED = 3;
+
+    private static final int EXIT_CODE = 4;
+
+    /**
+     * The events of the running JVM, <code>null</code> if the Flight Recorder API is not available.
+     */
+    static final FlightRecorderEvents INSTANCE = create();
+
+    private final Map<VerifierEvent.Phase, Object> factories = new EnumMap<>(VerifierEvent.Phase.class);
+
+    private final Map<VerifierEvent.Phase, Object> eventTypes = new EnumMap<>(VerifierEvent.Phase.class);
+
+    /**
+     * The events recording the running phases, keyed by the event notifying about the start of the phase.
+     */
+    private final Map<VerifierEvent, Object> running = new ConcurrentHashMap<>();
+
+    private final Method newEvent;
+
+    private final Method isEnabled;
+
+    private final Method set;
+
+    private final Method begin;
+
+    private final Method end;
+
+    private final Method shouldCommit;
+
+    private final Method commit;
+
+    private FlightRecorderEvents() throws ReflectiveOperationException {
+        ClassLoader loader = ClassLoader.getSystemClassLoader();
+        Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory", true, loader);
+        Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType", true, loader);
+        Class<?> eventClass = Class.forName("jdk.jfr.Event", true, loader);
+        Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement", true, loader);
+        Class<?> descriptorClass = Class.forName("jdk.jfr.ValueDescriptor", true, loader);
+        Constructor<?> annotation = annotationClass.getConstructor(Class.class, Object.class);
+        Constructor<?> descriptor = descriptorClass.getConstructor(Class.class, String.class, List.class);
+        Method create = factoryClass.getMethod("create", List.class, List.class);
+        Method getEventType = factoryClass.getMethod("getEventType");
+
+        Object[] fields = {
+            descriptor.newInstance(String.class, "basedir", label(annotation, "Base Directory")),
+            descriptor.newInstance(String.class, "detail", label(annotation, "Detail")),
+            descriptor.newInstance(String.class, "forkMode", label(annotation, "Fork Mode")),
+            descriptor.newInstance(boolean.class, "failed", label(annotation, "Failed")),
+            descriptor.newInstance(int.class, "exitCode", label(annotation, "Exit Code"))
+        };
+        for (VerifierEvent.Phase phase : VerifierEvent.Phase.values()) {
+            String name = toCamelCase(phase.name());
+            List<Object> annotations = new ArrayList<>();
+            annotations.add(annotation.newInstance(jfrType("Name"), NAME_PREFIX + name));
+            annotations.add(annotation.newInstance(jfrType("Label"), "Verifier " + name));
+            annotations.add(annotation.newInstance(jfrType("Category"), new String[] {"Maven", "Verifier"}));
+            List<Object> descriptors = Arrays.asList(fields).subList(0, phase == VerifierEvent.Phase.EXECUTE ? 5 : 4);
+            Object factory = create.invoke(null, annotations, descriptors);
+            factories.put(phase, factory);
+            eventTypes.put(phase, getEventType.invoke(factory));
+        }
+
+        newEvent = factoryClass.getMethod("newEvent");
+        isEnabled = eventTypeClass.getMethod("isEnabled");
+        set = eventClass.getMethod("set", int.class, Object.class);
+        begin = eventClass.getMethod("begin");
+        end = eventClass.getMethod("end");
+        shouldCommit = eventClass.getMethod("shouldCommit");
+        commit = eventClass.getMethod("commit");
+    }
+
+    private static FlightRecorderEvents create() {
+        try {
+            return new FlightRecorderEvents();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // Java 10 and older or a JVM without Flight Recorder
+            return null;
+        }
+    }
+
+    private static Class<?> jfrType(String name) throws ClassNotFoundException {
+        return Class.forName("jdk.jfr." + name, true, ClassLoader.getSystemClassLoader());
+    }
+
+    private static List<Object> label(Constructor<?> annotation, String label) throws ReflectiveOperationException {
+        return Collections.singletonList(annotation.newInstance(jfrType("Label"), label));
+    }
+
+    private static String toCamelCase(String constant) {
+        StringBuilder name = new StringBuilder(constant.length());
+        for (String word : constant.split("_")) {
+            name.append(word.charAt(0)).append(word.substring(1).toLowerCase(Locale.ROOT));
+        }
+        return name.toString();
+    }
+
+    /**
+     * Tells whether the event type of a phase is enabled in a running recording.
+     *
+     * @param phase The phase, must not be <code>null</code>.
+     * @return <code>true</code> if the phase is recorded, <code>false</code> otherwise.
+     */
+    boolean isEnabled(VerifierEvent.Phase phase) {
+        try {
+            return (Boolean) isEnabled.invoke(eventTypes.get(phase));
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts the event recording a phase if its event type is enabled.
+     *
+     * @param started The start of the phase, must not be <code>null</code>.
+     */
+    void begin(VerifierEvent started) {
+        if (!isEnabled(started.getPhase())) {
+            return;
+        }
+        try {
+            Object event = newEvent.invoke(factories.get(started.getPhase()));
+            begin.invoke(event);
+            running.put(started, event);
+        } catch (ReflectiveOperationException e) {
+            // not recorded
+        }
+    }
+
+    /**
+     * Ends and commits the event recording a phase, if any.
+     *
+     * @param started The start of the phase passed to {@link #begin(VerifierEvent)}, must not be <code>null</code>.
+     * @param ended   The end of the phase, must not be <code>null</code>.
+     */
+    void commit(VerifierEvent started, VerifierEvent ended) {
+        Object event = running.remove(started);
+        if (event == null) {
+            return;
+        }
+        try {
+            end.invoke(event);
+            if (!(Boolean) shouldCommit.invoke(event)) {
+                return;
+            }
+            Verifier verifier = ended.getVerifier();
+            set.invoke(event, BASEDIR, verifier != null ? verifier.getBasedir() : null);
+            set.invoke(event, DETAIL, ended.getDetail());
+            set.invoke(event, FORK_MODE, ended.getForkMode());
+            set.invoke(event, FAILED, ended.isFailed());
+            if (ended.getPhase() == VerifierEvent.Phase.EXECUTE) {
+                ExecutionResult result = verifier != null ? verifier.getExecutionResult() : null;
+                set.invoke(event, EXIT_CODE, result != null ? result.getExitCode() : -1);
+            }
+            commit.invoke(event);
+        } catch (ReflectiveOperationException e) {
+            // not recorded
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * A Java Flight Recorder recording of the Maven build: forked builds record themselves, started with
+ * <code>-XX:StartFlightRecording</code> in <code>MAVEN_OPTS</code> and writing the recording when they exit, embedded
+ * builds are recorded while <code>doMain</code> runs, including concurrent activity in this JVM. Both use the
+ * <code>profile</code> settings of the JDK.
+ * <p>
+ * The <code>mvn</code> script splits <code>MAVEN_OPTS</code> into words, so a recording file whose path contains
+ * spaces or other characters special to the shell is written by forked builds to a temporary file and moved into
+ * place afterwards.
+ * <p>
+ * The recording API is used through reflection since this library is compiled for Java 8; embedded builds are only
+ * recorded if it is available.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class FlightRecording {
+
+    private static final String SETTINGS = "profile";
+
+    /**
+     * The characters of a path which survives the word splitting of <code>MAVEN_OPTS</code> by the <code>mvn</code>
+     * script and the option parsing of <code>-XX:StartFlightRecording</code>.
+     */
+    private static final Pattern PLAIN_PATH = Pattern.compile("[A-Za-z0-9._/\\\\:~+@-]+");
+
+    private final File file;
+
+    /**
+     * The file the forked build writes the recording to, if not {@link #file}.
+     */
+    private File dumpFile;
+
+    private Object recording;
+
+    /**
+     * Creates a recording written to a file, deleting the recording of a previous execution.
+     *
+     * @param file The recording file, must not be <code>null</code>.
+     */
+    FlightRecording(File file) {
+        this.file = file.getAbsoluteFile();
+        //noinspection ResultOfMethodCallIgnored
+        this.file.delete();
+    }
+
+    /**
+     * Gets the recording file next to a log file, e.g. <code>log.jfr</code> for <code>log.txt</code>.
+     *
+     * @param logFile The log file of the execution, must not be <code>null</code>.
+     * @return The recording file, never <code>null</code>.
+     */
+    static File forLogFile(File logFile) {
+        String name = logFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(logFile.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".jfr");
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the JVM option recording a forked build. If the path of the recording file contains characters which the
+     * <code>mvn</code> script would split or expand, the build writes to a temporary file instead.
+     *
+     * @return The option, never <code>null</code>.
+     * @throws IOException If neither the recording file nor a temporary file has a plain path.
+     */
+    String getJvmOption() throws IOException {
+        File target = file;
+        if (!PLAIN_PATH.matcher(target.getPath()).matches()) {
+            Path temporary = Files.createTempFile("verifier-", ".jfr");
+            Files.delete(temporary);
+            target = temporary.toFile().getAbsoluteFile();
+            if (!PLAIN_PATH.matcher(target.getPath()).matches()) {
+                throw new IOException("Cannot pass the Flight Recorder file " + file + " in MAVEN_OPTS, "
+                        + "neither it nor the temporary directory have a path without spaces and special characters");
+            }
+            dumpFile = target;
+        }
+        return "-XX:StartFlightRecording=settings=" + SETTINGS + ",dumponexit=true,filename=" + target.getPath();
+    }
+
+    /**
+     * Starts recording this JVM for an embedded build.
+     */
+    void start() {
+        try {
+            Class<?> configurationClass = Class.forName("jdk.jfr.Configuration");
+            Object configuration = configurationClass
+                    .getMethod("getConfiguration", String.class)
+                    .invoke(null, SETTINGS);
+            Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+            recording = recordingClass.getConstructor(configurationClass).newInstance(configuration);
+            recordingClass.getMethod("start").invoke(recording);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // Flight Recorder not available
+            recording = null;
+        }
+    }
+
+    /**
+     * Stops recording this JVM and writes the recording file. Does nothing if the recording is not running.
+     */
+    void stop() {
+        if (recording == null) {
+            return;
+        }
+        Class<?> recordingClass = recording.getClass();
+        try {
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, file.toPath());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        } finally {
+            try {
+                recordingClass.getMethod("close").invoke(recording);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // nothing left to release
+            }
+            recording = null;
+        }
+    }
+
+    /**
+     * Moves a recording written to a temporary file into place and summarizes the recording file.
+     *
+     * @return The summary or <code>null</code> if the build was not recorded or the recording could not be read.
+     */
+    FlightRecordingSummary summarize() {
+        try {
+            if (dumpFile != null && Files.isRegularFile(dumpFile.toPath())) {
+                Files.move(dumpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            return null;
+        } finally {
+            dumpFile = null;
+        }
+        if (!Files.isRegularFile(file.toPath())) {
+            return null;
+        }
+        try {
+            return FlightRecordingSummary.read(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
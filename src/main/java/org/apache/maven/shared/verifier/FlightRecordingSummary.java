@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A summary of the Java Flight Recorder recording of an execution, see {@link Verifier#setFlightRecording(boolean)}:
+ * the methods and threads most often found running Java code by the execution sampler, the allocated memory and the
+ * garbage collection pauses. In the <code>profile</code> settings, a running thread is sampled every 10 ms, so the
+ * sample counts estimate the CPU time spent in Java code in units of 10 ms.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class FlightRecordingSummary {
+
+    private static final int HOT_METHODS = 10;
+
+    private final File file;
+
+    private final Duration duration;
+
+    private final Map<String, Long> hotMethods;
+
+    private final Map<String, Long> threadSamples;
+
+    private final long allocatedBytes;
+
+    private final int gcPauseCount;
+
+    private final Duration gcPauseTime;
+
+    private final Duration longestGcPause;
+
+    private FlightRecordingSummary(File file, Reader reader) {
+        this.file = file;
+        this.duration = reader.start != null ? Duration.between(reader.start, reader.end) : Duration.ZERO;
+        this.hotMethods = sortBySamples(reader.methodSamples, HOT_METHODS);
+        this.threadSamples = sortBySamples(reader.threadSamples, Integer.MAX_VALUE);
+        // allocation samples (Java 16 and later) cover all allocations, the TLAB events only if no samples are recorded
+        this.allocatedBytes = reader.sampledAllocations > 0 ? reader.sampledAllocations : reader.tlabAllocations;
+        this.gcPauseCount = reader.gcPauseCount;
+        this.gcPauseTime = reader.gcPauseTime;
+        this.longestGcPause = reader.longestGcPause;
+    }
+
+    /**
+     * Reads a recording file with <code>jdk.jfr.consumer</code>, available on Java 11 and later.
+     *
+     * @param file The recording file, must not be <code>null</code>.
+     * @return The summary, never <code>null</code>.
+     * @throws IOException If the file could not be read or the Flight Recorder API is not available.
+     */
+    static FlightRecordingSummary read(File file) throws IOException {
+        Reader reader = new Reader();
+        try {
+            reader.read(file.toPath());
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to read " + file, e.getCause());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IOException("Failed to read " + file, e);
+        }
+        return new FlightRecordingSummary(file, reader);
+    }
+
+    private static Map<String, Long> sortBySamples(Map<String, Long> samples, int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(samples.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * Gets the recording file, which can be opened in JDK Mission Control.
+     *
+     * @return The recording file, never <code>null</code>.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the time from the first to the last recorded event.
+     *
+     * @return The duration, never <code>null</code>.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the methods most often found on top of the stack of a running thread.
+     *
+     * @return The number of samples by method (<code>class.method</code>), at most 10 in descending order, never
+     *         <code>null</code>.
+     */
+    public Map<String, Long> getHotMethods() {
+        return hotMethods;
+    }
+
+    /**
+     * Gets the threads most often found running Java code, e.g. the builder threads of a parallel build running the
+     * mojos.
+     *
+     * @return The number of samples by thread name in descending order, never <code>null</code>.
+     */
+    public Map<String, Long> getThreadSamples() {
+        return threadSamples;
+    }
+
+    /**
+     * Gets the memory allocated on the heap, as estimated by the allocation events.
+     *
+     * @return The allocated bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Gets the allocation rate over the recording.
+     *
+     * @return The allocated bytes per second.
+     */
+    public double getAllocationRate() {
+        return duration.isZero() ? 0 : allocatedBytes * 1e9 / duration.toNanos();
+    }
+
+    public int getGcPauseCount() {
+        return gcPauseCount;
+    }
+
+    /**
+     * Gets the time the application was paused by garbage collections.
+     *
+     * @return The sum of all pauses, never <code>null</code>.
+     */
+    public Duration getGcPauseTime() {
+        return gcPauseTime;
+    }
+
+    /**
+     * Gets the longest pause of a garbage collection.
+     *
+     * @return The longest pause, never <code>null</code>.
+     */
+    public Duration getLongestGcPause() {
+        return longestGcPause;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder(256);
+        buffer.append("recorded ").append(duration.toMillis()).append(" ms");
+        buffer.append(", allocated ").append(allocatedBytes / 1024).append(" KiB");
+        buffer.append(", gc pauses ")
+                .append(gcPauseCount)
+                .append(" in ")
+                .append(gcPauseTime.toMillis())
+                .append(" ms");
+        buffer.append(", hot methods ").append(hotMethods);
+        return buffer.toString();
+    }
+
+    /**
+     * Reads the events through reflection since this library is compiled for Java 8.
+     */
+    private static final class Reader {
+        private final Map<Class<?>, Map<String, Method>> methods = new HashMap<>();
+
+        private final Map<String, Long> methodSamples = new HashMap<>();
+
+        private final Map<String, Long> threadSamples = new HashMap<>();
+
+        private Instant start;
+
+        private Instant end;
+
+        private long sampledAllocations;
+
+        private long tlabAllocations;
+
+        private int gcPauseCount;
+
+        private Duration gcPauseTime = Duration.ZERO;
+
+        private Duration longestGcPause = Duration.ZERO;
+
+        void read(Path path) throws ReflectiveOperationException {
+            Class<?> recordingFileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+            Object recordingFile = recordingFileClass.getConstructor(Path.class).newInstance(path);
+            Method hasMoreEvents = recordingFileClass.getMethod("hasMoreEvents");
+            Method readEvent = recordingFileClass.getMethod("readEvent");
+            try {
+                while ((Boolean) hasMoreEvents.invoke(recordingFile)) {
+                    accept(readEvent.invoke(recordingFile));
+                }
+            } finally {
+                recordingFileClass.getMethod("close").invoke(recordingFile);
+            }
+        }
+
+        private void accept(Object event) throws ReflectiveOperationException {
+            Instant startTime = (Instant) call(event, "getStartTime");
+            Instant endTime = (Instant) call(event, "getEndTime");
+            if (start == null || startTime.isBefore(start)) {
+                start = startTime;
+            }
+            if (end == null || endTime.isAfter(end)) {
+                end = endTime;
+            }
+
+            String name = (String) call(call(event, "getEventType"), "getName");
+            switch (name) {
+                case "jdk.ExecutionSample":
+                    Object thread = call(event, "getThread", "sampledThread");
+                    if (thread != null) {
+                        threadSamples.merge(String.valueOf(call(thread, "getJavaName")), 1L, Long::sum);
+                    }
+                    Object stackTrace = call(event, "getStackTrace");
+                    List<?> frames = stackTrace != null ? (List<?>) call(stackTrace, "getFrames") : null;
+                    if (frames != null && !frames.isEmpty()) {
+                        Object method = call(frames.get(0), "getMethod");
+                        String type = (String) call(call(method, "getType"), "getName");
+                        methodSamples.merge(type + '.' + call(method, "getName"), 1L, Long::sum);
+                    }
+                    break;
+                case "jdk.ObjectAllocationSample":
+                    sampledAllocations += (Long) call(event, "getLong", "weight");
+                    break;
+                case "jdk.ObjectAllocationInNewTLAB":
+                    tlabAllocations += (Long) call(event, "getLong", "tlabSize");
+                    break;
+                case "jdk.ObjectAllocationOutsideTLAB":
+                    tlabAllocations += (Long) call(event, "getLong", "allocationSize");
+                    break;
+                case "jdk.GarbageCollection":
+                    Duration pauses = (Duration) call(event, "getDuration", "sumOfPauses");
+                    Duration longest = (Duration) call(event, "getDuration", "longestPause");
+                    gcPauseCount++;
+                    gcPauseTime = gcPauseTime.plus(pauses);
+                    if (longest.compareTo(longestGcPause) > 0) {
+                        longestGcPause = longest;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Calls a public method without or with a field name as argument.
+         */
+        private Object call(Object target, String name, String... field) throws ReflectiveOperationException {
+            Method method = methods.computeIfAbsent(target.getClass(), k -> new HashMap<>())
+                    .get(name);
+            if (method == null) {
+                method = field.length == 0
+                        ? target.getClass().getMethod(name)
+                        : target.getClass().getMethod(name, String.class);
+                methods.get(target.getClass()).put(name, method);
+            }
+            return method.invoke(target, (Object[]) field);
+        }
+    }
+}
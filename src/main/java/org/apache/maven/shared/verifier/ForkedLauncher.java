@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +38,7 @@ import org.apache.maven.shared.utils.cli.CommandLineException;
 import org.apache.maven.shared.utils.cli.CommandLineUtils;
 import org.apache.maven.shared.utils.cli.Commandline;
 import org.apache.maven.shared.utils.cli.StreamConsumer;
+import org.apache.maven.shared.utils.cli.StreamPumper;
 import org.apache.maven.shared.utils.cli.WriterStreamConsumer;
 import org.apache.maven.shared.utils.io.FileUtils;
 
@@ -53,6 +55,11 @@ import org.apache.maven.shared.utils.io.FileUtils;
 @Deprecated
 class ForkedLauncher implements MavenLauncher {
 
+    /**
+     * The versions reported by <code>--version</code>, keyed by executable, as each query launches Maven.
+     */
+    private static final Map<String, String> VERSIONS = new ConcurrentHashMap<>();
+
     private final String mavenHome;
 
     private final String executable;
@@ -102,6 +109,17 @@ class ForkedLauncher implements MavenLauncher {
             String workingDirectory,
             File logFile)
             throws IOException, LauncherException {
+        return run(cliArgs, systemProperties, envVars, workingDirectory, logFile, null);
+    }
+
+    private int run(
+            String[] cliArgs,
+            Properties systemProperties,
+            Map<String, String> envVars,
+            String workingDirectory,
+            File logFile,
+            ExecutionMetrics metrics)
+            throws IOException, LauncherException {
         Commandline cmd = new Commandline();
 
         cmd.setExecutable(executable);
@@ -116,6 +134,16 @@ class ForkedLauncher implements MavenLauncher {
             }
         }
 
+        if (metrics != null && metrics.getFlightRecording() != null) {
+            String mavenOpts = envVars != null && envVars.containsKey("MAVEN_OPTS")
+                    ? envVars.get("MAVEN_OPTS")
+                    : System.getenv("MAVEN_OPTS");
+            cmd.addEnvironment(
+                    "MAVEN_OPTS",
+                    (mavenOpts != null ? mavenOpts + ' ' : "")
+                            + metrics.getFlightRecording().getJvmOption());
+        }
+
         cmd.addEnvironment("MAVEN_TERMINATE_CMD", "on");
 
         cmd.setWorkingDirectory(workingDirectory);
@@ -137,11 +165,63 @@ class ForkedLauncher implements MavenLauncher {
         StreamConsumer err = new WriterStreamConsumer(logWriter);
 
         try {
-            return CommandLineUtils.executeCommandLine(cmd, out, err);
+            if (metrics == null) {
+                return CommandLineUtils.executeCommandLine(cmd, out, err);
+            }
+            return execute(cmd, out, err, metrics);
         } catch (CommandLineException e) {
             throw new LauncherException("Failed to run Maven: " + cmd, e);
         } finally {
             logWriter.close();
+            if (metrics != null) {
+                metrics.logFlushed();
+            }
+        }
+    }
+
+    /**
+     * Executes the command line like {@link CommandLineUtils}, but with access to the process to measure it. Like there,
+     * a shutdown hook destroys the process if this JVM exits before it.
+     */
+    private static int execute(Commandline cmd, StreamConsumer out, StreamConsumer err, ExecutionMetrics metrics)
+            throws CommandLineException {
+        Process process = cmd.execute();
+        Thread destroyer = new Thread(process::destroy, "destroy " + cmd.getExecutable());
+        Runtime.getRuntime().addShutdownHook(destroyer);
+        metrics.processStarted(process);
+
+        StreamPumper outPumper = new StreamPumper(process.getInputStream(), out);
+        StreamPumper errPumper = new StreamPumper(process.getErrorStream(), err);
+        outPumper.start();
+        errPumper.start();
+        try {
+            process.getOutputStream().close();
+            int ret = process.waitFor();
+            metrics.processExited();
+
+            outPumper.waitUntilDone();
+            errPumper.waitUntilDone();
+            if (outPumper.getException() != null) {
+                throw new CommandLineException("Error inside systemOut parser", outPumper.getException());
+            }
+            if (errPumper.getException() != null) {
+                throw new CommandLineException("Error inside systemErr parser", errPumper.getException());
+            }
+            return ret;
+        } catch (IOException e) {
+            throw new CommandLineException("Error while executing external command", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandLineException("Error while executing external command, process killed.", e);
+        } finally {
+            process.destroy();
+            outPumper.close();
+            errPumper.close();
+            try {
+                Runtime.getRuntime().removeShutdownHook(destroyer);
+            } catch (IllegalStateException e) {
+                // the JVM is shutting down and runs the hook anyway
+            }
         }
     }
 
@@ -150,7 +230,23 @@ class ForkedLauncher implements MavenLauncher {
         return run(cliArgs, systemProperties, envVars, workingDirectory, logFile);
     }
 
+    @Override
+    public int run(
+            String[] cliArgs,
+            Properties systemProperties,
+            String workingDirectory,
+            File logFile,
+            ExecutionMetrics metrics)
+            throws IOException, LauncherException {
+        return run(cliArgs, systemProperties, envVars, workingDirectory, logFile, metrics);
+    }
+
     public String getMavenVersion() throws IOException, LauncherException {
+        String cached = VERSIONS.get(executable);
+        if (cached != null) {
+            return cached;
+        }
+
         File logFile;
         try {
             logFile = Files.createTempFile("maven", "log").toFile();
@@ -172,6 +268,7 @@ class ForkedLauncher implements MavenLauncher {
             throw new LauncherException("Illegal Maven output: String 'Maven' not found in the following output:\n"
                     + StringUtils.join(logLines.iterator(), "\n"));
         } else {
+            VERSIONS.put(executable, version);
             return version;
         }
     }
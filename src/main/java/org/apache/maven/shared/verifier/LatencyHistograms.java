@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the durations of the verifier phases into histograms per phase and fork mode. Recording a duration
+ * increments a counter without locking; the histograms have 8 buckets per power of two, so percentiles are accurate to
+ * 12.5%.
+ * <p>
+ * {@link #install()} registers a shared instance which prints a summary with the 50th and 99th percentiles and the
+ * maximum of each phase when the JVM exits. This is done automatically if the system property
+ * {@code verifier.latencyHistograms} is {@code true}.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class LatencyHistograms implements VerifierListener {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private static LatencyHistograms installed;
+
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Installs the shared instance: registers it for all verifiers and prints its summary when the JVM exits.
+     *
+     * @return The shared instance, never <code>null</code>.
+     */
+    public static synchronized LatencyHistograms install() {
+        if (installed == null) {
+            LatencyHistograms histograms = new LatencyHistograms();
+            VerifierListeners.register(histograms);
+            Runtime.getRuntime()
+                    .addShutdownHook(new Thread(() -> System.out.print(histograms.getSummary()), "verifier-latency"));
+            installed = histograms;
+        }
+        return installed;
+    }
+
+    @Override
+    public void ended(VerifierEvent event) {
+        histograms
+                .computeIfAbsent(key(event.getPhase(), event.getForkMode()), k -> new Histogram())
+                .record(event.getDurationNanos());
+    }
+
+    /**
+     * Gets a percentile of the durations of a phase.
+     *
+     * @param phase      The phase, must not be <code>null</code>.
+     * @param forkMode   The fork mode, see {@link VerifierEvent#getForkMode()}, may be <code>null</code>.
+     * @param percentile The percentile, between <code>0</code> and <code>100</code>.
+     * @return The duration or <code>null</code> if the phase was not recorded.
+     */
+    public Duration getPercentile(VerifierEvent.Phase phase, String forkMode, double percentile) {
+        Histogram histogram = histograms.get(key(phase, forkMode));
+        return histogram != null ? Duration.ofNanos(histogram.percentile(percentile)) : null;
+    }
+
+    /**
+     * Gets the number of recorded durations of a phase.
+     *
+     * @param phase    The phase, must not be <code>null</code>.
+     * @param forkMode The fork mode, see {@link VerifierEvent#getForkMode()}, may be <code>null</code>.
+     * @return The number of durations.
+     */
+    public long getCount(VerifierEvent.Phase phase, String forkMode) {
+        Histogram histogram = histograms.get(key(phase, forkMode));
+        return histogram != null ? histogram.count.sum() : 0;
+    }
+
+    /**
+     * Discards all recorded durations.
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Gets a table with the count, the 50th and 99th percentile and the maximum of the durations of each phase.
+     *
+     * @return The summary, never <code>null</code>.
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(256);
+        summary.append(String.format(
+                Locale.ROOT,
+                "Verifier latencies [ms]%n%-30s %8s %10s %10s %10s%n",
+                "Phase",
+                "Count",
+                "p50",
+                "p99",
+                "Max"));
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            summary.append(String.format(
+                    Locale.ROOT,
+                    "%-30s %8d %10.1f %10.1f %10.1f%n",
+                    entry.getKey(),
+                    histogram.count.sum(),
+                    histogram.percentile(50) / 1e6,
+                    histogram.percentile(99) / 1e6,
+                    histogram.max.get() / 1e6));
+        }
+        return summary.toString();
+    }
+
+    private static String key(VerifierEvent.Phase phase, String forkMode) {
+        return forkMode != null ? phase + " (" + forkMode + ")" : phase.toString();
+    }
+
+    private static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(index(value));
+            count.increment();
+            max.accumulate(value);
+        }
+
+        long percentile(double percentile) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += buckets.get(i);
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long upperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = index % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the directory listings of a local repository. A cached listing is reused as long as the modification time of
+ * its directory is unchanged, so after a build only the directories the build touched are listed again. Listings taken
+ * shortly after their directory was modified are not trusted, as a second modification within the timestamp
+ * granularity of the file system would go unnoticed.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class LocalRepositoryIndex {
+
+    /**
+     * The coarsest timestamp granularity of common file systems (FAT) in milliseconds.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000;
+
+    private static final class Listing {
+        private final long lastModified;
+
+        private final long listedAt;
+
+        private final Set<String> names;
+
+        Listing(long lastModified, long listedAt, Set<String> names) {
+            this.lastModified = lastModified;
+            this.listedAt = listedAt;
+            this.names = names;
+        }
+
+        boolean isCurrent(long lastModified) {
+            return this.lastModified == lastModified && listedAt - lastModified > TIMESTAMP_GRANULARITY;
+        }
+    }
+
+    private final Map<File, Listing> listings = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the names of the children of the specified directory.
+     *
+     * @param dir The directory to list, must not be <code>null</code>.
+     * @return The names of the children in the order of the file system, empty if the directory does not exist or is
+     *         a file, never <code>null</code>.
+     */
+    Set<String> list(File dir) {
+        File key = dir.getAbsoluteFile();
+        long lastModified = key.lastModified();
+        if (lastModified == 0) {
+            listings.remove(key);
+            return Collections.emptySet();
+        }
+
+        Listing listing = listings.get(key);
+        if (listing == null || !listing.isCurrent(lastModified)) {
+            long listedAt = System.currentTimeMillis();
+            String[] names = key.list();
+            Set<String> children =
+                    names != null ? new LinkedHashSet<>(Arrays.asList(names)) : Collections.<String>emptySet();
+            listing = new Listing(lastModified, listedAt, Collections.unmodifiableSet(children));
+            listings.put(key, listing);
+        }
+        return listing.names;
+    }
+
+    /**
+     * Tells whether the specified file or directory exists.
+     *
+     * @param file The file to check, must not be <code>null</code>.
+     * @return <code>true</code> if the file exists, <code>false</code> otherwise.
+     */
+    boolean exists(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent == null) {
+            return file.exists();
+        }
+        return list(parent).contains(file.getName());
+    }
+
+    /**
+     * Gets the repository metadata files (<code>maven-metadata*.xml</code>) in the specified directory.
+     *
+     * @param dir The directory to list, must not be <code>null</code>.
+     * @return The metadata files, possibly empty but never <code>null</code>.
+     */
+    List<File> getMetadataFiles(File dir) {
+        List<File> files = new ArrayList<>();
+        for (String name : list(dir)) {
+            if (name.startsWith("maven-metadata") && name.endsWith(".xml")) {
+                files.add(new File(dir, name));
+            }
+        }
+        return files;
+    }
+}
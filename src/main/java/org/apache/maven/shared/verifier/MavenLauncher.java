@@ -38,5 +38,23 @@ interface MavenLauncher {
     int run(String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile)
             throws IOException, LauncherException;
 
+    /**
+     * Runs Maven, marking the phases of the execution in the specified metrics. By default, the whole call is
+     * recorded as a run of Maven within this JVM.
+     */
+    default int run(
+            String[] cliArgs,
+            Properties systemProperties,
+            String workingDirectory,
+            File logFile,
+            ExecutionMetrics metrics)
+            throws IOException, LauncherException {
+        metrics.processStarted();
+        int ret = run(cliArgs, systemProperties, workingDirectory, logFile);
+        metrics.processExited();
+        metrics.logFlushed();
+        return ret;
+    }
+
     String getMavenVersion() throws IOException, LauncherException;
 }
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The time spent in one mojo execution of the build under test, see {@link ExecutionResult#getMojoTimings()}.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class MojoTiming {
+
+    private final long startEpochNanos;
+
+    private final long durationNanos;
+
+    private final boolean failed;
+
+    private final String project;
+
+    private final String mojo;
+
+    private final String executionId;
+
+    private final String phase;
+
+    private final String thread;
+
+    private MojoTiming(String[] fields) {
+        this.startEpochNanos = Long.parseLong(fields[0]);
+        this.durationNanos = Long.parseLong(fields[1]);
+        this.failed = "failed".equals(fields[2]);
+        this.project = fields[3];
+        this.mojo = fields[4];
+        this.executionId = fields[5];
+        this.phase = fields[6];
+        this.thread = fields[7];
+    }
+
+    /**
+     * Parses a line written by {@link MojoTimingSpy}.
+     *
+     * @param line The line, must not be <code>null</code>.
+     * @return The timing or <code>null</code> if the line is malformed.
+     */
+    static MojoTiming parse(String line) {
+        String[] fields = line.split("\t", -1);
+        try {
+            return fields.length >= 8 ? new MojoTiming(fields) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the start of the mojo execution, with the precision of the wall clock of the Maven JVM.
+     *
+     * @return The start, never <code>null</code>.
+     */
+    public Instant getStart() {
+        return Instant.ofEpochSecond(0, startEpochNanos);
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * Gets the duration of the mojo execution.
+     *
+     * @return The duration, never <code>null</code>.
+     */
+    public Duration getDuration() {
+        return Duration.ofNanos(durationNanos);
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the project the mojo was executed for.
+     *
+     * @return The project as <code>groupId:artifactId</code>, never <code>null</code>.
+     */
+    public String getProject() {
+        return project;
+    }
+
+    /**
+     * Gets the executed mojo.
+     *
+     * @return The mojo as <code>groupId:artifactId:version:goal</code>, never <code>null</code>.
+     */
+    public String getMojo() {
+        return mojo;
+    }
+
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    /**
+     * Gets the lifecycle phase the mojo was bound to.
+     *
+     * @return The phase, empty if the mojo was invoked directly, never <code>null</code>.
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * Gets the thread which executed the mojo, e.g. a builder thread of a parallel build.
+     *
+     * @return The name of the thread, never <code>null</code>.
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Tells whether this is an execution of a goal given as <code>prefix:goal</code>, <code>artifactId:goal</code> or
+     * <code>groupId:artifactId:goal</code>, optionally followed by <code>@executionId</code>.
+     *
+     * @param goal The goal, must not be <code>null</code>.
+     * @return <code>true</code> if the goal matches, <code>false</code> otherwise.
+     */
+    boolean matches(String goal) {
+        int at = goal.indexOf('@');
+        if (at >= 0 && !goal.substring(at + 1).equals(executionId)) {
+            return false;
+        }
+        String[] expected = (at >= 0 ? goal.substring(0, at) : goal).split(":");
+        String[] actual = mojo.split(":");
+        if (actual.length != 4 || !expected[expected.length - 1].equals(actual[3])) {
+            return false;
+        }
+        if (expected.length == 3) {
+            return expected[0].equals(actual[0]) && expected[1].equals(actual[1]);
+        }
+        String artifactId = actual[1];
+        String prefix = artifactId.replaceFirst("^maven-(.*)-plugin$", "$1").replaceFirst("^(.*)-maven-plugin$", "$1");
+        return expected.length == 2 && (expected[0].equals(artifactId) || expected[0].equals(prefix));
+    }
+
+    @Override
+    public String toString() {
+        return mojo + " (" + executionId + ") @ " + project + ": "
+                + getDuration().toMillis() + " ms" + (failed ? ", failed" : "");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.eventspy.AbstractEventSpy;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Records the start and end of each mojo execution within the Maven build under test and writes them to a file when
+ * the build ends. The spy is loaded by Maven from the extension class path set up by the verifier and is not meant
+ * to be used directly.
+ * <p>
+ * The file is given by the user property {@value #FILE_PROPERTY}. It has one line per mojo execution with the
+ * tab-separated fields start (nanoseconds since the epoch), duration (nanoseconds), <code>ok</code> or
+ * <code>failed</code>, project (<code>groupId:artifactId</code>), mojo (<code>groupId:artifactId:version:goal</code>),
+ * execution id, lifecycle phase and thread name.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class MojoTimingSpy extends AbstractEventSpy {
+
+    /**
+     * The user property with the path of the timings file.
+     */
+    public static final String FILE_PROPERTY = "verifier.mojoTimings.file";
+
+    private final long originNanos = System.nanoTime();
+
+    private final long originEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+
+    private final Map<List<Object>, Long> started = new ConcurrentHashMap<>();
+
+    private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+
+    private String file;
+
+    @Override
+    public void init(Context context) {
+        Object userProperties = context.getData().get("userProperties");
+        if (userProperties instanceof Properties) {
+            file = ((Properties) userProperties).getProperty(FILE_PROPERTY);
+        }
+    }
+
+    @Override
+    public void onEvent(Object event) {
+        if (file == null || !(event instanceof ExecutionEvent)) {
+            return;
+        }
+        ExecutionEvent executionEvent = (ExecutionEvent) event;
+        MojoExecution mojo = executionEvent.getMojoExecution();
+        MavenProject project = executionEvent.getProject();
+        if (mojo == null || project == null) {
+            return;
+        }
+        // no switch on the type, which would compile to a synthetic class to be added to the extension
+        List<Object> key = Arrays.asList(project, mojo);
+        ExecutionEvent.Type type = executionEvent.getType();
+        if (type == ExecutionEvent.Type.MojoStarted) {
+            started.put(key, System.nanoTime());
+        } else if (type == ExecutionEvent.Type.MojoSucceeded || type == ExecutionEvent.Type.MojoFailed) {
+            Long start = started.remove(key);
+            if (start != null) {
+                lines.add(format(project, mojo, start, type == ExecutionEvent.Type.MojoFailed));
+            }
+        }
+    }
+
+    private String format(MavenProject project, MojoExecution mojo, long start, boolean failed) {
+        long duration = System.nanoTime() - start;
+        return String.join(
+                "\t",
+                Long.toString(originEpochNanos + start - originNanos),
+                Long.toString(duration),
+                failed ? "failed" : "ok",
+                project.getGroupId() + ':' + project.getArtifactId(),
+                mojo.getGroupId() + ':' + mojo.getArtifactId() + ':' + mojo.getVersion() + ':' + mojo.getGoal(),
+                clean(mojo.getExecutionId()),
+                clean(mojo.getLifecyclePhase()),
+                clean(Thread.currentThread().getName()));
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            Files.write(Paths.get(file), lines, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Injects {@link MojoTimingSpy} into the Maven build under test and reads the timings it records. The spy is packaged
+ * into a small extension JAR, created once per JVM, which declares it as Plexus component, and added to the extension
+ * class path of Maven with <code>-Dmaven.ext.class.path</code>, which is honoured by forked and embedded builds.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class MojoTimings {
+
+    static final String EXT_CLASS_PATH = "maven.ext.class.path";
+
+    private static final String COMPONENTS = "<component-set><components><component>"
+            + "<role>org.apache.maven.eventspy.EventSpy</role>"
+            + "<role-hint>maven-verifier-mojo-timing</role-hint>"
+            + "<implementation>" + MojoTimingSpy.class.getName() + "</implementation>"
+            + "</component></components></component-set>\n";
+
+    private static File extension;
+
+    private MojoTimings() {}
+
+    /**
+     * Adds the arguments injecting the spy to the command line, keeping extensions given by the caller.
+     *
+     * @param cliArguments     The command line arguments, modified in place, must not be <code>null</code>.
+     * @param systemProperties The system properties of the build, must not be <code>null</code>.
+     * @param logFile          The log file of the execution, must not be <code>null</code>.
+     * @return The file the spy writes to, e.g. <code>log-mojos.tsv</code> for <code>log.txt</code>, never
+     *         <code>null</code>.
+     * @throws IOException If the extension could not be created.
+     */
+    static File addArguments(List<String> cliArguments, Properties systemProperties, File logFile) throws IOException {
+        String name = logFile.getName();
+        int dot = name.lastIndexOf('.');
+        File file = new File(
+                logFile.getAbsoluteFile().getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + "-mojos.tsv");
+        Files.deleteIfExists(file.toPath());
+
+        String prefix = "-D" + EXT_CLASS_PATH + '=';
+        String extClassPath = getExtension().getPath();
+        String configured = systemProperties.getProperty(EXT_CLASS_PATH);
+        for (ListIterator<String> it = cliArguments.listIterator(); it.hasNext(); ) {
+            String argument = it.next();
+            if (argument.startsWith(prefix)) {
+                // the last definition wins
+                configured = argument.substring(prefix.length());
+                it.remove();
+            }
+        }
+        if (configured != null && !configured.isEmpty()) {
+            extClassPath = configured + File.pathSeparator + extClassPath;
+        }
+        cliArguments.add(prefix + extClassPath);
+        cliArguments.add("-D" + MojoTimingSpy.FILE_PROPERTY + '=' + file.getPath());
+        return file;
+    }
+
+    private static synchronized File getExtension() throws IOException {
+        if (extension == null || !extension.isFile()) {
+            Path jar = Files.createTempFile("maven-verifier-spy", ".jar");
+            jar.toFile().deleteOnExit();
+            String classFile = MojoTimingSpy.class.getName().replace('.', '/') + ".class";
+            try (OutputStream out = Files.newOutputStream(jar);
+                    JarOutputStream jarOut = new JarOutputStream(out);
+                    InputStream in = MojoTimingSpy.class.getResourceAsStream("/" + classFile)) {
+                if (in == null) {
+                    throw new IOException("Class file not found: " + classFile);
+                }
+                jarOut.putNextEntry(new JarEntry(classFile));
+                byte[] buffer = new byte[8192];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    jarOut.write(buffer, 0, read);
+                }
+                jarOut.putNextEntry(new JarEntry("META-INF/plexus/components.xml"));
+                jarOut.write(COMPONENTS.getBytes(StandardCharsets.UTF_8));
+            }
+            extension = jar.toFile();
+        }
+        return extension;
+    }
+
+    /**
+     * Reads the timings written by the spy.
+     *
+     * @param file The file written by the spy, must not be <code>null</code>.
+     * @return The timings in the order the mojo executions ended or <code>null</code> if the file was not written, e.g.
+     *         because the build could not start.
+     */
+    static List<MojoTiming> read(File file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+        List<MojoTiming> timings = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            MojoTiming timing = MojoTiming.parse(line);
+            if (timing != null) {
+                timings.add(timing);
+            }
+        }
+        return Collections.unmodifiableList(timings);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Configures the named locks of Maven Resolver so concurrent builds can share one local repository. All builds
+ * coordinate through file locks in the local repository: locks within the JVM would neither exclude forked builds nor
+ * embedded builds in other class loaders, as each Maven container has its own lock factory. Resolver versions without
+ * named locks ignore the properties.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class NamedLocks {
+
+    static final String FACTORY = "aether.syncContext.named.factory";
+
+    static final String NAME_MAPPER = "aether.syncContext.named.nameMapper";
+
+    static final String TIME = "aether.syncContext.named.time";
+
+    /**
+     * Seconds to wait for a lock, the default of the resolver is too short for many builds resolving the same
+     * artifacts.
+     */
+    private static final String DEFAULT_TIME = "300";
+
+    private NamedLocks() {}
+
+    /**
+     * Adds the lock configuration to the command line unless already given by the caller.
+     *
+     * @param cliArguments     The command line arguments, modified in place, must not be <code>null</code>.
+     * @param systemProperties The system properties of the build, must not be <code>null</code>.
+     */
+    static void addArguments(List<String> cliArguments, Properties systemProperties) {
+        add(cliArguments, systemProperties, FACTORY, "file-lock");
+        add(cliArguments, systemProperties, NAME_MAPPER, "file-gav");
+        add(cliArguments, systemProperties, TIME, DEFAULT_TIME);
+    }
+
+    private static void add(List<String> cliArguments, Properties systemProperties, String key, String value) {
+        if (systemProperties.containsKey(key)) {
+            return;
+        }
+        String prefix = "-D" + key + '=';
+        for (String argument : cliArguments) {
+            if (argument.startsWith(prefix)) {
+                return;
+            }
+        }
+        cliArguments.add(prefix + value);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A file based store of the durations measured by a test, keyed by metric and Maven version, against which
+ * {@link Verifier#verifyExecutionTime(Duration)} and {@link Verifier#verifyMojoTime(String, Duration)} compare the
+ * measured durations. In recording mode, the durations are added to the store instead, keeping the last measurements
+ * of each metric; otherwise a duration fails the verification if it exceeds the median of the recorded ones by more
+ * than the tolerance, and the first duration of a metric without recorded ones seeds its baseline. The median of several runs is robust against single slow runs, and the default tolerance of
+ * <code>0.5</code> lets noise pass while a 2x slowdown fails. Durations measured with a Maven version that cannot be
+ * determined are keyed by the version <code>unknown</code>.
+ * <p>
+ * Each test has a properties file in the store directory, which is meant to be kept under version control so the
+ * baseline survives <code>mvn clean</code> and is shared with other builds. Updates are atomic, but concurrent updates
+ * for the same test may lose measurements.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class PerformanceBaseline {
+
+    private static final Object LOCK = new Object();
+
+    static final String UNKNOWN_VERSION = "unknown";
+
+    private final File file;
+
+    private final String testId;
+
+    private double tolerance = Double.parseDouble(System.getProperty("verifier.baseline.tolerance", "0.5"));
+
+    private int window = Integer.getInteger("verifier.baseline.window", 10);
+
+    private boolean recording = Boolean.getBoolean("verifier.baseline.record");
+
+    private String mavenVersion;
+
+    /**
+     * Creates the baseline of a test in the directory given by the system property {@code verifier.baseline.dir},
+     * <code>src/test/baselines</code> by default.
+     *
+     * @param testId The id of the test, e.g. <code>MyPluginIT.testCompile</code>, must not be <code>null</code>.
+     */
+    public PerformanceBaseline(String testId) {
+        this(new File(System.getProperty("verifier.baseline.dir", "src/test/baselines")), testId);
+    }
+
+    /**
+     * Creates the baseline of a test.
+     *
+     * @param directory The store directory, must not be <code>null</code>.
+     * @param testId    The id of the test, must not be <code>null</code>.
+     */
+    public PerformanceBaseline(File directory, String testId) {
+        this.testId = testId;
+        this.file = new File(directory, testId.replaceAll("[^A-Za-z0-9._-]", "_") + ".properties");
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    /**
+     * Sets by how much a duration may exceed the median of the baseline, e.g. <code>0.5</code> for 50%.
+     * <p>
+     * By default, the tolerance is given by the system property {@code verifier.baseline.tolerance} or
+     * <code>0.5</code>.
+     *
+     * @param tolerance The tolerance, not negative.
+     */
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Sets the number of measurements kept per metric, the median is taken over them.
+     * <p>
+     * By default, the window is given by the system property {@code verifier.baseline.window} or <code>10</code>.
+     *
+     * @param window The number of measurements, positive.
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Sets whether measured durations are recorded into the baseline instead of being compared with it.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.baseline.record} is {@code true}.
+     *
+     * @param recording indicate if option is enabled
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Gets the median of the recorded durations of a metric.
+     *
+     * @param metric       The metric, e.g. <code>execution</code> or <code>mojo:compiler:compile</code>, must not be
+     *                     <code>null</code>.
+     * @param mavenVersion The Maven version the durations were measured with, must not be <code>null</code>.
+     * @return The median or <code>null</code> if no duration was recorded.
+     * @throws IOException If the store could not be read.
+     */
+    public Duration getMedian(String metric, String mavenVersion) throws IOException {
+        long[] durations = parse(load().getProperty(key(metric, mavenVersion)));
+        if (durations.length == 0) {
+            return null;
+        }
+        Arrays.sort(durations);
+        int middle = durations.length / 2;
+        return Duration.ofNanos(
+                durations.length % 2 == 1 ? durations[middle] : (durations[middle - 1] + durations[middle]) / 2);
+    }
+
+    /**
+     * Verifies a duration against a budget and the baseline, or records it in recording mode.
+     *
+     * @param description The measured operation for messages, must not be <code>null</code>.
+     * @param metric      The metric, must not be <code>null</code>.
+     * @param measured    The measured duration, must not be <code>null</code>.
+     * @param budget      The maximum duration, may be <code>null</code>.
+     * @param baseline    The baseline, may be <code>null</code>.
+     * @param verifier    The verifier, used to determine the Maven version, must not be <code>null</code>.
+     * @throws VerificationException If the duration exceeds the budget or the baseline.
+     */
+    static void verify(
+            String description,
+            String metric,
+            Duration measured,
+            Duration budget,
+            PerformanceBaseline baseline,
+            Verifier verifier)
+            throws VerificationException {
+        if (budget != null && measured.compareTo(budget) > 0) {
+            throw new VerificationException(description + " took " + measured.toMillis()
+                    + " ms, exceeding the budget of " + budget.toMillis() + " ms");
+        }
+        if (baseline != null) {
+            baseline.verify(description, metric, measured, verifier);
+        }
+    }
+
+    private void verify(String description, String metric, Duration measured, Verifier verifier)
+            throws VerificationException {
+        if (mavenVersion == null) {
+            String version = verifier.getMavenVersion();
+            mavenVersion = version != null ? version : UNKNOWN_VERSION;
+        }
+        try {
+            if (recording) {
+                record(metric, mavenVersion, measured);
+                return;
+            }
+            Duration median = getMedian(metric, mavenVersion);
+            if (median == null) {
+                record(metric, mavenVersion, measured);
+            } else if (measured.toNanos() > median.toNanos() * (1 + tolerance)) {
+                throw new VerificationException(String.format(
+                        "%s took %d ms, more than %.0f%% above the baseline median of %d ms (%s, Maven %s)",
+                        description, measured.toMillis(), tolerance * 100, median.toMillis(), testId, mavenVersion));
+            }
+        } catch (IOException e) {
+            throw new VerificationException("Could not access performance baseline " + file, e);
+        }
+    }
+
+    private void record(String metric, String mavenVersion, Duration measured) throws IOException {
+        synchronized (LOCK) {
+            Properties properties = load();
+            String key = key(metric, mavenVersion);
+            List<String> durations = new ArrayList<>();
+            String value = properties.getProperty(key);
+            if (value != null && !value.isEmpty()) {
+                Collections.addAll(durations, value.split(","));
+            }
+            durations.add(Long.toString(measured.toNanos()));
+            properties.setProperty(
+                    key, String.join(",", durations.subList(Math.max(0, durations.size() - window), durations.size())));
+
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            Path temp =
+                    Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Durations in nanoseconds of " + testId);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private Properties load() throws IOException {
+        Properties properties = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+
+    private static String key(String metric, String mavenVersion) {
+        return mavenVersion + '/' + metric;
+    }
+
+    private static long[] parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return new long[0];
+        }
+        String[] values = value.split(",");
+        long[] durations = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            durations[i] = Long.parseLong(values[i].trim());
+        }
+        return durations;
+    }
+}
@@ -0,0 +1,601 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.shared.verifier.util.CleanupService;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Finds the build directories of a reactor by scanning its POMs for modules and <code>build/directory</code>
+ * elements, without building the project models. A build directory is inherited from the parent POM and defaults to
+ * <code>target</code>. Parent POMs outside the reactor are read from their relative path or from the local repository;
+ * a parent found in neither place is downloaded by the build, so the clean plugin is used instead. The projects
+ * selected with <code>-pl</code> and <code>-rf</code> are determined as Maven does, sorting the reactor by the
+ * dependencies, parents, plugins and extensions between its projects. Scans are cached per root POM until one of the
+ * scanned POMs changes.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class ReactorOutputs {
+
+    private static final String DEFAULT_DIRECTORY = "${project.basedir}/target";
+
+    private static final Map<File, ReactorOutputs> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The command line options changing the projects of the reactor in ways the POMs alone do not tell.
+     */
+    private static final List<String> REACTOR_CLI_OPTIONS = Arrays.asList(
+            "-f",
+            "--file",
+            "-N",
+            "--non-recursive",
+            "-r",
+            "--reactor",
+            "-am",
+            "--also-make",
+            "-amd",
+            "--also-make-dependents");
+
+    private static final List<String> PROJECTS_CLI_OPTIONS = Arrays.asList("-pl", "--projects");
+
+    private static final List<String> RESUME_CLI_OPTIONS = Arrays.asList("-rf", "--resume-from");
+
+    /**
+     * A project of the reactor.
+     */
+    private static final class Project {
+        private final File pom;
+
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final File directory;
+
+        /**
+         * The <code>groupId:artifactId</code> of the dependencies, parent, plugins and extensions in the order Maven
+         * sorts the reactor by.
+         */
+        private final List<String> upstream;
+
+        Project(File pom, String groupId, String artifactId, File directory, List<String> upstream) {
+            this.pom = pom;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.directory = directory;
+            this.upstream = upstream;
+        }
+    }
+
+    /**
+     * Reads the POMs of a reactor and their parents.
+     */
+    private static final class Scanner {
+        private final File localRepository;
+
+        private final Map<File, Xpp3Dom> models = new LinkedHashMap<>();
+
+        /**
+         * The last modification time of each read POM.
+         */
+        private final Map<File, Long> poms = new LinkedHashMap<>();
+
+        /**
+         * The POMs of the reactor in the order Maven collects them.
+         */
+        private final List<File> reactor = new ArrayList<>();
+
+        Scanner(File localRepository) {
+            this.localRepository = localRepository;
+        }
+
+        private Xpp3Dom load(File file) throws IOException, XmlPullParserException {
+            Xpp3Dom model = models.get(file);
+            if (model == null) {
+                poms.put(file, file.lastModified());
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    model = Xpp3DomBuilder.build(in, "UTF-8");
+                }
+                models.put(file, model);
+            }
+            return model;
+        }
+
+        private boolean collect(File pom) throws IOException, XmlPullParserException {
+            File file = toPomFile(pom);
+            if (reactor.contains(file)) {
+                return true;
+            }
+            if (!file.isFile()) {
+                return false;
+            }
+
+            Xpp3Dom model = load(file);
+            reactor.add(file);
+
+            Xpp3Dom profiles = model.getChild("profiles");
+            if (profiles != null) {
+                for (Xpp3Dom profile : profiles.getChildren()) {
+                    if (profile.getChild("modules") != null) {
+                        return false;
+                    }
+                }
+            }
+
+            Xpp3Dom modules = model.getChild("modules");
+            if (modules != null) {
+                for (Xpp3Dom module : modules.getChildren("module")) {
+                    String path = module.getValue();
+                    if (path == null || path.contains("${")) {
+                        return false;
+                    }
+                    if (!collect(new File(file.getParentFile(), path.trim()))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Gets the parent POM as Maven locates it, from its relative path if the POM found there has the coordinates
+         * of the parent and from the local repository otherwise.
+         *
+         * @return The parent POM or <code>null</code> if the POM has no parent.
+         * @throws IOException If the parent POM has not been found.
+         */
+        private File getParent(File pom) throws IOException, XmlPullParserException {
+            Xpp3Dom parent = models.get(pom).getChild("parent");
+            if (parent == null) {
+                return null;
+            }
+            String groupId = getChildValue(parent, "groupId");
+            String artifactId = getChildValue(parent, "artifactId");
+            String version = getChildValue(parent, "version");
+
+            // an empty relative path disables the lookup of the parent in the file system
+            Xpp3Dom relativePath = parent.getChild("relativePath");
+            String path = relativePath == null ? "../pom.xml" : relativePath.getValue();
+            if (path != null && !path.trim().isEmpty()) {
+                File file = toPomFile(new File(pom.getParentFile(), path.trim()));
+                if (!file.equals(pom) && file.isFile()) {
+                    Xpp3Dom model = load(file);
+                    if ((groupId == null || groupId.equals(getGroupId(model)))
+                            && (artifactId == null || artifactId.equals(getChildValue(model, "artifactId")))) {
+                        return file;
+                    }
+                }
+            }
+
+            if (localRepository != null && groupId != null && artifactId != null && version != null) {
+                File file = new File(
+                        localRepository,
+                        groupId.replace('.', '/') + '/' + artifactId + '/' + version + '/' + artifactId + '-' + version
+                                + ".pom");
+                if (!file.getPath().contains("${") && file.isFile()) {
+                    load(file);
+                    return file;
+                }
+            }
+            throw new IOException("Parent of " + pom + " not found");
+        }
+
+        /**
+         * Gets the POM and its ancestors, starting with the POM.
+         */
+        private List<Xpp3Dom> getLineage(File pom) throws IOException, XmlPullParserException {
+            List<Xpp3Dom> lineage = new ArrayList<>();
+            Set<File> visited = new HashSet<>();
+            for (File file = pom; file != null && visited.add(file); file = getParent(file)) {
+                lineage.add(models.get(file));
+            }
+            return lineage;
+        }
+
+        private Project toProject(File pom) throws IOException, XmlPullParserException {
+            List<Xpp3Dom> lineage = getLineage(pom);
+            Xpp3Dom model = lineage.get(0);
+            String groupId = getGroupId(model);
+            String parentGroupId = getChildValue(model, "parent", "groupId");
+
+            String directory = null;
+            for (Xpp3Dom ancestor : lineage) {
+                Xpp3Dom profiles = ancestor.getChild("profiles");
+                if (profiles != null) {
+                    for (Xpp3Dom profile : profiles.getChildren()) {
+                        if (getChildValue(profile, "build", "directory") != null) {
+                            return null;
+                        }
+                    }
+                }
+                if (directory == null) {
+                    directory = getChildValue(ancestor, "build", "directory");
+                }
+            }
+            File projectDir = pom.getParentFile();
+            directory = (directory == null ? DEFAULT_DIRECTORY : directory.trim())
+                    .replace("${project.basedir}", projectDir.getPath())
+                    .replace("${basedir}", projectDir.getPath());
+            if (directory.contains("${")) {
+                return null;
+            }
+            File file = new File(directory);
+            if (!file.isAbsolute()) {
+                file = new File(projectDir, directory);
+            }
+
+            List<String> upstream = new ArrayList<>();
+            for (Xpp3Dom ancestor : lineage) {
+                addUpstreamChildren(
+                        upstream, ancestor.getChild("dependencies"), "dependency", null, groupId, parentGroupId);
+            }
+            if (model.getChild("parent") != null) {
+                upstream.add(parentGroupId + ':' + getChildValue(model, "parent", "artifactId"));
+            }
+            for (Xpp3Dom ancestor : lineage) {
+                Xpp3Dom build = ancestor.getChild("build");
+                Xpp3Dom plugins = build == null ? null : build.getChild("plugins");
+                if (plugins != null) {
+                    for (Xpp3Dom plugin : plugins.getChildren("plugin")) {
+                        addUpstream(upstream, plugin, "org.apache.maven.plugins", groupId, parentGroupId);
+                        addUpstreamChildren(
+                                upstream, plugin.getChild("dependencies"), "dependency", null, groupId, parentGroupId);
+                    }
+                }
+            }
+            for (Xpp3Dom ancestor : lineage) {
+                Xpp3Dom build = ancestor.getChild("build");
+                addUpstreamChildren(
+                        upstream,
+                        build == null ? null : build.getChild("extensions"),
+                        "extension",
+                        null,
+                        groupId,
+                        parentGroupId);
+            }
+
+            return new Project(
+                    pom,
+                    groupId,
+                    getChildValue(model, "artifactId"),
+                    file.toPath().normalize().toFile(),
+                    upstream);
+        }
+    }
+
+    private final File localRepository;
+
+    /**
+     * The last modification time of each scanned POM.
+     */
+    private final Map<File, Long> poms;
+
+    /**
+     * The projects in the order Maven builds them.
+     */
+    private final List<Project> projects;
+
+    private ReactorOutputs(File localRepository, Map<File, Long> poms, List<Project> projects) {
+        this.localRepository = localRepository;
+        this.poms = poms;
+        this.projects = projects;
+    }
+
+    /**
+     * Gets the projects of the reactor rooted at the specified POM.
+     *
+     * @param rootPom         The POM of the reactor, must not be <code>null</code>.
+     * @param localRepository The local repository to read parent POMs from, must not be <code>null</code>.
+     * @return The projects or <code>null</code> if their build directories cannot be determined without building the
+     *         project models, e.g. because a directory uses a property or a profile declares modules.
+     */
+    private static ReactorOutputs find(File rootPom, File localRepository) {
+        File key = rootPom.getAbsoluteFile();
+        ReactorOutputs outputs = CACHE.get(key);
+        if (outputs == null || !outputs.isCurrent(localRepository)) {
+            outputs = scan(key, localRepository);
+            if (outputs == null) {
+                CACHE.remove(key);
+                return null;
+            }
+            CACHE.put(key, outputs);
+        }
+        return outputs;
+    }
+
+    /**
+     * Gets the POMs of the reactor rooted at the specified POM.
+     *
+     * @param rootPom The POM of the reactor, must not be <code>null</code>.
+     * @return The normalized POM files in the order of the reactor, starting with the root POM, or <code>null</code> if
+     *         the modules cannot be determined without building the project models.
+     */
+    static List<File> findPoms(File rootPom) {
+        Scanner scanner = new Scanner(null);
+        try {
+            if (!scanner.collect(rootPom.getAbsoluteFile())) {
+                return null;
+            }
+        } catch (IOException | XmlPullParserException e) {
+            return null;
+        }
+        return scanner.reactor;
+    }
+
+    /**
+     * Deletes the build directories of the projects built by the reactor in the specified base directory using the
+     * {@link CleanupService}.
+     *
+     * @param basedir         The base directory of the build, must not be <code>null</code>.
+     * @param localRepository The local repository of the build, relative to the base directory, must not be
+     *                        <code>null</code>.
+     * @param cliArguments    The command line arguments of the build, must not be <code>null</code>.
+     * @return <code>true</code> if the build directories have been deleted, <code>false</code> if they could not be
+     *         determined and the clean plugin needs to run instead.
+     */
+    static boolean deleteBuildDirectories(File basedir, String localRepository, List<String> cliArguments) {
+        String projectList = null;
+        String resumeFrom = null;
+        for (int i = 0; i < cliArguments.size(); i++) {
+            String cliArgument = cliArguments.get(i);
+            if (REACTOR_CLI_OPTIONS.contains(cliArgument) || cliArgument.startsWith("--file=")) {
+                return false;
+            } else if (PROJECTS_CLI_OPTIONS.contains(cliArgument) && i + 1 < cliArguments.size()) {
+                projectList = (projectList == null ? "" : projectList + ',') + cliArguments.get(++i);
+            } else if (cliArgument.startsWith("--projects=")) {
+                projectList = (projectList == null ? "" : projectList + ',') + cliArgument.substring(11);
+            } else if (RESUME_CLI_OPTIONS.contains(cliArgument) && i + 1 < cliArguments.size()) {
+                resumeFrom = cliArguments.get(++i);
+            } else if (cliArgument.startsWith("--resume-from=")) {
+                resumeFrom = cliArgument.substring(14);
+            }
+        }
+
+        File repository = new File(localRepository);
+        if (!repository.isAbsolute()) {
+            repository = new File(basedir, localRepository);
+        }
+        ReactorOutputs outputs = find(new File(basedir, "pom.xml"), repository);
+        List<Project> selected = outputs == null ? null : outputs.select(basedir, projectList, resumeFrom);
+        if (selected == null) {
+            return false;
+        }
+
+        try {
+            for (Project project : selected) {
+                if (project.directory.exists()) {
+                    CleanupService.getInstance().delete(project.directory);
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Selects the projects built with the specified options.
+     *
+     * @param projectList The value of <code>-pl</code> or <code>null</code>.
+     * @param resumeFrom  The value of <code>-rf</code> or <code>null</code>.
+     * @return The selected projects or <code>null</code> if the options select nothing or are left to Maven to report.
+     */
+    private List<Project> select(File basedir, String projectList, String resumeFrom) {
+        List<Project> selected = new ArrayList<>(projects);
+        if (projectList != null) {
+            Set<Project> included = new LinkedHashSet<>();
+            Set<Project> excluded = new LinkedHashSet<>();
+            for (String selector : projectList.split(",")) {
+                selector = selector.trim();
+                boolean exclude = selector.startsWith("!") || selector.startsWith("-");
+                if (exclude) {
+                    selector = selector.substring(1);
+                }
+                boolean optional = selector.startsWith("?");
+                if (optional) {
+                    selector = selector.substring(1);
+                }
+                if (selector.isEmpty()) {
+                    continue;
+                }
+                Project project = getProject(basedir, selector);
+                if (project == null && !optional) {
+                    return null;
+                } else if (project != null) {
+                    (exclude ? excluded : included).add(project);
+                }
+            }
+            if (!included.isEmpty()) {
+                selected.retainAll(included);
+            }
+            selected.removeAll(excluded);
+        }
+        if (resumeFrom != null) {
+            for (Project project : projects) {
+                for (String id : project.upstream) {
+                    if (id.contains("${")) {
+                        // the build order is not known
+                        return null;
+                    }
+                }
+            }
+            int index = selected.indexOf(getProject(basedir, resumeFrom.trim()));
+            if (index < 0) {
+                return null;
+            }
+            selected = selected.subList(index, selected.size());
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+
+    /**
+     * Gets a project by <code>[groupId]:artifactId</code> or by the path of its directory or POM.
+     */
+    private Project getProject(File basedir, String selector) {
+        if (selector.contains(":")) {
+            String groupId = selector.substring(0, selector.indexOf(':'));
+            String artifactId = selector.substring(selector.indexOf(':') + 1);
+            for (Project project : projects) {
+                if (artifactId.equals(project.artifactId) && (groupId.isEmpty() || groupId.equals(project.groupId))) {
+                    return project;
+                }
+            }
+            return null;
+        }
+        File pom = toPomFile(new File(basedir.getAbsoluteFile(), selector));
+        for (Project project : projects) {
+            if (project.pom.equals(pom)) {
+                return project;
+            }
+        }
+        return null;
+    }
+
+    private boolean isCurrent(File localRepository) {
+        if (!this.localRepository.equals(localRepository)) {
+            return false;
+        }
+        for (Map.Entry<File, Long> pom : poms.entrySet()) {
+            if (pom.getKey().lastModified() != pom.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ReactorOutputs scan(File rootPom, File localRepository) {
+        Scanner scanner = new Scanner(localRepository);
+        List<Project> projects = new ArrayList<>();
+        try {
+            if (!scanner.collect(rootPom)) {
+                return null;
+            }
+            for (File pom : scanner.reactor) {
+                Project project = scanner.toProject(pom);
+                if (project == null) {
+                    return null;
+                }
+                projects.add(project);
+            }
+        } catch (IOException | XmlPullParserException e) {
+            return null;
+        }
+
+        return new ReactorOutputs(localRepository, scanner.poms, Collections.unmodifiableList(sort(projects)));
+    }
+
+    /**
+     * Sorts the projects by a depth first search over their upstream projects, visiting the projects in the order they
+     * were collected, as the project sorter of Maven does.
+     */
+    private static List<Project> sort(List<Project> projects) {
+        Map<String, Project> byId = new LinkedHashMap<>();
+        for (Project project : projects) {
+            byId.putIfAbsent(project.groupId + ':' + project.artifactId, project);
+        }
+        List<Project> sorted = new ArrayList<>();
+        Set<Project> visited = new HashSet<>();
+        for (Project project : projects) {
+            visit(project, byId, visited, sorted);
+        }
+        return sorted;
+    }
+
+    private static void visit(Project project, Map<String, Project> byId, Set<Project> visited, List<Project> sorted) {
+        if (visited.add(project)) {
+            for (String id : project.upstream) {
+                Project upstream = byId.get(id);
+                if (upstream != null) {
+                    visit(upstream, byId, visited, sorted);
+                }
+            }
+            sorted.add(project);
+        }
+    }
+
+    /**
+     * Adds the <code>groupId:artifactId</code> of the specified element or of its children with the specified name.
+     */
+    private static void addUpstreamChildren(
+            List<String> upstream,
+            Xpp3Dom element,
+            String childName,
+            String defaultGroupId,
+            String groupId,
+            String parentGroupId) {
+        if (element != null) {
+            for (Xpp3Dom child : element.getChildren(childName)) {
+                addUpstream(upstream, child, defaultGroupId, groupId, parentGroupId);
+            }
+        }
+    }
+
+    private static void addUpstream(
+            List<String> upstream, Xpp3Dom element, String defaultGroupId, String groupId, String parentGroupId) {
+        String group = getChildValue(element, "groupId");
+        group = group == null ? defaultGroupId : group.trim();
+        if (group != null) {
+            group = group.replace("${project.groupId}", String.valueOf(groupId))
+                    .replace("${pom.groupId}", String.valueOf(groupId))
+                    .replace("${project.parent.groupId}", String.valueOf(parentGroupId));
+        }
+        String artifactId = getChildValue(element, "artifactId");
+        upstream.add(group + ':' + (artifactId == null ? null : artifactId.trim()));
+    }
+
+    private static String getGroupId(Xpp3Dom model) {
+        String groupId = getChildValue(model, "groupId");
+        return groupId != null ? groupId : getChildValue(model, "parent", "groupId");
+    }
+
+    private static File toPomFile(File file) {
+        File pom = file.toPath().normalize().toFile();
+        return pom.isDirectory() ? new File(pom, "pom.xml") : pom;
+    }
+
+    private static String getChildValue(Xpp3Dom dom, String... path) {
+        for (String name : path) {
+            dom = dom.getChild(name);
+            if (dom == null) {
+                return null;
+            }
+        }
+        return dom.getValue() == null ? null : dom.getValue().trim();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Resolves the dependencies and plugins of many test projects into the local repository before the tests run, one
+ * forked build per project in parallel. Each build runs <code>dependency:go-offline</code>, so Maven itself computes
+ * the requirements of the effective POMs; builds resolving the same artifacts are serialized by the locking of the
+ * resolver.
+ * <p>
+ * If enabled with {@link #setOffline(boolean)}, a {@link Verifier} executing a primed project, i.e. a project whose
+ * reactor POMs have the same paths and content as the ones of a successfully primed project, with the same local
+ * repository adds <code>-o</code> to the command line. Projects whose modules cannot be determined without building
+ * the project models, e.g. because a profile declares modules, are never run offline.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class RepositoryPrimer {
+
+    private static final String DEFAULT_DEPENDENCY_PLUGIN_VERSION = "3.8.1";
+
+    /**
+     * The digests of the primed POMs, keyed by local repository.
+     */
+    private static final Map<File, Set<String>> PRIMED = new ConcurrentHashMap<>();
+
+    private final List<File> projects = new ArrayList<>();
+
+    private final List<String> goals = new ArrayList<>();
+
+    private String dependencyPluginVersion =
+            System.getProperty("verifier.primer.dependencyPluginVersion", DEFAULT_DEPENDENCY_PLUGIN_VERSION);
+
+    private String localRepo;
+
+    private String settingsFile;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private boolean offline = Boolean.getBoolean("verifier.primer.offline");
+
+    /**
+     * Adds a project to prime.
+     *
+     * @param basedir The directory containing the <code>pom.xml</code> of the project, must not be <code>null</code>.
+     * @return This primer, never <code>null</code>.
+     */
+    public RepositoryPrimer addProject(File basedir) {
+        projects.add(basedir.getAbsoluteFile());
+        return this;
+    }
+
+    /**
+     * Adds a goal to run in addition to <code>dependency:go-offline</code>, e.g. a plugin only invoked from the
+     * command line by the tests.
+     *
+     * @param goal The goal, must not be <code>null</code>.
+     * @return This primer, never <code>null</code>.
+     */
+    public RepositoryPrimer addGoal(String goal) {
+        goals.add(goal);
+        return this;
+    }
+
+    /**
+     * Sets the local repository to prime. By default, the local repository determined by {@link Verifier} is used.
+     *
+     * @param localRepo The local repository, may be <code>null</code>.
+     */
+    public void setLocalRepo(String localRepo) {
+        this.localRepo = localRepo;
+    }
+
+    public void setSettingsFile(String settingsFile) {
+        this.settingsFile = settingsFile;
+    }
+
+    /**
+     * Sets the number of builds to run concurrently, by default the number of processors.
+     *
+     * @param threads The number of concurrent builds, must be positive.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the version of the Maven Dependency Plugin running <code>go-offline</code>.
+     * <p>
+     * By default, the system property {@code verifier.primer.dependencyPluginVersion} or else version 3.8.1 is used.
+     *
+     * @param dependencyPluginVersion The plugin version, must not be <code>null</code>.
+     */
+    public void setDependencyPluginVersion(String dependencyPluginVersion) {
+        this.dependencyPluginVersion = dependencyPluginVersion;
+    }
+
+    /**
+     * Sets whether verifiers run primed projects offline.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.primer.offline} is {@code true}.
+     *
+     * @param offline indicate if option is enabled
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    /**
+     * Primes the local repository with the requirements of all added projects.
+     *
+     * @return The projects which could not be primed mapped to the reason, never <code>null</code>. Failing projects
+     *         are run online by {@link Verifier}.
+     * @throws VerificationException If priming was interrupted.
+     */
+    public Map<File, VerificationException> prime() throws VerificationException {
+        Map<File, Future<Void>> builds = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            for (File project : projects) {
+                builds.put(project, executor.submit(() -> {
+                    prime(project);
+                    return null;
+                }));
+            }
+
+            Map<File, VerificationException> failures = new LinkedHashMap<>();
+            for (Map.Entry<File, Future<Void>> build : builds.entrySet()) {
+                try {
+                    build.getValue().get();
+                } catch (ExecutionException e) {
+                    failures.put(
+                            build.getKey(),
+                            e.getCause() instanceof VerificationException
+                                    ? (VerificationException) e.getCause()
+                                    : new VerificationException(e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new VerificationException("Interrupted while priming", e);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void prime(File project) throws VerificationException, IOException {
+        Verifier verifier = new Verifier(project.getPath());
+        if (settingsFile != null) {
+            verifier.setSettingsFile(settingsFile);
+        }
+        if (localRepo != null) {
+            verifier.setLocalRepo(localRepo);
+        }
+        // the embedded launcher shares system properties between concurrent builds
+        verifier.setForkJvm(true);
+        verifier.setAutoclean(false);
+
+        File logFile = Files.createTempFile("maven-verifier-prime", ".log").toFile();
+        try {
+            verifier.setLogFile(logFile);
+            verifier.addCliArgument(
+                    "org.apache.maven.plugins:maven-dependency-plugin:" + dependencyPluginVersion + ":go-offline");
+            verifier.addCliArguments(goals.toArray(new String[0]));
+            verifier.execute();
+        } finally {
+            Files.deleteIfExists(logFile.toPath());
+        }
+
+        if (offline) {
+            markPrimed(project, verifier.getLocalRepository());
+        }
+    }
+
+    static void markPrimed(File basedir, String localRepo) {
+        String digest = digest(basedir);
+        if (digest != null) {
+            PRIMED.computeIfAbsent(repositoryKey(localRepo), key -> ConcurrentHashMap.newKeySet())
+                    .add(digest);
+        }
+    }
+
+    /**
+     * Tells whether the specified project was primed for the specified local repository.
+     *
+     * @param basedir   The base directory of the project, must not be <code>null</code>.
+     * @param localRepo The local repository, must not be <code>null</code>.
+     * @return <code>true</code> if the project can be run offline, <code>false</code> otherwise.
+     */
+    static boolean isPrimed(File basedir, String localRepo) {
+        if (PRIMED.isEmpty()) {
+            return false;
+        }
+        Set<String> digests = PRIMED.get(repositoryKey(localRepo));
+        if (digests == null) {
+            return false;
+        }
+        String digest = digest(basedir);
+        return digest != null && digests.contains(digest);
+    }
+
+    private static File repositoryKey(String localRepo) {
+        return new File(localRepo).getAbsoluteFile().toPath().normalize().toFile();
+    }
+
+    /**
+     * Computes a digest of the paths and the content of the reactor POMs of a project.
+     */
+    private static String digest(File basedir) {
+        List<File> poms = ReactorOutputs.findPoms(new File(basedir, "pom.xml"));
+        if (poms == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Path root = basedir.getAbsoluteFile().toPath().normalize();
+            for (File pom : poms) {
+                digest.update(root.relativize(pom.toPath()).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(pom.toPath()));
+            }
+            byte[] hash = digest.digest();
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces tokens in a character stream in a single pass. The tokens of the filter map are compiled into a trie; at
+ * each position the longest token is replaced, replacement values are not filtered again. Memory usage is bounded by
+ * the buffer size plus the length of the longest token, regardless of the size of the input.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class TokenFilter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final class Node {
+        private Map<Character, Node> children;
+
+        private String replacement;
+
+        Node child(char c) {
+            return children == null ? null : children.get(c);
+        }
+
+        Node addChild(char c) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
+
+    private final Node root = new Node();
+
+    private final BitSet firstChars = new BitSet();
+
+    private final int maxTokenLength;
+
+    /**
+     * Compiles the specified filter map. Empty tokens and tokens without replacement value are ignored.
+     *
+     * @param filterMap The mapping from tokens to replacement values, must not be <code>null</code>.
+     */
+    TokenFilter(Map<String, String> filterMap) {
+        int maxLength = 0;
+        for (Map.Entry<String, String> entry : filterMap.entrySet()) {
+            String token = entry.getKey();
+            if (token == null || token.isEmpty() || entry.getValue() == null) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < token.length(); i++) {
+                node = node.addChild(token.charAt(i));
+            }
+            node.replacement = entry.getValue();
+            firstChars.set(token.charAt(0));
+            maxLength = Math.max(maxLength, token.length());
+        }
+        this.maxTokenLength = maxLength;
+    }
+
+    /**
+     * Filters the source file into the destination file. The output is written to a temporary file next to the
+     * destination first, so source and destination may be the same file. The POSIX permissions of the existing
+     * destination, or else of the source, are applied to the result, so e.g. executable scripts stay executable.
+     *
+     * @param src     The file to filter, must not be <code>null</code>.
+     * @param dst     The file to write, must not be <code>null</code>. Its parent directory must exist.
+     * @param charset The encoding of both files, must not be <code>null</code>.
+     * @throws IOException If the file could not be filtered.
+     */
+    void filter(Path src, Path dst, Charset charset) throws IOException {
+        Path tmpFile = Files.createTempFile(dst.getParent(), dst.getFileName().toString(), ".tmp");
+        try {
+            try (Reader reader = new InputStreamReader(Files.newInputStream(src), charset);
+                    Writer writer =
+                            new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tmpFile), charset))) {
+                filter(reader, writer);
+            }
+            PosixFileAttributeView permissions =
+                    Files.getFileAttributeView(Files.exists(dst) ? dst : src, PosixFileAttributeView.class);
+            if (permissions != null) {
+                Files.setPosixFilePermissions(
+                        tmpFile, permissions.readAttributes().permissions());
+            }
+            Files.move(tmpFile, dst, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Copies the input to the output, replacing all tokens.
+     *
+     * @param in  The input to filter, must not be <code>null</code>.
+     * @param out The output to write to, must not be <code>null</code>.
+     * @throws IOException If the input could not be read or the output could not be written.
+     */
+    void filter(Reader in, Writer out) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE + maxTokenLength];
+        int start = 0;
+        int end = 0;
+        boolean eof = false;
+
+        while (true) {
+            if (!eof && end - start < Math.max(maxTokenLength, 1)) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    end += read;
+                }
+                continue;
+            }
+            if (start >= end) {
+                break;
+            }
+
+            // positions from which the longest token fits into the buffer
+            int limit = eof ? end : Math.min(end, end - maxTokenLength + 1);
+            int i = start;
+            while (i < limit && !firstChars.get(buffer[i])) {
+                i++;
+            }
+            out.write(buffer, start, i - start);
+            start = i;
+            if (i >= limit) {
+                if (eof) {
+                    break;
+                }
+                continue;
+            }
+
+            Node node = root;
+            String replacement = null;
+            int length = 0;
+            for (int j = i; j < end && node != null; j++) {
+                node = node.child(buffer[j]);
+                if (node != null && node.replacement != null) {
+                    replacement = node.replacement;
+                    length = j - i + 1;
+                }
+            }
+
+            if (replacement != null) {
+                out.write(replacement);
+                start = i + length;
+            } else {
+                out.write(buffer[i]);
+                start = i + 1;
+            }
+        }
+    }
+}
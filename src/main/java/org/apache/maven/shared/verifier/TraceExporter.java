@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the phases of all verifier operations to a file in the Chrome trace event format, which can be loaded into
+ * Perfetto or <code>chrome://tracing</code>. Each thread running verifiers is a lane, each execution shows its
+ * launcher, spawn, run and log flush phases nested in the execution, followed by its verifications. If the mojo
+ * timings of the execution are recorded, see {@link Verifier#setMojoTimings(boolean)}, the mojo executions are shown
+ * aligned by the wall clock in a lane per thread of the build below the lane of the verifier, so the mojos of a
+ * parallel build do not overlap.
+ * <p>
+ * Ended phases are appended to a lock-free queue; a background thread formats them and writes them to the file
+ * incrementally, so tracing does not block the traced threads. The trace stays loadable if the JVM terminates
+ * before {@link #close()}. If the file cannot be written, further phases are dropped and the failure is thrown by
+ * the notification of the next ended phase, {@link #flush()} and {@link #close()}.
+ * <p>
+ * {@link #install(File)} registers a shared instance which is closed when the JVM exits. This is done automatically
+ * if the system property {@code verifier.traceFile} is set to the path of the trace file.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class TraceExporter implements VerifierListener, Closeable {
+
+    private static final long WRITE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * The first id of the lanes of build threads, above the ids of the threads of this JVM.
+     */
+    private static final long FIRST_BUILD_LANE = 1L << 32;
+
+    private static TraceExporter installed;
+
+    private final long origin = System.nanoTime();
+
+    private final long originEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    private final Set<Long> namedThreads = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Long> buildLanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextBuildLane = new AtomicLong(FIRST_BUILD_LANE);
+
+    private final Writer writer;
+
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    private volatile IOException failure;
+
+    private boolean failureReported;
+
+    private static final class Span {
+        private final String name;
+
+        private final String category;
+
+        private final long threadId;
+
+        private final String threadName;
+
+        private final long startNanos;
+
+        private final long durationNanos;
+
+        private final String[] args;
+
+        Span(String name, String category, Thread thread, long startNanos, long durationNanos, String... args) {
+            this(name, category, thread.getId(), thread.getName(), startNanos, durationNanos, args);
+        }
+
+        Span(
+                String name,
+                String category,
+                long threadId,
+                String threadName,
+                long startNanos,
+                long durationNanos,
+                String... args) {
+            this.name = name;
+            this.category = category;
+            this.threadId = threadId;
+            this.threadName = threadName;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Creates an exporter writing to a file, replacing its content.
+     *
+     * @param file The trace file, must not be <code>null</code>.
+     * @throws IOException If the file could not be created.
+     */
+    public TraceExporter(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        writer.write("[{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"maven-verifier\"}}");
+        writerThread = new Thread(this::writeLoop, "verifier-trace-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Installs the shared instance: registers it for all verifiers and closes it when the JVM exits.
+     *
+     * @param file The trace file, must not be <code>null</code>.
+     * @return The shared instance, never <code>null</code>.
+     * @throws IOException If the file could not be created.
+     */
+    public static synchronized TraceExporter install(File file) throws IOException {
+        if (installed == null) {
+            TraceExporter exporter = new TraceExporter(file);
+            VerifierListeners.register(exporter);
+            Runtime.getRuntime().addShutdownHook(new Thread(exporter::closeAtExit, "verifier-trace"));
+            installed = exporter;
+        }
+        return installed;
+    }
+
+    @Override
+    public void ended(VerifierEvent event) {
+        reportFailure();
+        Verifier verifier = event.getVerifier();
+        add(new Span(
+                event.getPhase().toString(),
+                "verifier",
+                Thread.currentThread(),
+                event.getStartTime(),
+                event.getDurationNanos(),
+                "basedir",
+                verifier != null ? verifier.getBasedir() : null,
+                "detail",
+                event.getDetail(),
+                "forkMode",
+                event.getForkMode(),
+                "failed",
+                event.isFailed() ? "true" : null));
+
+        ExecutionResult result = verifier != null ? verifier.getExecutionResult() : null;
+        if (event.getPhase() == VerifierEvent.Phase.EXECUTE && result != null && result.getMojoTimings() != null) {
+            Thread thread = Thread.currentThread();
+            for (MojoTiming timing : result.getMojoTimings()) {
+                String lane = thread.getName() + " / " + timing.getThread();
+                add(new Span(
+                        timing.getMojo(),
+                        "mojo",
+                        buildLanes.computeIfAbsent(
+                                thread.getId() + "/" + timing.getThread(), k -> nextBuildLane.getAndIncrement()),
+                        lane,
+                        origin + timing.getStartEpochNanos() - originEpochNanos,
+                        timing.getDuration().toNanos(),
+                        "project",
+                        timing.getProject(),
+                        "executionId",
+                        timing.getExecutionId(),
+                        "phase",
+                        timing.getPhase(),
+                        "thread",
+                        timing.getThread(),
+                        "failed",
+                        timing.isFailed() ? "true" : null));
+            }
+        }
+    }
+
+    /**
+     * Throws the failure of the writer thread once, so the verifier operation notifying this listener reports it.
+     */
+    private void reportFailure() {
+        IOException e = failure;
+        if (e != null) {
+            synchronized (this) {
+                if (!failureReported) {
+                    failureReported = true;
+                    throw new UncheckedIOException("Could not write verifier trace", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a span measured outside of the verifier, e.g. a mojo execution, to the lane of the current thread.
+     *
+     * @param name          The name of the span, must not be <code>null</code>.
+     * @param category      The category of the span, must not be <code>null</code>.
+     * @param startNanos    The start of the span as given by {@link System#nanoTime()}.
+     * @param durationNanos The duration of the span in nanoseconds.
+     * @param args          Pairs of argument names and values shown with the span, values may be <code>null</code>.
+     */
+    public void addSpan(String name, String category, long startNanos, long durationNanos, String... args) {
+        add(new Span(name, category, Thread.currentThread(), startNanos, durationNanos, args));
+    }
+
+    private void add(Span span) {
+        if (!closed && failure == null) {
+            spans.add(span);
+        }
+    }
+
+    /**
+     * Writes the queued spans to the file. Does nothing once the exporter is closed.
+     *
+     * @throws IOException If the file could not be written, now or before by the background thread.
+     */
+    public void flush() throws IOException {
+        synchronized (writer) {
+            if (!closed) {
+                writeQueued();
+            }
+        }
+    }
+
+    /**
+     * Writes the queued spans and closes the file.
+     *
+     * @throws IOException If the file could not be written, now or before by the background thread.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writerThread.interrupt();
+            try {
+                writeQueued();
+                writer.write("]\n");
+            } finally {
+                spans.clear();
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Closes the exporter when the JVM exits; a failure is already reported to the verifiers by then, or there is no
+     * one left to report it to.
+     */
+    private void closeAtExit() {
+        try {
+            close();
+        } catch (IOException e) {
+            // the JVM exits
+        }
+    }
+
+    private void writeQueued() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            for (Span span = spans.poll(); span != null; span = spans.poll()) {
+                write(span);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+            spans.clear();
+            throw e;
+        }
+    }
+
+    private void writeLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(WRITE_INTERVAL_NANOS);
+            if (closed || Thread.interrupted()) {
+                return;
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                // kept in failure and reported from the listener notifications, flush and close
+                return;
+            }
+        }
+    }
+
+    private void write(Span span) throws IOException {
+        if (namedThreads.add(span.threadId)) {
+            writer.write(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":");
+            writer.write(Long.toString(span.threadId));
+            writer.write(",\"args\":{\"name\":");
+            writeString(span.threadName);
+            writer.write("}}");
+        }
+        writer.write(",\n{\"name\":");
+        writeString(span.name);
+        writer.write(",\"cat\":");
+        writeString(span.category);
+        writer.write(String.format(
+                Locale.ROOT,
+                ",\"ph\":\"X\",\"pid\":1,\"tid\":%d,\"ts\":%.3f,\"dur\":%.3f,\"args\":{",
+                span.threadId,
+                (span.startNanos - origin) / 1e3,
+                Math.max(0, span.durationNanos) / 1e3));
+        boolean first = true;
+        for (int i = 0; i + 1 < span.args.length; i += 2) {
+            if (span.args[i + 1] != null) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writeString(span.args[i]);
+                writer.write(':');
+                writeString(span.args[i + 1]);
+                first = false;
+            }
+        }
+        writer.write("}}");
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+
+/**
+ * Compares a directory tree with an expected tree on the common fork-join pool: one task per directory, listing both
+ * trees concurrently, and one task per file whose content has to be compared. Files differing in size are changed
+ * without reading them; files with the same size and modification time are optionally equal. Symbolic links are not
+ * followed but compared by their targets. The digests of expected files are cached as long as their size and
+ * modification time do not change, so a golden tree compared by many tests is read once. Files modified within the
+ * timestamp granularity of the file system are not cached, as a second modification could go unnoticed.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class TreeDiff {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * The coarsest timestamp granularity of common file systems (FAT) in milliseconds.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000;
+
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * The digests of the most recently compared expected files, keyed by absolute path.
+     */
+    private static final Map<Path, Digest> EXPECTED_DIGESTS =
+            Collections.synchronizedMap(new LinkedHashMap<Path, Digest>(256, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, Digest> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private static final class Digest {
+        private final long size;
+
+        private final long lastModified;
+
+        private final String value;
+
+        Digest(BasicFileAttributes attributes, String value) {
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.value = value;
+        }
+
+        boolean isCurrent(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                    && lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    private final List<Pattern> ignores = new ArrayList<>();
+
+    private final boolean trustTimestamps;
+
+    private final SortedSet<String> missing = new ConcurrentSkipListSet<>();
+
+    private final SortedSet<String> extra = new ConcurrentSkipListSet<>();
+
+    private final SortedMap<String, String> changed = new ConcurrentSkipListMap<>();
+
+    TreeDiff(TreeMatchOptions options) {
+        for (String ignore : options.getIgnores()) {
+            ignores.add(FileGlobs.compile(FileGlobs.normalize(ignore)));
+        }
+        this.trustTimestamps = options.isTrustTimestamps();
+    }
+
+    /**
+     * Compares the trees.
+     *
+     * @param actualDir   The directory to check, must not be <code>null</code>.
+     * @param expectedDir The directory with the expected content, must not be <code>null</code>.
+     * @return A report of all differences or <code>null</code> if the trees match.
+     * @throws IOException If a directory or file could not be read.
+     */
+    String compare(Path actualDir, Path expectedDir) throws IOException {
+        for (Path dir : new Path[] {actualDir, expectedDir}) {
+            if (!Files.isDirectory(dir)) {
+                throw new NoSuchFileException(dir.toString(), null, "not a directory");
+            }
+        }
+        try {
+            ForkJoinPool.commonPool()
+                    .invoke(new DirectoryTask(
+                            actualDir.toAbsolutePath().normalize(),
+                            expectedDir.toAbsolutePath().normalize(),
+                            ""));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (missing.isEmpty() && extra.isEmpty() && changed.isEmpty()) {
+            return null;
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(missing.size())
+                .append(" missing, ")
+                .append(extra.size())
+                .append(" extra, ")
+                .append(changed.size())
+                .append(" changed");
+        for (String path : missing) {
+            report.append("\n  missing: ").append(path);
+        }
+        for (String path : extra) {
+            report.append("\n  extra:   ").append(path);
+        }
+        for (Map.Entry<String, String> entry : changed.entrySet()) {
+            report.append("\n  changed: ")
+                    .append(entry.getKey())
+                    .append(" (")
+                    .append(entry.getValue())
+                    .append(')');
+        }
+        return report.toString();
+    }
+
+    private boolean isIgnored(String relativePath, boolean directory) {
+        for (Pattern ignore : ignores) {
+            if (ignore.matcher(relativePath).matches()
+                    || (directory && ignore.matcher(relativePath + '/').matches())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void compareFile(Path actual, Path expected, String relativePath) throws IOException {
+        BasicFileAttributes actualAttributes = readAttributes(actual);
+        BasicFileAttributes expectedAttributes = readAttributes(expected);
+        if (actualAttributes.isSymbolicLink() || expectedAttributes.isSymbolicLink()) {
+            if (!actualAttributes.isSymbolicLink()) {
+                changed.put(relativePath, "file, expected symbolic link");
+            } else if (!expectedAttributes.isSymbolicLink()) {
+                changed.put(relativePath, "symbolic link, expected file");
+            } else {
+                Path actualTarget = Files.readSymbolicLink(actual);
+                Path expectedTarget = Files.readSymbolicLink(expected);
+                if (!actualTarget.equals(expectedTarget)) {
+                    changed.put(relativePath, "link to " + actualTarget + ", expected " + expectedTarget);
+                }
+            }
+            return;
+        }
+        if (actualAttributes.size() != expectedAttributes.size()) {
+            changed.put(relativePath, "size " + actualAttributes.size() + ", expected " + expectedAttributes.size());
+            return;
+        }
+        if (trustTimestamps && actualAttributes.lastModifiedTime().equals(expectedAttributes.lastModifiedTime())) {
+            return;
+        }
+
+        Path key = expected.normalize();
+        Digest expectedDigest = EXPECTED_DIGESTS.get(key);
+        if (expectedDigest == null || !expectedDigest.isCurrent(expectedAttributes)) {
+            expectedDigest = new Digest(expectedAttributes, ContentChecks.digest(expected.toFile(), ALGORITHM)[0]);
+            if (System.currentTimeMillis() - expectedDigest.lastModified > TIMESTAMP_GRANULARITY) {
+                EXPECTED_DIGESTS.put(key, expectedDigest);
+            }
+        }
+        if (!ContentChecks.digest(actual.toFile(), ALGORITHM)[0].equals(expectedDigest.value)) {
+            changed.put(relativePath, "content differs");
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    /**
+     * Lists a directory, mapping the names of the children to whether they are directories. Symbolic links to
+     * directories are no directories, so link cycles do not recurse.
+     */
+    private static Map<String, Boolean> list(Path dir) {
+        Map<String, Boolean> children = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                children.put(child.getFileName().toString(), Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return children;
+    }
+
+    private static class ListTask extends RecursiveTask<Map<String, Boolean>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path dir;
+
+        ListTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected Map<String, Boolean> compute() {
+            return list(dir);
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path actualDir;
+
+        private final transient Path expectedDir;
+
+        private final String relativeDir;
+
+        DirectoryTask(Path actualDir, Path expectedDir, String relativeDir) {
+            this.actualDir = actualDir;
+            this.expectedDir = expectedDir;
+            this.relativeDir = relativeDir;
+        }
+
+        @Override
+        protected void compute() {
+            ForkJoinTask<Map<String, Boolean>> expectedListing = new ListTask(expectedDir).fork();
+            Map<String, Boolean> actualChildren = list(actualDir);
+            Map<String, Boolean> expectedChildren = expectedListing.join();
+
+            List<ForkJoinTask<?>> subTasks = new ArrayList<>();
+            for (Map.Entry<String, Boolean> child : expectedChildren.entrySet()) {
+                String name = child.getKey();
+                boolean directory = child.getValue();
+                String relativePath = relativeDir + name;
+                if (isIgnored(relativePath, directory)) {
+                    continue;
+                }
+
+                Boolean actualDirectory = actualChildren.get(name);
+                if (actualDirectory == null) {
+                    missing.add(directory ? relativePath + '/' : relativePath);
+                } else if (actualDirectory != directory) {
+                    changed.put(relativePath, directory ? "file, expected directory" : "directory, expected file");
+                } else if (directory) {
+                    subTasks.add(
+                            new DirectoryTask(actualDir.resolve(name), expectedDir.resolve(name), relativePath + '/'));
+                } else {
+                    subTasks.add(new FileTask(actualDir.resolve(name), expectedDir.resolve(name), relativePath));
+                }
+            }
+            for (Map.Entry<String, Boolean> child : actualChildren.entrySet()) {
+                String relativePath = relativeDir + child.getKey();
+                if (!expectedChildren.containsKey(child.getKey()) && !isIgnored(relativePath, child.getValue())) {
+                    extra.add(child.getValue() ? relativePath + '/' : relativePath);
+                }
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    private class FileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path actual;
+
+        private final transient Path expected;
+
+        private final String relativePath;
+
+        FileTask(Path actual, Path expected, String relativePath) {
+            this.actual = actual;
+            this.expected = expected;
+            this.relativePath = relativePath;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                compareFile(actual, expected, relativePath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+
+/**
+ * Filters a directory tree on the common fork-join pool: one task per directory and per file to filter. Files not
+ * matching the include patterns are copied, or hard-linked if the system property
+ * {@code verifier.filterTree.hardLinks} is {@code true}, which is only safe as long as nobody writes to the output
+ * files. Symbolic links are copied as links. Outputs recorded as up to date by an earlier run in this JVM are skipped.
+ *
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+final class TreeFilter {
+
+    /**
+     * The state of a filtered file and its source after filtering, keyed by the absolute output path.
+     */
+    private static final Map<Path, Stamp> STAMPS = new ConcurrentHashMap<>();
+
+    private static final class Stamp {
+        private final String filterKey;
+
+        private final long srcModified;
+
+        private final long srcSize;
+
+        private final long dstModified;
+
+        private final long dstSize;
+
+        Stamp(String filterKey, BasicFileAttributes src, BasicFileAttributes dst) {
+            this.filterKey = filterKey;
+            this.srcModified = src.lastModifiedTime().toMillis();
+            this.srcSize = src.size();
+            this.dstModified = dst.lastModifiedTime().toMillis();
+            this.dstSize = dst.size();
+        }
+
+        boolean isSameAs(Stamp other) {
+            return filterKey.equals(other.filterKey)
+                    && srcModified == other.srcModified
+                    && srcSize == other.srcSize
+                    && dstModified == other.dstModified
+                    && dstSize == other.dstSize;
+        }
+    }
+
+    private final List<Pattern> includes;
+
+    private final Charset charset;
+
+    private final TokenFilter tokenFilter;
+
+    private final String filterKey;
+
+    private final boolean hardLinks = Boolean.getBoolean("verifier.filterTree.hardLinks");
+
+    TreeFilter(Collection<String> includes, Charset charset, Map<String, String> filterMap) {
+        if (includes != null) {
+            this.includes = new ArrayList<>();
+            for (String include : includes) {
+                this.includes.add(FileGlobs.compile(FileGlobs.normalize(include)));
+            }
+        } else {
+            this.includes = null;
+        }
+        this.charset = charset;
+        this.tokenFilter = new TokenFilter(filterMap);
+
+        Map<String, String> sortedMap = new TreeMap<>();
+        for (Map.Entry<String, String> entry : filterMap.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                sortedMap.put(entry.getKey(), entry.getValue());
+            }
+        }
+        this.filterKey = charset.name() + sortedMap;
+    }
+
+    /**
+     * Filters the source tree into the destination tree.
+     *
+     * @param srcDir The directory to filter, must not be <code>null</code>.
+     * @param dstDir The directory to write to, must not be <code>null</code>. May be the same as the source.
+     * @throws IOException If the tree could not be filtered.
+     */
+    void filter(Path srcDir, Path dstDir) throws IOException {
+        if (!Files.isDirectory(srcDir)) {
+            throw new NoSuchFileException(srcDir.toString(), null, "not a directory");
+        }
+        try {
+            Path srcRoot = srcDir.toAbsolutePath().normalize();
+            Path dstRoot = dstDir.toAbsolutePath().normalize();
+            ForkJoinPool.commonPool().invoke(new DirectoryTask(srcRoot, dstRoot, srcRoot, dstRoot));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isIncluded(String relativePath) {
+        if (includes == null) {
+            return true;
+        }
+        for (Pattern include : includes) {
+            if (include.matcher(relativePath).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void filterFile(Path src, Path dst) throws IOException {
+        Path key = dst.normalize();
+        Stamp stamp = STAMPS.get(key);
+        if (stamp != null && Files.exists(dst)) {
+            Stamp current = new Stamp(filterKey, readAttributes(src), readAttributes(dst));
+            if (stamp.isSameAs(current)) {
+                return;
+            }
+        }
+
+        tokenFilter.filter(src, dst, charset);
+
+        STAMPS.put(key, new Stamp(filterKey, readAttributes(src), readAttributes(dst)));
+    }
+
+    private void copyFile(Path src, Path dst) throws IOException {
+        if (src.equals(dst)) {
+            return;
+        }
+        BasicFileAttributes srcAttributes = readAttributes(src, LinkOption.NOFOLLOW_LINKS);
+        if (Files.exists(dst, LinkOption.NOFOLLOW_LINKS)) {
+            boolean linked = !srcAttributes.isSymbolicLink() && Files.isSameFile(src, dst);
+            if (linked && hardLinks) {
+                return;
+            }
+            BasicFileAttributes dstAttributes = readAttributes(dst, LinkOption.NOFOLLOW_LINKS);
+            if (!linked
+                    && srcAttributes.isSymbolicLink() == dstAttributes.isSymbolicLink()
+                    && srcAttributes.size() == dstAttributes.size()
+                    && srcAttributes.lastModifiedTime().equals(dstAttributes.lastModifiedTime())) {
+                // copy from an earlier run
+                return;
+            }
+            Files.delete(dst);
+        }
+
+        if (hardLinks && !srcAttributes.isSymbolicLink()) {
+            try {
+                Files.createLink(dst, src);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                // copy instead
+            }
+        }
+        Files.copy(src, dst, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    private static BasicFileAttributes readAttributes(Path path, LinkOption... options) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class, options);
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path srcDir;
+
+        private final transient Path dstDir;
+
+        private final transient Path srcRoot;
+
+        private final transient Path dstRoot;
+
+        DirectoryTask(Path srcDir, Path dstDir, Path srcRoot, Path dstRoot) {
+            this.srcDir = srcDir;
+            this.dstDir = dstDir;
+            this.srcRoot = srcRoot;
+            this.dstRoot = dstRoot;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> subTasks = new ArrayList<>();
+            try {
+                Files.createDirectories(dstDir);
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(srcDir)) {
+                    for (Path child : children) {
+                        Path target = dstDir.resolve(child.getFileName().toString());
+                        if (child.equals(dstRoot)) {
+                            // output directory nested in the input directory
+                            continue;
+                        } else if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                            subTasks.add(new DirectoryTask(child, target, srcRoot, dstRoot));
+                        } else if (!Files.isSymbolicLink(child)
+                                && isIncluded(FileGlobs.normalize(
+                                        srcRoot.relativize(child).toString()))) {
+                            subTasks.add(new FileTask(child, target));
+                        } else {
+                            copyFile(child, target);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    private class FileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path src;
+
+        private final transient Path dst;
+
+        FileTask(Path src, Path dst) {
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                filterFile(src, dst);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
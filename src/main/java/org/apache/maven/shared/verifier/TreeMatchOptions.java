@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Options of {@link Verifier#verifyTreeMatches(String, String, TreeMatchOptions)}.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class TreeMatchOptions {
+
+    private final List<String> ignores = new ArrayList<>();
+
+    private boolean trustTimestamps;
+
+    /**
+     * Adds a pattern of files to ignore in both trees, relative to their root directory. <code>*</code> matches within
+     * a file name and <code>**</code> any number of directories, e.g. <code>**&#47;*.log</code> or
+     * <code>target/**</code>. Ignored directories are not walked.
+     *
+     * @param pattern The pattern, must not be <code>null</code>.
+     * @return These options, never <code>null</code>.
+     */
+    public TreeMatchOptions addIgnore(String pattern) {
+        ignores.add(pattern);
+        return this;
+    }
+
+    public List<String> getIgnores() {
+        return Collections.unmodifiableList(ignores);
+    }
+
+    /**
+     * Sets whether files with the same size and modification time are considered equal without reading them, e.g.
+     * when the expected tree was copied from the actual one with its timestamps. Files written within the timestamp
+     * granularity of the file system are not told apart, so by default, the option is disabled.
+     *
+     * @param trustTimestamps indicate if option is enabled
+     * @return These options, never <code>null</code>.
+     */
+    public TreeMatchOptions setTrustTimestamps(boolean trustTimestamps) {
+        this.trustTimestamps = trustTimestamps;
+        return this;
+    }
+
+    public boolean isTrustTimestamps() {
+        return trustTimestamps;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+class UserModelReader extends DefaultHandler {
+    private String localRepository;
+
+    private StringBuilder currentBody = new StringBuilder();
+
+    public void parse(File file) throws VerificationException {
+        try {
+            SAXParserFactory saxFactory = SAXParserFactory.newInstance();
+
+            SAXParser parser = saxFactory.newSAXParser();
+
+            InputSource is = new InputSource(new FileInputStream(file));
+
+            parser.parse(is, this);
+        } catch (FileNotFoundException e) {
+            throw new VerificationException("file not found path : " + file.getAbsolutePath(), e);
+        } catch (IOException e) {
+            throw new VerificationException(" IOException path : " + file.getAbsolutePath(), e);
+        } catch (ParserConfigurationException e) {
+            throw new VerificationException(e);
+        } catch (SAXException e) {
+            throw new VerificationException("Parsing exception for file " + file.getAbsolutePath(), e);
+        }
+    }
+
+    public void warning(SAXParseException spe) {
+        // ignore warnings
+    }
+
+    public void error(SAXParseException spe) throws SAXException {
+        throw new SAXException(spe);
+    }
+
+    public void fatalError(SAXParseException spe) throws SAXException {
+        throw new SAXException(spe);
+    }
+
+    public String getLocalRepository() {
+        return localRepository;
+    }
+
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        currentBody.append(ch, start, length);
+    }
+
+    public void endElement(String uri, String localName, String rawName) throws SAXException {
+        if ("localRepository".equals(rawName)) {
+            if (notEmpty(currentBody.toString())) {
+                localRepository = currentBody.toString().trim();
+            } else {
+                throw new SAXException(
+                        "Invalid mavenProfile entry. Missing one or more " + "fields: {localRepository}.");
+            }
+        }
+
+        currentBody = new StringBuilder();
+    }
+
+    private boolean notEmpty(String test) {
+        return test != null && test.trim().length() > 0;
+    }
+
+    public void reset() {
+        currentBody = null;
+        localRepository = null;
+    }
+}
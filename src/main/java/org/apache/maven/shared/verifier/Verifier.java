@@ -37,25 +37,18 @@ package org.apache.maven.shared.verifier;
  * under the License.
  */
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -63,6 +56,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 
 import org.apache.maven.settings.building.DefaultSettingsBuilder;
@@ -73,10 +67,9 @@ import org.apache.maven.settings.building.SettingsBuildingRequest;
 import org.apache.maven.settings.building.SettingsBuildingResult;
 import org.apache.maven.shared.utils.StringUtils;
 import org.apache.maven.shared.utils.io.FileUtils;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
-import org.xml.sax.helpers.DefaultHandler;
+import org.apache.maven.shared.verifier.util.CleanupService;
+import org.apache.maven.shared.verifier.util.LocalRepositoryMaintenance;
+import org.apache.maven.shared.verifier.util.RepositoryServer;
 
 /**
  * Maven test harness for integration tests.
@@ -163,6 +156,16 @@ public class Verifier {
 
     private boolean autoclean = true;
 
+    private boolean asyncCleanup = Boolean.getBoolean("verifier.asyncCleanup");
+
+    /**
+     * Either "plugin" (add {@link #CLEAN_CLI_ARGUMENT} to the command line) or "fast" (delete the build directories
+     * of the reactor before launching Maven, see {@link ReactorOutputs}).
+     * Set through system property {@code verifier.autocleanStrategy}.
+     * Only relevant if {@link #autoclean} is {@code true}.
+     */
+    private String autocleanStrategy = System.getProperty("verifier.autocleanStrategy", "plugin");
+
     private String localRepoLayout = "default";
 
     /**
@@ -182,8 +185,9 @@ public class Verifier {
 
     /**
      * Either "auto" (use {@link ForkedLauncher} when {@link #environmentVariables} is not empty,
-     * otherwise use {@link Embedded3xLauncher}) , "embedder" (always use {@link Embedded3xLauncher})
-     * or something else (always use {@link ForkedLauncher}).
+     * otherwise use {@link Embedded3xLauncher}) , "embedder" (always use {@link Embedded3xLauncher}),
+     * "adaptive" (like "auto", but choose the launcher by the costs measured in the base directory, see
+     * {@link AdaptiveForkMode}) or something else (always use {@link ForkedLauncher}).
      * Set through system property {@code verifier.forkMode}.
      * Only relevant if {@link #forkJvm} is {@code null}.
      */
@@ -197,6 +201,26 @@ public class Verifier {
 
     private String settingsFile;
 
+    private final FileChecks fileChecks = new FileChecks();
+
+    private boolean changeJournal = Boolean.getBoolean("verifier.changeJournal");
+
+    private final ChangeJournal.Recorder journalRecorder = new ChangeJournal.Recorder();
+
+    private ExecutionResult executionResult;
+
+    private RepositoryServer repositoryServer;
+
+    private boolean parallel = Boolean.getBoolean("verifier.parallel");
+
+    private boolean flightRecording = Boolean.getBoolean("verifier.flightRecording");
+
+    private boolean mojoTimings = Boolean.getBoolean("verifier.mojoTimings");
+
+    private PerformanceBaseline performanceBaseline;
+
+    private final List<VerifierListener> listeners = new CopyOnWriteArrayList<>();
+
     public Verifier(String basedir) throws VerificationException {
         this.basedir = basedir;
 
@@ -365,14 +389,16 @@ public class Verifier {
     }
 
     public void verifyErrorFreeLog() throws VerificationException {
-        List<String> lines = loadFile(getLogFile(), false);
+        VerifierListeners.observe(VerifierEvent.Phase.VERIFY_LOG, this, listeners, "[ERROR]", () -> {
+            List<String> lines = loadFile(getLogFile(), false);
 
-        for (String line : lines) {
-            // A hack to keep stupid velocity resource loader errors from triggering failure
-            if (stripAnsi(line).contains("[ERROR]") && !isVelocityError(line)) {
-                throw new VerificationException("Error in execution: " + line);
+            for (String line : lines) {
+                // A hack to keep stupid velocity resource loader errors from triggering failure
+                if (stripAnsi(line).contains("[ERROR]") && !isVelocityError(line)) {
+                    throw new VerificationException("Error in execution: " + line);
+                }
             }
-        }
+        });
     }
 
     /**
@@ -393,18 +419,20 @@ public class Verifier {
      * @throws VerificationException if text is not found in log
      */
     public void verifyTextInLog(String text) throws VerificationException {
-        List<String> lines = loadFile(getLogFile(), false);
-
-        boolean result = false;
-        for (String line : lines) {
-            if (stripAnsi(line).contains(text)) {
-                result = true;
-                break;
+        VerifierListeners.observe(VerifierEvent.Phase.VERIFY_LOG, this, listeners, text, () -> {
+            List<String> lines = loadFile(getLogFile(), false);
+
+            boolean result = false;
+            for (String line : lines) {
+                if (stripAnsi(line).contains(text)) {
+                    result = true;
+                    break;
+                }
             }
-        }
-        if (!result) {
-            throw new VerificationException("Text not found in log: " + text);
-        }
+            if (!result) {
+                throw new VerificationException("Text not found in log: " + text);
+            }
+        });
     }
 
     public static String stripAnsi(String msg) {
@@ -474,7 +502,7 @@ public class Verifier {
                     line = line.trim();
 
                     if (!line.startsWith("#") && line.length() != 0) {
-                        lines.addAll(replaceArtifacts(line, hasCommand));
+                        lines.addAll(FileChecks.replaceArtifacts(line, hasCommand, this::getArtifactPath));
                     }
                     line = reader.readLine();
                 }
@@ -486,67 +514,12 @@ public class Verifier {
         return lines;
     }
 
-    private static final String MARKER = "${artifact:";
-
-    private List<String> replaceArtifacts(String line, boolean hasCommand) {
-        int index = line.indexOf(MARKER);
-        if (index >= 0) {
-            String newLine = line.substring(0, index);
-            index = line.indexOf("}", index);
-            if (index < 0) {
-                throw new IllegalArgumentException("line does not contain ending artifact marker: '" + line + "'");
-            }
-            String artifact = line.substring(newLine.length() + MARKER.length(), index);
-
-            newLine += getArtifactPath(artifact);
-            newLine += line.substring(index + 1);
-
-            List<String> l = new ArrayList<>();
-            l.add(newLine);
-
-            int endIndex = newLine.lastIndexOf('/');
-
-            String command = null;
-            String filespec;
-            if (hasCommand) {
-                int startIndex = newLine.indexOf(' ');
-
-                command = newLine.substring(0, startIndex);
-
-                filespec = newLine.substring(startIndex + 1, endIndex);
-            } else {
-                filespec = newLine;
-            }
-
-            File dir = new File(filespec);
-            addMetadataToList(dir, hasCommand, l, command);
-            addMetadataToList(dir.getParentFile(), hasCommand, l, command);
-
-            return l;
-        } else {
-            return Collections.singletonList(line);
-        }
-    }
-
-    private static void addMetadataToList(File dir, boolean hasCommand, List<String> l, String command) {
-        if (dir.exists() && dir.isDirectory()) {
-            String[] files = dir.list(new FilenameFilter() {
-                public boolean accept(File dir, String name) {
-                    return name.startsWith("maven-metadata") && name.endsWith(".xml");
-                }
-            });
-
-            for (String file : files) {
-                if (hasCommand) {
-                    l.add(command + " " + new File(dir, file).getPath());
-                } else {
-                    l.add(new File(dir, file).getPath());
-                }
-            }
-        }
+    private String getArtifactPath(String artifact) {
+        String[] a = parseArtifact(artifact);
+        return getArtifactPath(a[0], a[1], a[2], a[3]);
     }
 
-    private String getArtifactPath(String artifact) {
+    private static String[] parseArtifact(String artifact) {
         StringTokenizer tok = new StringTokenizer(artifact, ":");
         if (tok.countTokens() != 4) {
             throw new IllegalArgumentException("Artifact must have 4 tokens: '" + artifact + "'");
@@ -556,12 +529,7 @@ public class Verifier {
         for (int i = 0; i < 4; i++) {
             a[i] = tok.nextToken();
         }
-
-        String groupId = a[0];
-        String artifactId = a[1];
-        String version = a[2];
-        String ext = a[3];
-        return getArtifactPath(groupId, artifactId, version, ext);
+        return a;
     }
 
     public String getArtifactPath(String groupId, String artifactId, String version, String ext) {
@@ -618,8 +586,8 @@ public class Verifier {
         String artifactPath = getArtifactPath(org, name, version, ext);
         File dir = new File(artifactPath);
         files.add(artifactPath);
-        addMetadataToList(dir, false, files, null);
-        addMetadataToList(dir.getParentFile(), false, files, null);
+        FileChecks.addMetadataToList(dir, false, files, null);
+        FileChecks.addMetadataToList(dir.getParentFile(), false, files, null);
         return files;
     }
 
@@ -708,10 +676,13 @@ public class Verifier {
     }
 
     public void deleteArtifact(String org, String name, String version, String ext) throws IOException {
-        List<String> files = getArtifactFileNameList(org, name, version, ext);
-        for (String fileName : files) {
-            FileUtils.forceDelete(new File(fileName));
-        }
+        fileChecks.invalidate();
+        String coordinates = org + ':' + name + ':' + version + ':' + ext;
+        VerifierListeners.observe(VerifierEvent.Phase.DELETE_ARTIFACTS, this, listeners, coordinates, () -> {
+            for (String fileName : getArtifactFileNameList(org, name, version, ext)) {
+                FileUtils.forceDelete(new File(fileName));
+            }
+        });
     }
 
     /**
@@ -722,6 +693,7 @@ public class Verifier {
      * @since 1.2
      */
     public void deleteArtifacts(String gid) throws IOException {
+        fileChecks.invalidate();
         String path;
         if ("default".equals(localRepoLayout)) {
             path = gid.replace('.', '/');
@@ -731,7 +703,9 @@ public class Verifier {
             throw new IllegalStateException("Unsupported repository layout: " + localRepoLayout);
         }
 
-        FileUtils.deleteDirectory(new File(localRepo, path));
+        File directory = new File(localRepo, path);
+        VerifierListeners.observe(
+                VerifierEvent.Phase.DELETE_ARTIFACTS, this, listeners, gid, () -> deleteTree(directory));
     }
 
     /**
@@ -744,6 +718,7 @@ public class Verifier {
      * @since 1.3
      */
     public void deleteArtifacts(String gid, String aid, String version) throws IOException {
+        fileChecks.invalidate();
         String path;
         if ("default".equals(localRepoLayout)) {
             path = gid.replace('.', '/') + '/' + aid + '/' + version;
@@ -751,7 +726,10 @@ public class Verifier {
             throw new IllegalStateException("Unsupported repository layout: " + localRepoLayout);
         }
 
-        FileUtils.deleteDirectory(new File(localRepo, path));
+        File directory = new File(localRepo, path);
+        String coordinates = gid + ':' + aid + ':' + version;
+        VerifierListeners.observe(
+                VerifierEvent.Phase.DELETE_ARTIFACTS, this, listeners, coordinates, () -> deleteTree(directory));
     }
 
     /**
@@ -762,7 +740,16 @@ public class Verifier {
      * @since 1.2
      */
     public void deleteDirectory(String path) throws IOException {
-        FileUtils.deleteDirectory(new File(getBasedir(), path));
+        fileChecks.invalidate();
+        deleteTree(new File(getBasedir(), path));
+    }
+
+    private void deleteTree(File directory) throws IOException {
+        if (asyncCleanup) {
+            CleanupService.getInstance().delete(directory);
+        } else {
+            FileUtils.deleteDirectory(directory);
+        }
     }
 
     /**
@@ -774,6 +761,7 @@ public class Verifier {
      * @since 1.2
      */
     public void writeFile(String path, String contents) throws IOException {
+        fileChecks.invalidate();
         FileUtils.fileWrite(new File(getBasedir(), path).getAbsolutePath(), "UTF-8", contents);
     }
 
@@ -815,21 +803,82 @@ public class Verifier {
      */
     public File filterFile(String srcPath, String dstPath, String fileEncoding, Map<String, String> filterMap)
             throws IOException {
+        fileChecks.invalidate();
         File srcFile = new File(getBasedir(), srcPath);
-        String data = FileUtils.fileRead(srcFile, fileEncoding);
-
-        for (Map.Entry<String, String> entry : filterMap.entrySet()) {
-            data = StringUtils.replace(data, entry.getKey(), entry.getValue());
-        }
-
         File dstFile = new File(getBasedir(), dstPath);
         //noinspection ResultOfMethodCallIgnored
         dstFile.getParentFile().mkdirs();
-        FileUtils.fileWrite(dstFile.getPath(), fileEncoding, data);
+
+        TokenFilter filter = new TokenFilter(filterMap);
+        Charset charset = toCharset(fileEncoding);
+        VerifierListeners.observe(VerifierEvent.Phase.FILTER_FILE, this, listeners, srcPath, () -> {
+            filter.filter(srcFile.toPath(), dstFile.toPath(), charset);
+        });
 
         return dstFile;
     }
 
+    /**
+     * Filters a directory tree by replacing some user-defined tokens, like
+     * {@link #filterTree(String, String, Collection, String, Map)} with {@link #newDefaultFilterMap()}.
+     *
+     * @param srcDir       The path to the input directory, relative to the base directory, must not be
+     *                     <code>null</code>.
+     * @param dstDir       The path to the output directory, relative to the base directory and possibly equal to the
+     *                     input directory, must not be <code>null</code>.
+     * @param includes     The patterns of the files to filter, relative to the input directory, may be
+     *                     <code>null</code> to filter all files.
+     * @param fileEncoding The file encoding to use, may be <code>null</code> or empty to use the platform's default
+     *                     encoding.
+     * @return The path to the output directory, never <code>null</code>.
+     * @throws IOException If the directory tree could not be filtered.
+     * @since 2.0.0-M2
+     */
+    public File filterTree(String srcDir, String dstDir, Collection<String> includes, String fileEncoding)
+            throws IOException {
+        return filterTree(srcDir, dstDir, includes, fileEncoding, newDefaultFilterMap());
+    }
+
+    /**
+     * Filters a directory tree by replacing some user-defined tokens. The files matching the include patterns (where
+     * <code>*</code> matches within a file name and <code>**</code> any number of directories) are filtered in
+     * parallel, all other files are copied into the output directory, or hard-linked if the system property
+     * {@code verifier.filterTree.hardLinks} is {@code true}. Note that modifying a linked file in place also modifies
+     * the input file. Files whose output is up to date from a previous call in the same JVM are skipped.
+     *
+     * @param srcDir       The path to the input directory, relative to the base directory, must not be
+     *                     <code>null</code>.
+     * @param dstDir       The path to the output directory, relative to the base directory and possibly equal to the
+     *                     input directory, must not be <code>null</code>.
+     * @param includes     The patterns of the files to filter, relative to the input directory, may be
+     *                     <code>null</code> to filter all files.
+     * @param fileEncoding The file encoding to use, may be <code>null</code> or empty to use the platform's default
+     *                     encoding.
+     * @param filterMap    The mapping from tokens to replacement values, must not be <code>null</code>.
+     * @return The path to the output directory, never <code>null</code>.
+     * @throws IOException If the directory tree could not be filtered.
+     * @since 2.0.0-M2
+     */
+    public File filterTree(
+            String srcDir,
+            String dstDir,
+            Collection<String> includes,
+            String fileEncoding,
+            Map<String, String> filterMap)
+            throws IOException {
+        fileChecks.invalidate();
+        File srcFile = new File(getBasedir(), srcDir);
+        File dstFile = new File(getBasedir(), dstDir);
+
+        new TreeFilter(includes, toCharset(fileEncoding), filterMap).filter(srcFile.toPath(), dstFile.toPath());
+
+        return dstFile;
+    }
+
+    private static Charset toCharset(String encoding) {
+        return (encoding != null && !encoding.isEmpty()) ? Charset.forName(encoding) : Charset.defaultCharset();
+    }
+
     /**
      * There are 226 references to this method in Maven core ITs. In most (all?) cases it is used together with
      * {@link #newDefaultFilterProperties()}. Need to remove both methods and update all clients eventually/
@@ -915,6 +964,83 @@ public class Verifier {
         }
     }
 
+    /**
+     * Verifies the digest of the given file, e.g. its <code>SHA-256</code> or <code>SHA-1</code> hash. The file is
+     * streamed, so its size is not limited by the available memory.
+     *
+     * @param file the path of the file to check, relative to the base directory or absolute
+     * @param algorithm the digest algorithm, a name supported by {@link java.security.MessageDigest}
+     * @param digest the expected digest in hexadecimal notation
+     * @throws VerificationException if the file could not be read or its digest differs
+     * @since 2.0.0-M2
+     */
+    public void verifyFileDigest(String file, String algorithm, String digest) throws VerificationException {
+        File actual = resolveFile(file);
+        try {
+            String actualDigest = ContentChecks.digest(actual, algorithm)[0];
+            if (!actualDigest.equalsIgnoreCase(digest)) {
+                throw new VerificationException(
+                        algorithm + " digest of " + actual + " is " + actualDigest + ", expected " + digest);
+            }
+        } catch (IOException e) {
+            throw new VerificationException("Could not read from " + actual, e);
+        }
+    }
+
+    /**
+     * Verifies that the given file has the same content as another file. The files are compared in chunks, stopping
+     * at the first difference.
+     *
+     * @param file the path of the file to check, relative to the base directory or absolute
+     * @param expectedFile the path of the file with the expected content, relative to the base directory or absolute
+     * @throws VerificationException if a file could not be read or the content differs
+     * @since 2.0.0-M2
+     */
+    public void verifyFileContentEquals(String file, String expectedFile) throws VerificationException {
+        File actual = resolveFile(file);
+        try {
+            String difference = ContentChecks.compare(actual, resolveFile(expectedFile));
+            if (difference != null) {
+                throw new VerificationException(
+                        "Content of " + actual + " does not equal " + expectedFile + ": " + difference);
+            }
+        } catch (IOException e) {
+            throw new VerificationException("Could not compare " + actual + " with " + expectedFile, e);
+        }
+    }
+
+    /**
+     * Verifies that a directory tree matches an expected tree, e.g. a golden copy of the build output. Both trees are
+     * walked in parallel, files of equal size are compared by content and all missing, extra and changed files are
+     * reported together.
+     *
+     * @param actualDir the path of the directory to check, relative to the base directory or absolute
+     * @param expectedDir the path of the directory with the expected content, relative to the base directory or
+     *                    absolute
+     * @param options the ignored files and comparison options, may be <code>null</code> to use the defaults
+     * @throws VerificationException if a directory could not be read or the trees differ
+     * @since 2.0.0-M2
+     */
+    public void verifyTreeMatches(String actualDir, String expectedDir, TreeMatchOptions options)
+            throws VerificationException {
+        File actual = resolveFile(actualDir);
+        String report;
+        try {
+            report = new TreeDiff(options != null ? options : new TreeMatchOptions())
+                    .compare(actual.toPath(), resolveFile(expectedDir).toPath());
+        } catch (IOException e) {
+            throw new VerificationException("Could not compare " + actual + " with " + expectedDir, e);
+        }
+        if (report != null) {
+            throw new VerificationException(actual + " does not match " + expectedDir + ": " + report);
+        }
+    }
+
+    private File resolveFile(String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(getBasedir(), path);
+    }
+
     /**
      * Verifies that the given file does not exist.
      *
@@ -927,9 +1053,84 @@ public class Verifier {
 
     private void verifyArtifactPresence(boolean wanted, String groupId, String artifactId, String version, String ext)
             throws VerificationException {
+        String problem = checkArtifactPresence(wanted, groupId, artifactId, version, ext);
+        if (problem != null) {
+            throw new VerificationException(problem);
+        }
+    }
+
+    /**
+     * Checks the presence of the files of an artifact without throwing.
+     *
+     * @return The first problem found or <code>null</code> if the artifact is present respectively absent.
+     */
+    private String checkArtifactPresence(
+            boolean wanted, String groupId, String artifactId, String version, String ext) {
         List<String> files = getArtifactFileNameList(groupId, artifactId, version, ext);
-        for (String fileName : files) {
-            verifyFilePresence(fileName, wanted);
+        return fileChecks.checkPresence(files, wanted, new File(getBasedir()), new File(localRepo));
+    }
+
+    private void verifyArtifactsPresence(boolean wanted, Collection<String> artifacts) throws VerificationException {
+        List<String> problems = new ArrayList<>();
+        for (String artifact : artifacts) {
+            String[] a = parseArtifact(artifact);
+            String problem = checkArtifactPresence(wanted, a[0], a[1], a[2], a[3]);
+            if (problem != null) {
+                problems.add(problem);
+            }
+        }
+        FileChecks.report(problems, artifacts.size());
+    }
+
+    /**
+     * Verifies that all the given artifacts exist. The local repository is listed at most once per directory and all
+     * missing artifacts are reported together.
+     *
+     * @param artifacts the coordinates of the artifacts in the form
+     *                  <code>groupId:artifactId:version:extension</code> (must not be null)
+     * @throws VerificationException if any of the given artifacts does not exist
+     * @since 2.0.0-M2
+     */
+    public void verifyArtifactsPresent(Collection<String> artifacts) throws VerificationException {
+        verifyArtifactsPresence(true, artifacts);
+    }
+
+    /**
+     * Verifies that none of the given artifacts exists. The local repository is listed at most once per directory and
+     * all present artifacts are reported together.
+     *
+     * @param artifacts the coordinates of the artifacts in the form
+     *                  <code>groupId:artifactId:version:extension</code> (must not be null)
+     * @throws VerificationException if any of the given artifacts exists
+     * @since 2.0.0-M2
+     */
+    public void verifyArtifactsNotPresent(Collection<String> artifacts) throws VerificationException {
+        verifyArtifactsPresence(false, artifacts);
+    }
+
+    /**
+     * Verifies the given artifacts against their <code>.sha1</code> and <code>.md5</code> checksum files, at least one
+     * of which must exist. The artifacts are checked in parallel and all problems are reported together.
+     *
+     * @param artifacts the coordinates of the artifacts in the form
+     *                  <code>groupId:artifactId:version:extension</code> (must not be null)
+     * @throws VerificationException if any artifact or all its checksum files are missing or a checksum differs
+     * @since 2.0.0-M2
+     */
+    public void verifyArtifactChecksums(Collection<String> artifacts) throws VerificationException {
+        List<File> files = new ArrayList<>();
+        for (String artifact : artifacts) {
+            files.add(new File(getArtifactPath(artifact)));
+        }
+
+        List<String> problems;
+        try {
+            problems = ContentChecks.checkSidecars(files);
+        } catch (IOException e) {
+            throw new VerificationException("Could not verify checksums", e);
+        }
+        if (!problems.isEmpty()) {
+            throw new VerificationException("Checksum verification failed:\n  " + String.join("\n  ", problems));
         }
     }
 
@@ -972,90 +1173,61 @@ public class Verifier {
     }
 
     private void verifyFilePresence(String filePath, boolean wanted) throws VerificationException {
-        if (filePath.contains("!/")) {
-            Path basedir = Paths.get(getBasedir()).toAbsolutePath();
-            String urlString = "jar:" + basedir.toUri().toASCIIString() + "/" + filePath;
-
-            InputStream is = null;
-            try {
-                URL url = new URL(urlString);
-
-                is = url.openStream();
-
-                if (is == null) {
-                    if (wanted) {
-                        throw new VerificationException("Expected JAR resource was not found: " + filePath);
-                    }
-                } else {
-                    if (!wanted) {
-                        throw new VerificationException("Unwanted JAR resource was found: " + filePath);
-                    }
-                }
-            } catch (MalformedURLException e) {
-                throw new VerificationException("Error looking for JAR resource", e);
-            } catch (IOException e) {
-                if (wanted) {
-                    throw new VerificationException("Error looking for JAR resource: " + filePath);
-                }
-            } finally {
-                if (is != null) {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        // ignore
-                    }
-                }
-            }
-        } else {
-            File expectedFile = new File(filePath);
-
-            // NOTE: On Windows, a path with a leading (back-)slash is relative to the current drive
-            if (!expectedFile.isAbsolute() && !expectedFile.getPath().startsWith(File.separator)) {
-                expectedFile = new File(getBasedir(), filePath);
-            }
-
-            if (filePath.indexOf('*') > -1) {
-                File parent = expectedFile.getParentFile();
-
-                if (!parent.exists()) {
-                    if (wanted) {
-                        throw new VerificationException(
-                                "Expected file pattern was not found: " + expectedFile.getPath());
-                    }
-                } else {
-                    String shortNamePattern = expectedFile.getName().replaceAll("\\*", ".*");
+        fileChecks.verifyPresence(filePath, wanted, new File(getBasedir()), new File(localRepo));
+    }
 
-                    String[] candidates = parent.list();
+    /**
+     * Verifies the presence of many entries of an archive at once. The central directory of the archive is read only
+     * once per execution and all missing or unwanted entries are reported together.
+     *
+     * @param archive The path to the JAR/ZIP archive, relative to the base directory or absolute, must not be
+     *                <code>null</code>.
+     * @param entries The names of the entries to check, must not be <code>null</code>. Names prefixed with
+     *                <code>!</code> denote unwanted entries. Names may contain wildcards.
+     * @throws VerificationException If the archive could not be read or any expected entry is missing or any unwanted
+     *                               entry is present.
+     * @since 2.0.0-M2
+     */
+    public void verifyArchiveEntries(String archive, Collection<String> entries) throws VerificationException {
+        ArchiveIndex index;
+        try {
+            index = fileChecks.getArchiveIndex(archive, new File(getBasedir()));
+        } catch (IOException e) {
+            throw new VerificationException("Error reading archive: " + archive, e);
+        }
 
-                    boolean found = false;
+        String mismatches = index.describeMismatches(entries);
+        if (mismatches != null) {
+            throw new VerificationException("Unexpected content of archive " + archive + ":" + mismatches);
+        }
+    }
 
-                    if (candidates != null) {
-                        for (String candidate : candidates) {
-                            if (candidate.matches(shortNamePattern)) {
-                                found = true;
-                                break;
-                            }
-                        }
-                    }
+    /**
+     * Takes a snapshot of the files below the specified directories with a single parallel walk. Until the next
+     * execution or modification of files through this verifier, the checks of {@link #verify(boolean)},
+     * {@link #verifyFilePresent(String)}, {@link #verifyFileNotPresent(String)} and the artifact presence checks are
+     * answered from the snapshot for all files within the directories. Files outside of them are still checked on the
+     * file system.
+     *
+     * @param paths The directories to take a snapshot of, relative to the base directory or absolute. If none are
+     *              given, the base directory is used.
+     * @throws VerificationException If a directory could not be read.
+     * @since 2.0.0-M2
+     */
+    public void captureFileManifest(String... paths) throws VerificationException {
+        List<File> directories = new ArrayList<>();
+        if (paths.length == 0) {
+            directories.add(new File(getBasedir()));
+        }
+        for (String path : paths) {
+            File directory = new File(path);
+            directories.add(directory.isAbsolute() ? directory : new File(getBasedir(), path));
+        }
 
-                    if (!found && wanted) {
-                        throw new VerificationException(
-                                "Expected file pattern was not found: " + expectedFile.getPath());
-                    } else if (found && !wanted) {
-                        throw new VerificationException("Unwanted file pattern was found: " + expectedFile.getPath());
-                    }
-                }
-            } else {
-                if (!expectedFile.exists()) {
-                    if (wanted) {
-                        throw new VerificationException("Expected file was not found: " + expectedFile.getPath());
-                    }
-                } else {
-                    if (!wanted) {
-                        throw new VerificationException("Unwanted file was found: " + expectedFile.getPath());
-                    }
-                }
-            }
+        try {
+            fileChecks.setFileManifest(FileManifest.scan(directories));
+        } catch (IOException e) {
+            throw new VerificationException("Failed to capture file manifest", e);
         }
     }
 
@@ -1148,6 +1320,44 @@ public class Verifier {
      * Execute Maven.
      */
     public void execute() throws VerificationException {
+        VerifierEvent event =
+                VerifierListeners.started(VerifierEvent.Phase.EXECUTE, this, listeners, getBasedir(), null);
+        try {
+            launch(event);
+        } catch (Throwable e) {
+            VerifierListeners.ended(event, listeners, getForkModeOfResult(), e);
+            throw e;
+        }
+        VerifierListeners.ended(event, listeners, getForkModeOfResult(), null);
+    }
+
+    private String getForkModeOfResult() {
+        return executionResult == null ? null : executionResult.isForked() ? "forked" : "embedded";
+    }
+
+    private void launch(VerifierEvent event) throws VerificationException {
+        // no eviction from the local repository while the build is running and its changes are recorded
+        LocalRepositoryMaintenance maintenance = LocalRepositoryMaintenance.forRepository(new File(localRepo));
+        try {
+            maintenance.beginExecution();
+        } catch (IOException e) {
+            throw new VerificationException("Failed to lock the local repository " + localRepo, e);
+        }
+        try {
+            launchBuild(event);
+        } finally {
+            maintenance.endExecution();
+        }
+    }
+
+    private void launchBuild(VerifierEvent event) throws VerificationException {
+        if (changeJournal) {
+            File repository = new File(localRepo);
+            journalRecorder.begin(
+                    repository.isAbsolute() ? repository : new File(getBasedir(), localRepo), new File(getBasedir()));
+        }
+        fileChecks.invalidate();
+        executionResult = null;
 
         List<String> args = new ArrayList<>();
 
@@ -1169,26 +1379,65 @@ public class Verifier {
             args.add("-Dmaven.repo.local=" + localRepo);
         }
 
-        if (autoclean) {
+        if (autoclean
+                && !("fast".equalsIgnoreCase(autocleanStrategy)
+                        && ReactorOutputs.deleteBuildDirectories(new File(getBasedir()), localRepo, cliArguments))) {
             args.add(CLEAN_CLI_ARGUMENT);
         }
 
+        if (RepositoryPrimer.isPrimed(new File(getBasedir()), localRepo)) {
+            args.add("-o");
+        }
+
         for (String cliArgument : cliArguments) {
             args.add(cliArgument.replace("${basedir}", getBasedir()));
         }
 
+        if (repositoryServer != null) {
+            try {
+                repositoryServer.addMirrorSettings(args, getBasedir());
+            } catch (IOException e) {
+                throw new VerificationException("Failed to write settings for repository server", e);
+            }
+        }
+
         int ret;
         File logFile = getLogFile();
 
+        ExecutionMetrics metrics = new ExecutionMetrics(this, listeners, event);
+        if (flightRecording) {
+            metrics.setFlightRecording(new FlightRecording(FlightRecording.forLogFile(logFile)));
+        }
+        boolean launched = false;
         try {
             MavenLauncher launcher = getMavenLauncher(environmentVariables);
+            metrics.launcherAcquired(launcher instanceof ForkedLauncher);
+            if (parallel) {
+                NamedLocks.addArguments(args, systemProperties);
+            }
+            if (mojoTimings) {
+                metrics.setMojoTimingsFile(MojoTimings.addArguments(args, systemProperties, logFile));
+            }
 
             String[] cliArgs = args.toArray(new String[0]);
-            ret = launcher.run(cliArgs, systemProperties, getBasedir(), logFile);
+            ret = launcher.run(cliArgs, systemProperties, getBasedir(), logFile, metrics);
+            launched = true;
         } catch (LauncherException e) {
             throw new VerificationException("Failed to execute Maven", e);
         } catch (IOException e) {
             throw new VerificationException(e);
+        } finally {
+            metrics.finish(!launched);
+        }
+
+        ChangeJournal journal = changeJournal ? journalRecorder.end() : null;
+        if (journal != null) {
+            // the snapshot answers presence checks until the next modification
+            fileChecks.setFileManifest(journalRecorder.getSnapshot());
+        }
+        executionResult = new ExecutionResult(ret, journal, metrics);
+        if (ret == 0 && forkJvm == null && !useWrapper && AdaptiveForkMode.MODE.equalsIgnoreCase(forkMode)) {
+            AdaptiveForkMode.record(getBasedir(), executionResult);
         }
 
         if (ret > 0) {
@@ -1198,13 +1447,28 @@ public class Verifier {
         }
     }
 
+    /**
+     * Gets the outcome of the last execution.
+     *
+     * @return The result of the last execution or <code>null</code> if Maven was not executed yet or could not be
+     *         launched.
+     * @since 2.0.0-M2
+     */
+    public ExecutionResult getExecutionResult() {
+        return executionResult;
+    }
+
     protected MavenLauncher getMavenLauncher(Map<String, String> envVars) throws LauncherException {
         boolean fork;
         if (useWrapper) {
             fork = true;
         } else if (forkJvm != null) {
             fork = forkJvm;
-        } else if ((envVars.isEmpty() && "auto".equalsIgnoreCase(forkMode)) || "embedded".equalsIgnoreCase(forkMode)) {
+        } else if ((envVars.isEmpty() && "auto".equalsIgnoreCase(forkMode))
+                || (envVars.isEmpty()
+                        && AdaptiveForkMode.MODE.equalsIgnoreCase(forkMode)
+                        && !AdaptiveForkMode.isFork(getBasedir()))
+                || "embedded".equalsIgnoreCase(forkMode)) {
             fork = false;
 
             try {
@@ -1237,25 +1501,9 @@ public class Verifier {
                 String defaultClasspath = System.getProperty("maven.bootclasspath");
                 String defaultClassworldConf = System.getProperty("classworlds.conf");
                 embeddedLauncher = Embedded3xLauncher.createFromMavenHome(
-                        mavenHome, defaultClassworldConf, parseClasspath(defaultClasspath));
-            }
-        }
-    }
-
-    private static List<URL> parseClasspath(String classpath) throws LauncherException {
-        if (classpath == null) {
-            return null;
-        }
-        ArrayList<URL> classpathUrls = new ArrayList<>();
-        StringTokenizer st = new StringTokenizer(classpath, File.pathSeparator);
-        while (st.hasMoreTokens()) {
-            try {
-                classpathUrls.add(new File(st.nextToken()).toURI().toURL());
-            } catch (MalformedURLException e) {
-                throw new LauncherException("Invalid launcher classpath " + classpath, e);
+                        mavenHome, defaultClassworldConf, Embedded3xLauncher.parseClasspath(defaultClasspath));
             }
         }
-        return classpathUrls;
     }
 
     public String getMavenVersion() throws VerificationException {
@@ -1306,7 +1554,8 @@ public class Verifier {
     }
 
     /**
-     * Verifies that the artifact given by its Maven coordinates exists and contains the given content.
+     * Verifies that the artifact given by its Maven coordinates exists and contains the given content. The artifact
+     * is compared with the content encoded in the platform encoding, stopping at the first difference.
      *
      * @param groupId the groupId of the artifact (must not be null)
      * @param artifactId the artifactId of the artifact (must not be null)
@@ -1319,79 +1568,11 @@ public class Verifier {
     public void verifyArtifactContent(String groupId, String artifactId, String version, String ext, String content)
             throws IOException, VerificationException {
         String fileName = getArtifactPath(groupId, artifactId, version, ext);
-        if (!content.equals(FileUtils.fileRead(fileName))) {
+        if (ContentChecks.compare(new File(fileName), content.getBytes(Charset.defaultCharset())) != null) {
             throw new VerificationException("Content of " + fileName + " does not equal " + content);
         }
     }
 
-    static class UserModelReader extends DefaultHandler {
-        private String localRepository;
-
-        private StringBuilder currentBody = new StringBuilder();
-
-        public void parse(File file) throws VerificationException {
-            try {
-                SAXParserFactory saxFactory = SAXParserFactory.newInstance();
-
-                SAXParser parser = saxFactory.newSAXParser();
-
-                InputSource is = new InputSource(new FileInputStream(file));
-
-                parser.parse(is, this);
-            } catch (FileNotFoundException e) {
-                throw new VerificationException("file not found path : " + file.getAbsolutePath(), e);
-            } catch (IOException e) {
-                throw new VerificationException(" IOException path : " + file.getAbsolutePath(), e);
-            } catch (ParserConfigurationException e) {
-                throw new VerificationException(e);
-            } catch (SAXException e) {
-                throw new VerificationException("Parsing exception for file " + file.getAbsolutePath(), e);
-            }
-        }
-
-        public void warning(SAXParseException spe) {
-            // ignore warnings
-        }
-
-        public void error(SAXParseException spe) throws SAXException {
-            throw new SAXException(spe);
-        }
-
-        public void fatalError(SAXParseException spe) throws SAXException {
-            throw new SAXException(spe);
-        }
-
-        public String getLocalRepository() {
-            return localRepository;
-        }
-
-        public void characters(char[] ch, int start, int length) throws SAXException {
-            currentBody.append(ch, start, length);
-        }
-
-        public void endElement(String uri, String localName, String rawName) throws SAXException {
-            if ("localRepository".equals(rawName)) {
-                if (notEmpty(currentBody.toString())) {
-                    localRepository = currentBody.toString().trim();
-                } else {
-                    throw new SAXException(
-                            "Invalid mavenProfile entry. Missing one or more " + "fields: {localRepository}.");
-                }
-            }
-
-            currentBody = new StringBuilder();
-        }
-
-        private boolean notEmpty(String test) {
-            return test != null && test.trim().length() > 0;
-        }
-
-        public void reset() {
-            currentBody = null;
-            localRepository = null;
-        }
-    }
-
     /**
      * @deprecated will be removed without replacement,
      * for arguments adding please use {@link #addCliArgument(String)}, {@link #addCliArguments(String...)}
@@ -1498,6 +1679,186 @@ public class Verifier {
         this.autoclean = autoclean;
     }
 
+    public String getAutocleanStrategy() {
+        return autocleanStrategy;
+    }
+
+    /**
+     * Sets how the project is cleaned if {@link #setAutoclean(boolean) autoclean} is enabled. The following values are
+     * supported:
+     * <ul>
+     * <li><code>plugin</code> adds {@link #CLEAN_CLI_ARGUMENT} to the command line</li>
+     * <li><code>fast</code> deletes the build directories of the reactor in the background before launching Maven,
+     * falling back to <code>plugin</code> if the build directories cannot be determined without building the
+     * project models. Only the build directories are deleted, additional file sets configured for the clean plugin
+     * are not.</li>
+     * </ul>
+     * <p>
+     * By default, the value of the system property {@code verifier.autocleanStrategy} or <code>plugin</code> is used.
+     *
+     * @param autocleanStrategy the strategy, must not be <code>null</code>
+     * @since 2.0.0-M2
+     */
+    public void setAutocleanStrategy(String autocleanStrategy) {
+        this.autocleanStrategy = autocleanStrategy;
+    }
+
+    public boolean isChangeJournal() {
+        return changeJournal;
+    }
+
+    /**
+     * Record the files created, modified or deleted in the local repository and the base directory by each execution,
+     * see {@link ExecutionResult#changedArtifacts()}. Both trees are walked after every execution and before the first
+     * one, see {@link ChangeJournal} for how later executions use the previous walk. The walk after an execution also
+     * answers presence checks like {@link #captureFileManifest(String...)}.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.changeJournal} is {@code true}.
+     *
+     * @param changeJournal indicate if option is enabled
+     * @since 2.0.0-M2
+     */
+    public void setChangeJournal(boolean changeJournal) {
+        this.changeJournal = changeJournal;
+    }
+
+    /**
+     * Resolve all artifacts from the specified server: each execution uses a copy of the user settings, given with
+     * <code>-s</code> or the default ones, which declares the server as the only mirror.
+     *
+     * @param repositoryServer the server to use, may be <code>null</code> to use the configured repositories
+     * @since 2.0.0-M2
+     */
+    public void setRepositoryServer(RepositoryServer repositoryServer) {
+        this.repositoryServer = repositoryServer;
+    }
+
+    /**
+     * Allow executions running concurrently with other verifiers to share the local repository: each execution
+     * configures the named locks of Maven Resolver to use file locks in the local repository, which exclude forked and
+     * embedded executions alike. Values given as system properties or on the command line take precedence.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.parallel} is {@code true}.
+     *
+     * @param parallel indicate if option is enabled
+     * @since 2.0.0-M2
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Record each execution with the Java Flight Recorder into a file next to the log file, e.g. <code>log.jfr</code>,
+     * and summarize it in {@link ExecutionResult#getFlightRecording()}. Forked executions are recorded with
+     * <code>-XX:StartFlightRecording</code> added to <code>MAVEN_OPTS</code>, which requires a Java version supporting
+     * it; if the path of the log file contains spaces, the build writes the recording to the temporary directory and
+     * it is moved next to the log file afterwards. Embedded executions record this JVM while Maven runs.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.flightRecording} is {@code true}.
+     *
+     * @param flightRecording indicate if option is enabled
+     * @since 2.0.0-M2
+     */
+    public void setFlightRecording(boolean flightRecording) {
+        this.flightRecording = flightRecording;
+    }
+
+    /**
+     * Record the time spent in each mojo execution, see {@link ExecutionResult#getMojoTimings()}. An event spy is
+     * added to the extension class path of Maven (<code>maven.ext.class.path</code>), in addition to the extensions
+     * given as system property or on the command line, and writes the timings next to the log file, e.g. to
+     * <code>log-mojos.tsv</code>.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.mojoTimings} is {@code true}.
+     *
+     * @param mojoTimings indicate if option is enabled
+     * @since 2.0.0-M2
+     */
+    public void setMojoTimings(boolean mojoTimings) {
+        this.mojoTimings = mojoTimings;
+    }
+
+    /**
+     * Compare the durations verified with {@link #verifyExecutionTime(Duration)} and
+     * {@link #verifyMojoTime(String, Duration)} with a baseline, or record them into it.
+     *
+     * @param performanceBaseline The baseline of the test, may be <code>null</code> to only check budgets.
+     * @since 2.0.0-M2
+     */
+    public void setPerformanceBaseline(PerformanceBaseline performanceBaseline) {
+        this.performanceBaseline = performanceBaseline;
+    }
+
+    /**
+     * Verifies that the last execution did not exceed a budget and, if set, the performance baseline.
+     *
+     * @param budget the maximum duration of the execution, may be <code>null</code> to only check the baseline
+     * @throws VerificationException if Maven was not executed or the duration exceeds the budget or baseline
+     * @since 2.0.0-M2
+     */
+    public void verifyExecutionTime(Duration budget) throws VerificationException {
+        if (executionResult == null) {
+            throw new VerificationException("Maven was not executed");
+        }
+        Duration measured = executionResult.getDuration();
+        PerformanceBaseline.verify("Execution", "execution", measured, budget, performanceBaseline, this);
+    }
+
+    /**
+     * Verifies that the executions of a mojo in the last execution did not take longer than a budget in total and, if
+     * set, than the performance baseline. Requires the mojo timings, see {@link #setMojoTimings(boolean)}.
+     *
+     * @param goal the goal as <code>prefix:goal</code>, <code>artifactId:goal</code> or
+     *             <code>groupId:artifactId:goal</code>, optionally followed by <code>@executionId</code>
+     * @param budget the maximum duration, may be <code>null</code> to only check the baseline
+     * @throws VerificationException if the mojo was not executed or its duration exceeds the budget or baseline
+     * @since 2.0.0-M2
+     */
+    public void verifyMojoTime(String goal, Duration budget) throws VerificationException {
+        if (executionResult == null || executionResult.getMojoTimings() == null) {
+            throw new VerificationException("Mojo timings were not recorded, see setMojoTimings");
+        }
+        Duration measured = null;
+        for (MojoTiming timing : executionResult.getMojoTimings()) {
+            if (timing.matches(goal)) {
+                measured = timing.getDuration().plus(measured != null ? measured : Duration.ZERO);
+            }
+        }
+        if (measured == null) {
+            throw new VerificationException("Mojo " + goal + " was not executed");
+        }
+        PerformanceBaseline.verify("Mojo " + goal, "mojo:" + goal, measured, budget, performanceBaseline, this);
+    }
+
+    /**
+     * Notify the specified listener about the operations of this verifier, in addition to the listeners registered
+     * with {@link VerifierListeners}.
+     *
+     * @param listener the listener to add, must not be <code>null</code>
+     * @since 2.0.0-M2
+     */
+    public void addListener(VerifierListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isAsyncCleanup() {
+        return asyncCleanup;
+    }
+
+    /**
+     * Delete directories in the background. {@link #deleteDirectory(String)}, {@link #deleteArtifacts(String)} and
+     * {@link #deleteArtifacts(String, String, String)} then only wait until the directory has been renamed into a
+     * trash area on the same file system, see {@link CleanupService}.
+     * <p>
+     * By default, the option is enabled if the system property {@code verifier.asyncCleanup} is {@code true}.
+     *
+     * @param asyncCleanup indicate if option is enabled
+     * @since 2.0.0-M2
+     */
+    public void setAsyncCleanup(boolean asyncCleanup) {
+        this.asyncCleanup = asyncCleanup;
+    }
+
     public String getBasedir() {
         return basedir;
     }
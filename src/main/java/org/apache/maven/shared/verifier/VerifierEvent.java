@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.time.Duration;
+
+/**
+ * The start or end of a phase of a verifier operation, passed to {@link VerifierListener}.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class VerifierEvent {
+
+    /**
+     * The observed phases. The phases {@link #LAUNCHER} to {@link #LOG_FLUSH} follow each other within
+     * {@link #EXECUTE}.
+     */
+    public enum Phase {
+        /**
+         * {@link Verifier#execute()} as a whole.
+         */
+        EXECUTE,
+        /**
+         * Selecting and, on first use, creating the launcher.
+         */
+        LAUNCHER,
+        /**
+         * Starting the Maven process, respectively setting up an embedded execution.
+         */
+        SPAWN,
+        /**
+         * Maven running.
+         */
+        RUN,
+        /**
+         * Writing the remaining output of Maven to the log file.
+         */
+        LOG_FLUSH,
+        /**
+         * Checking the log file, e.g. {@link Verifier#verifyErrorFreeLog()}.
+         */
+        VERIFY_LOG,
+        /**
+         * Extracting test resources with {@link org.apache.maven.shared.verifier.util.ResourceExtractor}.
+         */
+        EXTRACT_RESOURCES,
+        /**
+         * Filtering a file with {@link Verifier#filterFile(String, String, String, java.util.Map)}.
+         */
+        FILTER_FILE,
+        /**
+         * Deleting artifacts from the local repository, e.g. {@link Verifier#deleteArtifacts(String)}.
+         */
+        DELETE_ARTIFACTS
+    }
+
+    private final Phase phase;
+
+    private final Verifier verifier;
+
+    private final String detail;
+
+    private final String forkMode;
+
+    private final long startTime;
+
+    private final long durationNanos;
+
+    private final boolean failed;
+
+    /**
+     * The exceptions thrown by listeners notified about this phase.
+     */
+    private RuntimeException listenerFailure;
+
+    VerifierEvent(
+            Phase phase,
+            Verifier verifier,
+            String detail,
+            String forkMode,
+            long startTime,
+            long durationNanos,
+            boolean failed) {
+        this.phase = phase;
+        this.verifier = verifier;
+        this.detail = detail;
+        this.forkMode = forkMode;
+        this.startTime = startTime;
+        this.durationNanos = durationNanos;
+        this.failed = failed;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Gets the verifier performing the operation.
+     *
+     * @return The verifier or <code>null</code> for operations not bound to a verifier, like resource extraction.
+     */
+    public Verifier getVerifier() {
+        return verifier;
+    }
+
+    /**
+     * Gets a description of the operation, e.g. the extracted resource.
+     *
+     * @return The description or <code>null</code> if none.
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Gets how Maven is executed.
+     *
+     * @return Either <code>forked</code> or <code>embedded</code>, <code>null</code> if not known yet or not
+     *         applicable.
+     */
+    public String getForkMode() {
+        return forkMode;
+    }
+
+    /**
+     * Gets the start of the phase.
+     *
+     * @return The value of {@link System#nanoTime()} when the phase started.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Tells whether this event denotes the end of a phase.
+     *
+     * @return <code>true</code> if the phase ended, <code>false</code> if it started.
+     */
+    public boolean isEnd() {
+        return durationNanos >= 0;
+    }
+
+    /**
+     * Gets the duration of an ended phase.
+     *
+     * @return The duration or <code>null</code> if the phase just started.
+     */
+    public Duration getDuration() {
+        return isEnd() ? Duration.ofNanos(durationNanos) : null;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Tells whether the phase failed, e.g. with an exception.
+     *
+     * @return <code>true</code> if the ended phase failed, <code>false</code> otherwise.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    VerifierEvent end(String forkMode, boolean failed) {
+        long duration = Math.max(0, System.nanoTime() - startTime);
+        VerifierEvent end = new VerifierEvent(
+                phase, verifier, detail, forkMode != null ? forkMode : this.forkMode, startTime, duration, failed);
+        end.listenerFailure = listenerFailure;
+        return end;
+    }
+
+    void addListenerFailure(RuntimeException failure) {
+        if (listenerFailure == null) {
+            listenerFailure = failure;
+        } else if (failure != null && failure != listenerFailure) {
+            listenerFailure.addSuppressed(failure);
+        }
+    }
+
+    RuntimeException getListenerFailure() {
+        return listenerFailure;
+    }
+
+    @Override
+    public String toString() {
+        return phase + (detail != null ? " " + detail : "") + (isEnd() ? " ended after " + durationNanos + " ns" : "");
+    }
+}
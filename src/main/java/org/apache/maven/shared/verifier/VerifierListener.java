@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+/**
+ * Receives the start and end of the phases of verifier operations, see {@link VerifierEvent.Phase}. Listeners are
+ * registered for one verifier with {@link Verifier#addListener(VerifierListener)}, for all verifiers with
+ * {@link VerifierListeners#register(VerifierListener)} or through a <code>ServiceLoader</code> provider configuration
+ * file <code>META-INF/services/org.apache.maven.shared.verifier.VerifierListener</code>.
+ * <p>
+ * Listeners are called synchronously on the thread performing the operation, possibly concurrently for different
+ * verifiers. An exception thrown by a listener does not keep the other listeners from being notified; it is rethrown
+ * by the operation when it completes, or added as suppressed exception to the exception the operation failed with.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This interface is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public interface VerifierListener {
+
+    /**
+     * Called when a phase starts.
+     *
+     * @param event The event, never <code>null</code>.
+     */
+    default void started(VerifierEvent event) {}
+
+    /**
+     * Called when a phase ends, also if it failed.
+     *
+     * @param event The event, never <code>null</code>.
+     */
+    default void ended(VerifierEvent event) {}
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The listeners notified about the operations of all verifiers: the ones registered with
+ * {@link #register(VerifierListener)} and the ones provided through <code>ServiceLoader</code>, loaded on first use.
+ * If the system property {@code verifier.latencyHistograms} is {@code true}, {@link LatencyHistograms} is installed
+ * as well, and if the system property {@code verifier.traceFile} is set, {@link TraceExporter} writing to that file.
+ * <p>
+ * On Java 11 and later, the phases are also emitted as Java Flight Recorder events named
+ * <code>org.apache.maven.verifier.&lt;Phase&gt;</code>, e.g. <code>org.apache.maven.verifier.Execute</code>, while a
+ * recording enables them. When no listener is registered and no recording is running, notifications cost a check of
+ * the listener lists.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated along with the Verifier class; this project will be retired soon.
+ *             See <a href="https://github.com/apache/maven-verifier/blob/master/MIGRATION.md">Migration Guide</a>.
+ */
+@Deprecated
+public final class VerifierListeners {
+
+    private static final List<VerifierListener> REGISTERED = new CopyOnWriteArrayList<>();
+
+    private static final List<VerifierListener> PROVIDED = loadProvidedListeners();
+
+    private static final FlightRecorderEvents FLIGHT_RECORDER = FlightRecorderEvents.INSTANCE;
+
+    static {
+        if (Boolean.getBoolean("verifier.latencyHistograms")) {
+            LatencyHistograms.install();
+        }
+        String traceFile = System.getProperty("verifier.traceFile");
+        if (traceFile != null && !traceFile.isEmpty()) {
+            try {
+                TraceExporter.install(new File(traceFile));
+            } catch (IOException e) {
+                // fails the first verifier operation rather than silently not tracing
+                throw new UncheckedIOException("Could not create verifier trace " + traceFile, e);
+            }
+        }
+    }
+
+    /**
+     * An operation of a verifier which may fail.
+     */
+    interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    private VerifierListeners() {}
+
+    /**
+     * Registers a listener for all verifiers.
+     *
+     * @param listener The listener to register, must not be <code>null</code>.
+     */
+    public static void register(VerifierListener listener) {
+        REGISTERED.add(listener);
+    }
+
+    /**
+     * Unregisters a listener registered with {@link #register(VerifierListener)}.
+     *
+     * @param listener The listener to unregister, must not be <code>null</code>.
+     */
+    public static void unregister(VerifierListener listener) {
+        REGISTERED.remove(listener);
+    }
+
+    /**
+     * Notifies the listeners about the start of an operation not bound to a verifier, like the extraction of test
+     * resources.
+     *
+     * @param phase  The phase, must not be <code>null</code>.
+     * @param detail A description of the operation, may be <code>null</code>.
+     * @return The event to pass to {@link #ended(VerifierEvent, Throwable)}, <code>null</code> if no listener is
+     *         registered.
+     */
+    public static VerifierEvent started(VerifierEvent.Phase phase, String detail) {
+        return started(phase, null, null, detail, null);
+    }
+
+    /**
+     * Notifies the listeners about the end of an operation started with
+     * {@link #started(VerifierEvent.Phase, String)}. Exceptions thrown by the listeners are rethrown if the operation
+     * succeeded, otherwise they are added as suppressed exceptions to the failure of the operation.
+     *
+     * @param started The event returned at the start, may be <code>null</code>.
+     * @param failure The exception the operation failed with, <code>null</code> if it succeeded.
+     */
+    public static void ended(VerifierEvent started, Throwable failure) {
+        ended(started, null, null, failure);
+    }
+
+    static VerifierEvent started(
+            VerifierEvent.Phase phase,
+            Verifier verifier,
+            List<VerifierListener> local,
+            String detail,
+            String forkMode) {
+        if (isEmpty(phase, local)) {
+            return null;
+        }
+        VerifierEvent event = new VerifierEvent(phase, verifier, detail, forkMode, System.nanoTime(), -1, false);
+        if (FLIGHT_RECORDER != null) {
+            FLIGHT_RECORDER.begin(event);
+        }
+        for (VerifierListener listener : listeners(local)) {
+            try {
+                listener.started(event);
+            } catch (RuntimeException e) {
+                // reported when the phase ends, so all listeners see the start of the phase
+                event.addListenerFailure(e);
+            }
+        }
+        return event;
+    }
+
+    static void ended(VerifierEvent started, List<VerifierListener> local, String forkMode, Throwable failure) {
+        RuntimeException listenerFailure = notifyEnded(started, local, forkMode, failure != null);
+        if (listenerFailure == null) {
+            return;
+        }
+        if (failure == null) {
+            throw listenerFailure;
+        }
+        failure.addSuppressed(listenerFailure);
+    }
+
+    /**
+     * Notifies the listeners about the end of a phase without throwing.
+     *
+     * @return The exceptions thrown by the listeners when the phase started or ended, <code>null</code> if none.
+     */
+    static RuntimeException notifyEnded(
+            VerifierEvent started, List<VerifierListener> local, String forkMode, boolean failed) {
+        if (started == null) {
+            return null;
+        }
+        VerifierEvent event = started.end(forkMode, failed);
+        if (FLIGHT_RECORDER != null) {
+            FLIGHT_RECORDER.commit(started, event);
+        }
+        for (VerifierListener listener : listeners(local)) {
+            try {
+                listener.ended(event);
+            } catch (RuntimeException e) {
+                event.addListenerFailure(e);
+            }
+        }
+        return event.getListenerFailure();
+    }
+
+    /**
+     * Performs an operation between the notifications about its start and end.
+     */
+    static <E extends Exception> void observe(
+            VerifierEvent.Phase phase, Verifier verifier, List<VerifierListener> local, String detail, Action<E> action)
+            throws E {
+        VerifierEvent event = started(phase, verifier, local, detail, null);
+        try {
+            action.run();
+        } catch (Throwable e) {
+            ended(event, local, null, e);
+            throw e;
+        }
+        ended(event, local, null, null);
+    }
+
+    private static boolean isEmpty(VerifierEvent.Phase phase, List<VerifierListener> local) {
+        return REGISTERED.isEmpty()
+                && PROVIDED.isEmpty()
+                && (local == null || local.isEmpty())
+                && (FLIGHT_RECORDER == null || !FLIGHT_RECORDER.isEnabled(phase));
+    }
+
+    private static List<VerifierListener> listeners(List<VerifierListener> local) {
+        List<VerifierListener> listeners = new ArrayList<>(PROVIDED);
+        listeners.addAll(REGISTERED);
+        if (local != null) {
+            listeners.addAll(local);
+        }
+        return listeners;
+    }
+
+    /**
+     * Loads the provided listeners. A provider configuration error is not caught, so it fails the initialization of
+     * this class and with it the first verifier operation rather than leaving the listener silently unused.
+     */
+    private static List<VerifierListener> loadProvidedListeners() {
+        List<VerifierListener> listeners = new ArrayList<>();
+        for (VerifierListener listener :
+                ServiceLoader.load(VerifierListener.class, VerifierListener.class.getClassLoader())) {
+            listeners.add(listener);
+        }
+        return listeners;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+/**
+ * Deletes directory trees in the background. The caller only waits for an atomic rename of the tree into a trash
+ * area on the same file system, the trash is then deleted by a bounded fork-join pool which deletes sub-trees in
+ * parallel. Pending deletions are completed when the JVM shuts down. Failures of background deletions fail the
+ * returned future and are thrown by the next {@link #flush()}.
+ * <p>
+ * The trash area is the directory given by the system property {@code verifier.cleanup.trashDir} (defaults to a
+ * directory below <code>java.io.tmpdir</code>). Trees on another file system than the trash area are deleted
+ * synchronously, so the trash area should be on the file system of the builds. The number of deleting threads is
+ * given by the system property {@code verifier.cleanup.threads} and defaults to the number of processors, at most 4.
+ *
+ * @since 2.0.0-M2
+ */
+public final class CleanupService {
+
+    private static final CleanupService INSTANCE = new CleanupService(
+            new File(System.getProperty(
+                    "verifier.cleanup.trashDir",
+                    new File(System.getProperty("java.io.tmpdir"), "maven-verifier-trash").getPath())),
+            Integer.getInteger(
+                    "verifier.cleanup.threads", Math.min(4, Runtime.getRuntime().availableProcessors())));
+
+    private final File trashDir;
+
+    private final ForkJoinPool pool;
+
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+
+    private FileStore trashStore;
+
+    private final List<IOException> failures = new ArrayList<>();
+
+    private CleanupService(File trashDir, int threads) {
+        this.trashDir = trashDir;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushAtExit, "verifier-cleanup-flush"));
+    }
+
+    /**
+     * Gets the shared cleanup service.
+     *
+     * @return The cleanup service, never <code>null</code>.
+     */
+    public static CleanupService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Deletes the specified file or directory tree. When this method returns, the tree is gone from its original
+     * location. If it cannot be moved to the trash, it is deleted synchronously. A failure of the background deletion
+     * leaves the remains in the trash area, fails the returned future and is thrown by the next {@link #flush()}.
+     *
+     * @param file The file or directory to delete, must not be <code>null</code>.
+     * @return The number of bytes reclaimed once the deletion is complete, never <code>null</code>.
+     * @throws IOException If the tree could neither be moved to the trash nor deleted.
+     */
+    @SuppressWarnings("deprecation")
+    public Future<Long> delete(File file) throws IOException {
+        Path path = file.getAbsoluteFile().toPath();
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        Path trash = moveToTrash(path);
+        if (trash == null) {
+            long size = sizeOf(path);
+            FileUtils.forceDelete(file);
+            reclaimedBytes.addAndGet(size);
+            return CompletableFuture.completedFuture(size);
+        }
+
+        return pool.submit(new DeleteTask(trash, true));
+    }
+
+    /**
+     * Gets the total number of bytes reclaimed by completed deletions.
+     *
+     * @return The number of bytes reclaimed so far.
+     */
+    public long getReclaimedBytes() {
+        return reclaimedBytes.get();
+    }
+
+    /**
+     * Waits until all pending deletions are complete.
+     *
+     * @throws IOException If background deletions failed since the last flush, with one suppressed exception per
+     *                     failure.
+     */
+    public void flush() throws IOException {
+        pool.awaitQuiescence(1, TimeUnit.HOURS);
+        IOException failure;
+        synchronized (failures) {
+            if (failures.isEmpty()) {
+                return;
+            }
+            failure =
+                    new IOException("Could not delete " + failures.size() + " files or directories in the trash area");
+            failures.forEach(failure::addSuppressed);
+            failures.clear();
+        }
+        throw failure;
+    }
+
+    private void flushAtExit() {
+        try {
+            flush();
+        } catch (IOException e) {
+            // the remains stay in the trash area, there is no one left to report the failure to
+        }
+    }
+
+    private Path moveToTrash(Path path) {
+        String name = path.getFileName().toString() + '.' + UUID.randomUUID();
+
+        try {
+            Path trash = getTrashDir(path);
+            if (trash != null) {
+                return Files.move(path, trash.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            // delete synchronously
+        }
+        return null;
+    }
+
+    private synchronized Path getTrashDir(Path path) throws IOException {
+        if (trashStore == null) {
+            Files.createDirectories(trashDir.toPath());
+            trashStore = Files.getFileStore(trashDir.toPath());
+        }
+        return trashStore.equals(Files.getFileStore(path)) ? trashDir.toPath() : null;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long sizeOf(Path path) throws IOException {
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            return Files.size(path);
+        }
+        return FileUtils.sizeOfDirectory(path.toFile());
+    }
+
+    /**
+     * Deletes the children of a directory, forking a sub-task per sub-directory, and the directory itself.
+     */
+    private class DeleteTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path path;
+
+        private final boolean root;
+
+        DeleteTask(Path path, boolean root) {
+            this.path = path;
+            this.root = root;
+        }
+
+        @Override
+        protected Long compute() {
+            long bytes = 0;
+            try {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    List<DeleteTask> subTasks = new ArrayList<>();
+                    try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                        for (Path child : children) {
+                            BasicFileAttributes childAttributes =
+                                    Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                            if (childAttributes.isDirectory()) {
+                                subTasks.add(new DeleteTask(child, false));
+                            } else {
+                                Files.delete(child);
+                                bytes += childAttributes.size();
+                            }
+                        }
+                    }
+                    for (DeleteTask subTask : invokeAll(subTasks)) {
+                        bytes += subTask.join();
+                    }
+                } else {
+                    bytes += attributes.size();
+                }
+                Files.delete(path);
+            } catch (NoSuchFileException e) {
+                // already gone
+            } catch (IOException e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+                throw new UncheckedIOException(e);
+            }
+            if (root) {
+                reclaimedBytes.addAndGet(bytes);
+            }
+            return bytes;
+        }
+    }
+}
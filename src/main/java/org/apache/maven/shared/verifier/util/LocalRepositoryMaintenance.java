@@ -0,0 +1,500 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps a long-lived local repository shared by many builds within a size and age limit by evicting the least recently
+ * used artifact versions. The last use of a version directory is the latest access or modification time of its files,
+ * so file systems mounted with <code>noatime</code> only track downloads.
+ * <p>
+ * Eviction never runs concurrently with an execution of a {@link org.apache.maven.shared.verifier.Verifier} using the
+ * repository, neither in this JVM nor in other processes: executions hold a shared lock on the file
+ * <code>.verifier-maintenance.lock</code> in the repository, each version directory is evicted under the exclusive lock
+ * which is only tried, so a pass is postponed while builds are running. Evicted directories are handed to the
+ * {@link CleanupService}, parent directories left with repository metadata only are removed under the same lock.
+ * Versions matching a pinned pattern are never evicted.
+ * <p>
+ * As file locks are held by the JVM, all verifiers of a JVM must use the instance returned by
+ * {@link #forRepository(File)}. Builds using the repository without a verifier are not covered.
+ * <p>
+ * The instance returned by {@link #forRepository(File)} is configured with the following system properties and runs
+ * in the background if a limit is set:
+ * <ul>
+ * <li><code>verifier.repository.maxSize</code>: the size limit in bytes, suffixes <code>k</code>, <code>m</code>
+ * and <code>g</code> are supported</li>
+ * <li><code>verifier.repository.maxAgeDays</code>: the number of days after which unused versions are evicted</li>
+ * <li><code>verifier.repository.pinned</code>: comma separated patterns <code>groupId:artifactId:version</code>
+ * which may contain <code>*</code></li>
+ * <li><code>verifier.repository.maintenanceInterval</code>: the seconds between two passes, defaults to 300</li>
+ * </ul>
+ *
+ * @since 2.0.0-M2
+ */
+public final class LocalRepositoryMaintenance {
+
+    private static final Map<File, LocalRepositoryMaintenance> INSTANCES = new ConcurrentHashMap<>();
+
+    private final File localRepository;
+
+    private final ReadWriteLock executionLock = new ReentrantReadWriteLock();
+
+    private final Object fileLockMonitor = new Object();
+
+    private FileChannel lockChannel;
+
+    private FileLock sharedLock;
+
+    private int executions;
+
+    private final List<Pattern> pinned = new CopyOnWriteArrayList<>();
+
+    private volatile long maxSize = -1;
+
+    private volatile long maxAge = -1;
+
+    private ScheduledExecutorService daemon;
+
+    /**
+     * A version directory of the repository and its usage.
+     */
+    private static final class Version {
+        private final Path directory;
+
+        private final String coordinates;
+
+        private long size;
+
+        private long lastUsed;
+
+        Version(Path directory, String coordinates) {
+            this.directory = directory;
+            this.coordinates = coordinates;
+        }
+    }
+
+    /**
+     * Creates a maintenance without limits for the specified repository.
+     *
+     * @param localRepository The local repository, must not be <code>null</code>.
+     */
+    public LocalRepositoryMaintenance(File localRepository) {
+        this.localRepository = localRepository.getAbsoluteFile();
+    }
+
+    /**
+     * Gets the maintenance shared by all verifiers of this JVM using the specified repository. On first access it is
+     * configured from the system properties and started if a limit is set.
+     *
+     * @param localRepository The local repository, must not be <code>null</code>.
+     * @return The maintenance, never <code>null</code>.
+     */
+    public static LocalRepositoryMaintenance forRepository(File localRepository) {
+        File key = localRepository.getAbsoluteFile();
+        LocalRepositoryMaintenance maintenance = INSTANCES.get(key);
+        if (maintenance == null) {
+            synchronized (INSTANCES) {
+                maintenance = INSTANCES.get(key);
+                if (maintenance == null) {
+                    maintenance = configure(new LocalRepositoryMaintenance(key));
+                    INSTANCES.put(key, maintenance);
+                }
+            }
+        }
+        return maintenance;
+    }
+
+    private static LocalRepositoryMaintenance configure(LocalRepositoryMaintenance maintenance) {
+        String maxSize = System.getProperty("verifier.repository.maxSize");
+        if (maxSize != null) {
+            maintenance.setMaxSize(parseSize(maxSize));
+        }
+        String maxAgeDays = System.getProperty("verifier.repository.maxAgeDays");
+        if (maxAgeDays != null) {
+            maintenance.setMaxAge(TimeUnit.DAYS.toMillis(Long.parseLong(maxAgeDays.trim())));
+        }
+        String pinned = System.getProperty("verifier.repository.pinned");
+        if (pinned != null) {
+            for (String pattern : pinned.split(",")) {
+                if (!pattern.trim().isEmpty()) {
+                    maintenance.pin(pattern.trim());
+                }
+            }
+        }
+        if (maxSize != null || maxAgeDays != null) {
+            maintenance.start(Long.getLong("verifier.repository.maintenanceInterval", 300), TimeUnit.SECONDS);
+        }
+        return maintenance;
+    }
+
+    private static long parseSize(String size) {
+        String value = size.trim().toLowerCase(Locale.ENGLISH);
+        long factor = 1;
+        if (value.endsWith("k")) {
+            factor = 1024;
+        } else if (value.endsWith("m")) {
+            factor = 1024 * 1024;
+        } else if (value.endsWith("g")) {
+            factor = 1024 * 1024 * 1024;
+        }
+        if (factor > 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+        return Long.parseLong(value.trim()) * factor;
+    }
+
+    /**
+     * Sets the size above which the least recently used versions are evicted.
+     *
+     * @param maxSize The size limit in bytes, negative for no limit.
+     */
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Sets the time after which unused versions are evicted.
+     *
+     * @param maxAge The age limit in milliseconds, negative for no limit.
+     */
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Protects matching versions from eviction, e.g. the artifacts used by the current test suite.
+     *
+     * @param pattern The coordinates <code>groupId:artifactId:version</code>, may contain <code>*</code>, must not be
+     *                <code>null</code>.
+     */
+    public void pin(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (String literal : pattern.split("\\*", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(literal));
+        }
+        pinned.add(Pattern.compile(regex.toString()));
+    }
+
+    /**
+     * Marks the start of a build using the repository, waiting for an eviction in progress in another process. Must be
+     * followed by {@link #endExecution()} in the same thread.
+     *
+     * @throws IOException If the lock file could not be locked.
+     */
+    public void beginExecution() throws IOException {
+        executionLock.readLock().lock();
+        try {
+            synchronized (fileLockMonitor) {
+                if (executions == 0 && localRepository.isDirectory()) {
+                    // nothing to evict from a repository created by the build
+                    sharedLock = getLockChannel().lock(0, Long.MAX_VALUE, true);
+                }
+                executions++;
+            }
+        } catch (IOException | RuntimeException e) {
+            executionLock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Marks the end of a build using the repository.
+     */
+    public void endExecution() {
+        try {
+            synchronized (fileLockMonitor) {
+                if (--executions == 0 && sharedLock != null) {
+                    FileLock lock = sharedLock;
+                    sharedLock = null;
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            // the lock is released when the channel is closed at the latest
+        } finally {
+            executionLock.readLock().unlock();
+        }
+    }
+
+    private FileChannel getLockChannel() throws IOException {
+        synchronized (fileLockMonitor) {
+            if (lockChannel == null || !lockChannel.isOpen()) {
+                lockChannel = FileChannel.open(
+                        localRepository.toPath().resolve(".verifier-maintenance.lock"),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+            }
+            return lockChannel;
+        }
+    }
+
+    /**
+     * Tries to exclude executions in all processes, the caller holds the write lock of this JVM.
+     *
+     * @return The exclusive lock or <code>null</code> if a build is running in another process.
+     */
+    private FileLock tryLockExclusively() throws IOException {
+        try {
+            return getLockChannel().tryLock(0, Long.MAX_VALUE, false);
+        } catch (OverlappingFileLockException e) {
+            // locked by another instance for the same repository in this JVM
+            return null;
+        }
+    }
+
+    /**
+     * Runs {@link #evict()} periodically on a daemon thread.
+     *
+     * @param interval The time between the end of a pass and the start of the next one.
+     * @param unit     The unit of the interval, must not be <code>null</code>.
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (daemon == null) {
+            daemon = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "verifier-repository-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            daemon.scheduleWithFixedDelay(
+                    () -> {
+                        try {
+                            evict();
+                        } catch (IOException e) {
+                            // retried in the next pass
+                        }
+                    },
+                    interval,
+                    interval,
+                    unit);
+        }
+    }
+
+    /**
+     * Stops running in the background. A pass in progress completes.
+     */
+    public synchronized void stop() {
+        if (daemon != null) {
+            daemon.shutdown();
+            daemon = null;
+        }
+    }
+
+    /**
+     * Evicts versions exceeding the age limit and, least recently used first, versions exceeding the size limit. The
+     * pass ends early if a build is running.
+     *
+     * @return The number of evicted versions.
+     * @throws IOException If the repository could not be read or a version could not be evicted.
+     */
+    public int evict() throws IOException {
+        if ((maxSize < 0 && maxAge < 0) || !localRepository.isDirectory()) {
+            return 0;
+        }
+
+        List<Version> versions = new ArrayList<>();
+        long totalSize = scan(versions);
+        Collections.sort(versions, Comparator.comparingLong(version -> version.lastUsed));
+
+        long expiry = maxAge < 0 ? Long.MIN_VALUE : System.currentTimeMillis() - maxAge;
+        int evicted = 0;
+        for (Version version : versions) {
+            boolean expired = version.lastUsed < expiry;
+            if (!expired && (maxSize < 0 || totalSize <= maxSize)) {
+                break;
+            }
+            if (isPinned(version.coordinates)) {
+                continue;
+            }
+            if (!executionLock.writeLock().tryLock()) {
+                // a build is running, continue in the next pass
+                break;
+            }
+            try {
+                FileLock lock = tryLockExclusively();
+                if (lock == null) {
+                    // a build is running in another process
+                    break;
+                }
+                try {
+                    CleanupService.getInstance().delete(version.directory.toFile());
+                    deleteEmptyParents(version.directory.getParent());
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                executionLock.writeLock().unlock();
+            }
+            totalSize -= version.size;
+            evicted++;
+        }
+        return evicted;
+    }
+
+    private boolean isPinned(String coordinates) {
+        for (Pattern pattern : pinned) {
+            if (pattern.matcher(coordinates).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the repository once, collecting the version directories with their size and last use.
+     *
+     * @return The total size of all files in the repository.
+     */
+    private long scan(final List<Version> versions) throws IOException {
+        final Path root = localRepository.toPath();
+        final long[] totalSize = new long[1];
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            private final List<Version> stack = new ArrayList<>();
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                stack.add(toVersion(root, dir));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                totalSize[0] += attrs.size();
+                Version version = stack.isEmpty() ? null : stack.get(stack.size() - 1);
+                if (version != null) {
+                    version.size += attrs.size();
+                    version.lastUsed = Math.max(
+                            version.lastUsed,
+                            Math.max(
+                                    attrs.lastAccessTime().toMillis(),
+                                    attrs.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // deleted concurrently
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                Version version = stack.remove(stack.size() - 1);
+                if (version != null && version.size > 0) {
+                    versions.add(version);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return totalSize[0];
+    }
+
+    /**
+     * Recognizes a version directory of the default layout by the artifact files named after its parent directory.
+     */
+    private static Version toVersion(Path root, Path dir) {
+        Path relative = root.relativize(dir);
+        int count = relative.getNameCount();
+        if (count < 3) {
+            return null;
+        }
+        String version = relative.getName(count - 1).toString();
+        String artifactId = relative.getName(count - 2).toString();
+        String prefix = artifactId
+                + '-'
+                + (version.endsWith("-SNAPSHOT")
+                        ? version.substring(0, version.length() - "SNAPSHOT".length())
+                        : version);
+
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                if (child.getFileName().toString().startsWith(prefix)) {
+                    String groupId = relative.subpath(0, count - 2).toString().replace(File.separatorChar, '.');
+                    return new Version(dir, groupId + ':' + artifactId + ':' + version);
+                }
+            }
+        } catch (IOException e) {
+            // not readable, not evicted
+        }
+        return null;
+    }
+
+    private void deleteEmptyParents(Path dir) {
+        Path root = localRepository.toPath();
+        while (dir != null && dir.startsWith(root) && !dir.equals(root)) {
+            String[] children = dir.toFile().list();
+            if (children == null) {
+                return;
+            }
+            boolean metadataOnly = true;
+            for (String child : children) {
+                if (!child.startsWith("maven-metadata") && !child.equals("resolver-status.properties")) {
+                    metadataOnly = false;
+                    break;
+                }
+            }
+            if (!metadataOnly) {
+                return;
+            }
+            try {
+                for (String child : children) {
+                    Files.deleteIfExists(dir.resolve(child));
+                }
+                Files.delete(dir);
+            } catch (DirectoryNotEmptyException e) {
+                // another process added a file meanwhile
+                return;
+            } catch (IOException e) {
+                return;
+            }
+            dir = dir.getParent();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.maven.settings.Mirror;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.settings.io.xpp3.SettingsXpp3Reader;
+import org.apache.maven.settings.io.xpp3.SettingsXpp3Writer;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * A read-only HTTP server on the loopback interface serving a Maven repository from a directory or a ZIP archive, so
+ * builds under test resolve hermetically without network access. Connections are kept alive between requests and
+ * single byte ranges are supported.
+ * <p>
+ * {@link #addMirrorSettings(List, String)} makes a build resolve all repositories through the server by adding
+ * settings which declare it as the only mirror.
+ *
+ * @since 2.0.0-M2
+ */
+public final class RepositoryServer implements Closeable {
+
+    private static final String MIRROR_ID = "verifier-repository-server";
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final Path directory;
+
+    private final ZipFile archive;
+
+    /**
+     * The settings written by {@link #addMirrorSettings(List, String)}, keyed by base settings.
+     */
+    private final Map<File, MirrorSettings> mirrorSettings = new HashMap<>();
+
+    private static final class MirrorSettings {
+        private final File file;
+
+        private long baseModified;
+
+        MirrorSettings(File file) {
+            this.file = file;
+        }
+    }
+
+    private RepositoryServer(Path directory, ZipFile archive) throws IOException {
+        this.directory = directory;
+        this.archive = archive;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "verifier-repository-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Starts a server for the specified repository.
+     *
+     * @param repository The root directory of the repository or a ZIP archive containing it, must not be
+     *                   <code>null</code>.
+     * @return The started server, never <code>null</code>.
+     * @throws IOException If the archive could not be opened or the server could not be started.
+     */
+    public static RepositoryServer start(File repository) throws IOException {
+        if (repository.isDirectory()) {
+            return new RepositoryServer(repository.toPath().toAbsolutePath(), null);
+        }
+        return new RepositoryServer(null, new ZipFile(repository));
+    }
+
+    /**
+     * Gets the URL of the repository.
+     *
+     * @return The URL of the repository, ending with a slash, never <code>null</code>.
+     */
+    public String getUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ':' + address.getPort() + '/';
+    }
+
+    /**
+     * Writes settings which mirror all repositories to this server. The other content is taken from the base
+     * settings, their mirrors are replaced.
+     *
+     * @param baseSettings The settings to start from, may be <code>null</code> or missing.
+     * @param target       The file to write, must not be <code>null</code>.
+     * @throws IOException If the base settings could not be read or the target could not be written.
+     */
+    public void writeMirrorSettings(File baseSettings, File target) throws IOException {
+        Settings settings = new Settings();
+        if (baseSettings != null && baseSettings.isFile()) {
+            try (Reader reader = Files.newBufferedReader(baseSettings.toPath())) {
+                settings = new SettingsXpp3Reader().read(reader);
+            } catch (XmlPullParserException e) {
+                throw new IOException("Invalid settings " + baseSettings, e);
+            }
+        }
+
+        Mirror mirror = new Mirror();
+        mirror.setId(MIRROR_ID);
+        mirror.setMirrorOf("*");
+        mirror.setUrl(getUrl());
+        settings.getMirrors().clear();
+        settings.addMirror(mirror);
+
+        try (Writer writer = Files.newBufferedWriter(target.toPath())) {
+            new SettingsXpp3Writer().write(writer, settings);
+        }
+    }
+
+    /**
+     * Makes a build use this server as the only mirror. The user settings given with <code>-s</code> or
+     * <code>--settings</code>, otherwise the default user settings, and the global settings given with
+     * <code>-gs</code> or <code>--global-settings</code>, otherwise <code>${maven.home}/conf/settings.xml</code>, are
+     * copied to temporary files which are used instead, so mirrors from neither can route around the server. The files
+     * are written once per base settings and rewritten when they change, they are deleted when this server is closed.
+     *
+     * @param cliArguments The command line arguments of the build, modified in place, must not be <code>null</code>.
+     * @param basedir      The base directory of the build, used to resolve a relative settings file.
+     * @throws IOException If the settings could not be written.
+     */
+    public void addMirrorSettings(List<String> cliArguments, String basedir) throws IOException {
+        File userSettings = new File(System.getProperty("user.home"), ".m2/settings.xml");
+        replaceSettings(cliArguments, basedir, "-s", "--settings", userSettings);
+
+        String mavenHome = System.getProperty("maven.home");
+        File globalSettings = mavenHome != null ? new File(mavenHome, "conf/settings.xml") : null;
+        replaceSettings(cliArguments, basedir, "-gs", "--global-settings", globalSettings);
+    }
+
+    private void replaceSettings(
+            List<String> cliArguments, String basedir, String option, String longOption, File defaultSettings)
+            throws IOException {
+        int index = -1;
+        for (int i = 0; i < cliArguments.size() - 1; i++) {
+            String argument = cliArguments.get(i);
+            if (option.equals(argument) || longOption.equals(argument)) {
+                index = i + 1;
+            }
+        }
+
+        File baseSettings = defaultSettings;
+        if (index >= 0) {
+            baseSettings = new File(cliArguments.get(index));
+            if (!baseSettings.isAbsolute()) {
+                baseSettings = new File(basedir, cliArguments.get(index));
+            }
+        }
+
+        File settings = getMirrorSettings(baseSettings != null ? baseSettings.getAbsoluteFile() : null);
+
+        if (index >= 0) {
+            cliArguments.set(index, settings.getAbsolutePath());
+        } else {
+            cliArguments.add(option);
+            cliArguments.add(settings.getAbsolutePath());
+        }
+    }
+
+    private synchronized File getMirrorSettings(File baseSettings) throws IOException {
+        long baseModified = baseSettings != null ? baseSettings.lastModified() : 0;
+        MirrorSettings settings = mirrorSettings.get(baseSettings);
+        if (settings == null) {
+            settings = new MirrorSettings(File.createTempFile("verifier-settings", ".xml"));
+            settings.file.deleteOnExit();
+            mirrorSettings.put(baseSettings, settings);
+        } else if (settings.baseModified == baseModified) {
+            return settings.file;
+        }
+        settings.baseModified = baseModified;
+        writeMirrorSettings(baseSettings, settings.file);
+        return settings.file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(0);
+        executor.shutdownNow();
+        synchronized (this) {
+            for (MirrorSettings settings : mirrorSettings.values()) {
+                Files.deleteIfExists(settings.file.toPath());
+            }
+            mirrorSettings.clear();
+        }
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            String path = URI.create(exchange.getRequestURI().getRawPath()).getPath();
+            path = path.startsWith("/") ? path.substring(1) : path;
+
+            long length;
+            InputStream in;
+            if (archive != null) {
+                ZipEntry entry = path.contains("..") ? null : archive.getEntry(path);
+                if (entry == null || entry.isDirectory()) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                length = entry.getSize();
+                in = archive.getInputStream(entry);
+            } else {
+                Path file = directory.resolve(path).normalize();
+                if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                length = Files.size(file);
+                in = Files.newInputStream(file);
+            }
+
+            try {
+                send(exchange, in, length, "HEAD".equals(method));
+            } finally {
+                in.close();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, InputStream in, long length, boolean head) throws IOException {
+        long start = 0;
+        long end = length - 1;
+        int status = 200;
+
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null) {
+            Matcher matcher = RANGE.matcher(range.trim());
+            if (matcher.matches()
+                    && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) {
+                    // suffix range
+                    start = Math.max(0, length - Long.parseLong(matcher.group(2)));
+                } else {
+                    start = Long.parseLong(matcher.group(1));
+                    if (!matcher.group(2).isEmpty()) {
+                        end = Math.min(end, Long.parseLong(matcher.group(2)));
+                    }
+                }
+                if (start > end) {
+                    exchange.getResponseHeaders().set("Content-Range", "bytes */" + length);
+                    exchange.sendResponseHeaders(416, -1);
+                    return;
+                }
+                status = 206;
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + '-' + end + '/' + length);
+            }
+        }
+
+        long count = end - start + 1;
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(count));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, count == 0 ? -1 : count);
+        skipFully(in, start);
+        byte[] buffer = new byte[8192];
+        try (OutputStream out = exchange.getResponseBody()) {
+            while (count > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+                if (read < 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                count -= read;
+            }
+        }
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    return;
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.maven.shared.verifier.util;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -74,6 +75,23 @@ public class ResourceExtractor {
 
     public static File extractResourceToDestination(
             Class<?> cl, String resourcePath, File destination, boolean alwaysExtract) throws IOException {
+        // not imported, as imports of deprecated types cannot be exempted from deprecation warnings
+        org.apache.maven.shared.verifier.VerifierEvent event =
+                org.apache.maven.shared.verifier.VerifierListeners.started(
+                        org.apache.maven.shared.verifier.VerifierEvent.Phase.EXTRACT_RESOURCES, resourcePath);
+        File extracted;
+        try {
+            extracted = extract(cl, resourcePath, destination, alwaysExtract);
+        } catch (Throwable e) {
+            org.apache.maven.shared.verifier.VerifierListeners.ended(event, e);
+            throw e;
+        }
+        org.apache.maven.shared.verifier.VerifierListeners.ended(event, null);
+        return extracted;
+    }
+
+    private static File extract(Class<?> cl, String resourcePath, File destination, boolean alwaysExtract)
+            throws IOException {
         URL url = cl.getResource(resourcePath);
         if (url == null) {
             throw new IllegalArgumentException("Resource not found: " + resourcePath);
@@ -101,36 +119,32 @@ public class ResourceExtractor {
 
     private static void extractResourcePathFromJar(Class<?> cl, File jarFile, String resourcePath, File dest)
             throws IOException {
-        ZipFile z = new ZipFile(jarFile, ZipFile.OPEN_READ);
-        String zipStyleResourcePath = resourcePath.substring(1) + "/";
-        ZipEntry ze = z.getEntry(zipStyleResourcePath);
-        if (ze != null) {
-            // DGF If it's a directory, then we need to look at all the entries
-            for (Enumeration<? extends ZipEntry> entries = z.entries(); entries.hasMoreElements(); ) {
-                ze = entries.nextElement();
-                if (ze.getName().startsWith(zipStyleResourcePath)) {
-                    String relativePath = ze.getName().substring(zipStyleResourcePath.length());
-                    File destFile = new File(dest, relativePath);
-                    if (ze.isDirectory()) {
-                        destFile.mkdirs();
-                    } else {
-                        FileOutputStream fos = new FileOutputStream(destFile);
-                        try {
-                            IOUtil.copy(z.getInputStream(ze), fos);
-                        } finally {
-                            IOUtil.close(fos);
-                            z.close();
+        try (ZipFile z = new ZipFile(jarFile, ZipFile.OPEN_READ)) {
+            String zipStyleResourcePath = resourcePath.substring(1) + "/";
+            ZipEntry ze = z.getEntry(zipStyleResourcePath);
+            if (ze != null) {
+                // DGF If it's a directory, then we need to look at all the entries
+                for (Enumeration<? extends ZipEntry> entries = z.entries(); entries.hasMoreElements(); ) {
+                    ze = entries.nextElement();
+                    if (ze.getName().startsWith(zipStyleResourcePath)) {
+                        String relativePath = ze.getName().substring(zipStyleResourcePath.length());
+                        File destFile = new File(dest, relativePath);
+                        if (ze.isDirectory()) {
+                            destFile.mkdirs();
+                        } else {
+                            destFile.getParentFile().mkdirs();
+                            try (InputStream in = z.getInputStream(ze);
+                                    FileOutputStream fos = new FileOutputStream(destFile)) {
+                                IOUtil.copy(in, fos);
+                            }
                         }
                     }
                 }
-            }
-        } else {
-            FileOutputStream fos = new FileOutputStream(dest);
-            try {
-                IOUtil.copy(cl.getResourceAsStream(resourcePath), fos);
-            } finally {
-                IOUtil.close(fos);
-                z.close();
+            } else {
+                try (InputStream in = cl.getResourceAsStream(resourcePath);
+                        FileOutputStream fos = new FileOutputStream(dest)) {
+                    IOUtil.copy(in, fos);
+                }
             }
         }
     }
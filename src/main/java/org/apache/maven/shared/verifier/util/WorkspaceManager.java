@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+/**
+ * Places test workspaces, i.e. extracted base directories and local repository copies, on a memory-backed file
+ * system like <code>/dev/shm</code> to avoid the disk I/O caused by the many small files a Maven build writes.
+ * <p>
+ * The memory-backed directory is configured through the system property {@code verifier.workspace.ramDir}. Whenever
+ * placing a workspace there would raise the usage of its file system above the spill threshold (system property
+ * {@code verifier.workspace.spillThreshold}, a fraction between 0 and 1, defaults to 0.8), the workspace is placed on
+ * disk instead, using the same directory as {@link ResourceExtractor#simpleExtractResources(Class, String)}.
+ * <p>
+ * Since the content of a memory-backed file system does not survive the machine, logs and failing workspaces can be
+ * copied to the persistent directory given by the system property {@code verifier.workspace.postMortemDir}.
+ *
+ * @since 2.0.0-M2
+ * @deprecated This class is deprecated as part of maven-verifier deprecation.
+ *             See <a href="https://github.com/apache/maven-verifier/issues/186">Issue #186</a>.
+ */
+@Deprecated
+public class WorkspaceManager {
+
+    private static final String RAM_SUBDIRECTORY = "maven-verifier";
+
+    private static final double DEFAULT_SPILL_THRESHOLD = 0.8;
+
+    private final File ramDir;
+
+    private final File diskDir;
+
+    private final File postMortemDir;
+
+    private final double spillThreshold;
+
+    /**
+     * Creates a workspace manager configured from the system properties.
+     */
+    public WorkspaceManager() {
+        this(
+                toFile(System.getProperty("verifier.workspace.ramDir")),
+                new File(System.getProperty("maven.test.tmpdir", System.getProperty("java.io.tmpdir"))),
+                toFile(System.getProperty("verifier.workspace.postMortemDir")),
+                Double.parseDouble(System.getProperty(
+                        "verifier.workspace.spillThreshold", String.valueOf(DEFAULT_SPILL_THRESHOLD))));
+    }
+
+    /**
+     * Creates a workspace manager.
+     *
+     * @param ramDir         The directory on a memory-backed file system, may be <code>null</code> to always use the
+     *                       disk.
+     * @param diskDir        The directory used when workspaces spill to disk, must not be <code>null</code>.
+     * @param postMortemDir  The persistent directory to copy logs and failing workspaces to, may be <code>null</code>
+     *                       to keep nothing.
+     * @param spillThreshold The maximum usage of the memory-backed file system as a fraction between 0 and 1.
+     */
+    public WorkspaceManager(File ramDir, File diskDir, File postMortemDir, double spillThreshold) {
+        if (diskDir == null) {
+            throw new IllegalArgumentException("disk directory unspecified");
+        }
+        if (spillThreshold < 0 || spillThreshold > 1) {
+            throw new IllegalArgumentException("spill threshold must be between 0 and 1: " + spillThreshold);
+        }
+        this.ramDir = ramDir;
+        this.diskDir = diskDir;
+        this.postMortemDir = postMortemDir;
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Extracts the specified test resources into a fresh workspace, like
+     * {@link ResourceExtractor#simpleExtractResources(Class, String)} but preferring the memory-backed file system.
+     *
+     * @param cl           The class to load the resources from, must not be <code>null</code>.
+     * @param resourcePath The path to the resources, must not be <code>null</code>.
+     * @return The extracted workspace, never <code>null</code>.
+     * @throws IOException If the resources could not be extracted.
+     */
+    public File extractResources(Class<?> cl, String resourcePath) throws IOException {
+        File root = selectRoot(getResourceSize(cl, resourcePath));
+
+        FileUtils.deleteDirectory(new File(root, resourcePath));
+
+        return ResourceExtractor.extractResourcePath(cl, resourcePath, root, true);
+    }
+
+    /**
+     * Copies a local repository into a per-suite workspace, preferring the memory-backed file system. An existing copy
+     * for the same suite is reused. The copy is made in a temporary sibling directory which is then atomically renamed,
+     * so an interrupted copy is never reused and concurrent callers get the first complete copy.
+     *
+     * @param localRepo The local repository to copy, must not be <code>null</code>. May not exist, in which case an
+     *                  empty repository is created.
+     * @param suiteId   The identifier of the test suite sharing the copy, must not be <code>null</code>.
+     * @return The local repository copy, never <code>null</code>.
+     * @throws IOException If the local repository could not be copied.
+     */
+    public File copyLocalRepository(File localRepo, String suiteId) throws IOException {
+        File existing = findWorkspace("repositories/" + suiteId);
+        if (existing != null) {
+            return existing;
+        }
+
+        File copy = new File(selectRoot(sizeOf(localRepo)), "repositories/" + suiteId);
+        Files.createDirectories(copy.getParentFile().toPath());
+        Path temp = Files.createTempDirectory(copy.getParentFile().toPath(), "." + copy.getName() + "-");
+        try {
+            if (localRepo.isDirectory()) {
+                FileUtils.copyDirectoryStructure(localRepo, temp.toFile());
+            }
+            Files.move(temp, copy.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // completed concurrently
+            FileUtils.deleteDirectory(temp.toFile());
+        } catch (IOException e) {
+            FileUtils.deleteDirectory(temp.toFile());
+            if (!copy.isDirectory()) {
+                throw e;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Tells whether the specified workspace lives on the memory-backed file system.
+     *
+     * @param workspace The workspace to check, must not be <code>null</code>.
+     * @return <code>true</code> if the workspace is memory-backed, <code>false</code> otherwise.
+     */
+    public boolean isMemoryBacked(File workspace) {
+        if (ramDir == null) {
+            return false;
+        }
+        Path ramRoot = getRamRoot().getAbsoluteFile().toPath();
+        return workspace.getAbsoluteFile().toPath().startsWith(ramRoot);
+    }
+
+    /**
+     * Copies the logs of a memory-backed workspace, or the entire workspace if it failed, to the post-mortem directory.
+     *
+     * @param workspace The workspace to archive, must not be <code>null</code>.
+     * @param failed    Whether the test using the workspace failed.
+     * @return The directory the workspace was archived to or <code>null</code> if nothing was archived.
+     * @throws IOException If the workspace could not be copied.
+     */
+    public File archive(File workspace, boolean failed) throws IOException {
+        if (postMortemDir == null || !workspace.isDirectory() || !(failed || isMemoryBacked(workspace))) {
+            return null;
+        }
+
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        File target = new File(postMortemDir, workspace.getName() + '-' + timestamp);
+
+        if (failed) {
+            FileUtils.copyDirectoryStructure(workspace, target);
+        } else {
+            copyLogs(workspace.toPath(), target.toPath());
+        }
+
+        return target;
+    }
+
+    /**
+     * Archives the specified workspace as needed and deletes it, freeing the memory it occupied.
+     *
+     * @param workspace The workspace to release, must not be <code>null</code>.
+     * @param failed    Whether the test using the workspace failed.
+     * @throws IOException If the workspace could not be archived or deleted.
+     */
+    public void release(File workspace, boolean failed) throws IOException {
+        archive(workspace, failed);
+        FileUtils.deleteDirectory(workspace);
+    }
+
+    private File findWorkspace(String path) {
+        if (ramDir != null) {
+            File candidate = new File(getRamRoot(), path);
+            if (candidate.isDirectory()) {
+                return candidate;
+            }
+        }
+        File candidate = new File(diskDir, path);
+        return candidate.isDirectory() ? candidate : null;
+    }
+
+    /**
+     * Selects the memory-backed directory unless the additional bytes would raise the usage of its file system above
+     * the spill threshold.
+     */
+    private File selectRoot(long requiredBytes) {
+        if (ramDir == null || !ramDir.isDirectory()) {
+            return diskDir;
+        }
+
+        try {
+            FileStore store = Files.getFileStore(ramDir.toPath());
+            long total = store.getTotalSpace();
+            long used = total - store.getUsableSpace() + requiredBytes;
+            if (total <= 0 || used > total * spillThreshold) {
+                return diskDir;
+            }
+        } catch (IOException e) {
+            return diskDir;
+        }
+
+        return getRamRoot();
+    }
+
+    private File getRamRoot() {
+        return new File(ramDir, RAM_SUBDIRECTORY);
+    }
+
+    private static long getResourceSize(Class<?> cl, String resourcePath) {
+        URL url = cl.getResource(resourcePath);
+        if (url == null || !"file".equalsIgnoreCase(url.getProtocol())) {
+            // size of a resource from a JAR is unknown without extracting it
+            return 0;
+        }
+        try {
+            return sizeOf(new File(new URI(url.toExternalForm())));
+        } catch (URISyntaxException | IOException e) {
+            return 0;
+        }
+    }
+
+    private static long sizeOf(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        final long[] size = new long[1];
+        Files.walkFileTree(file.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+                size[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
+    private static void copyLogs(final Path workspace, final Path target) throws IOException {
+        Files.walkFileTree(workspace, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+                if (isLog(path.getFileName().toString())) {
+                    Path copy = target.resolve(workspace.relativize(path).toString());
+                    Files.createDirectories(copy.getParent());
+                    Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isLog(String name) {
+        return name.endsWith(".log") || (name.startsWith("log") && name.endsWith(".txt"));
+    }
+
+    private static File toFile(String path) {
+        return (path == null || path.isEmpty()) ? null : new File(path);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class AdaptiveForkModeTest {
+    @TempDir
+    private Path temporaryDir;
+
+    @AfterEach
+    void reset() {
+        AdaptiveForkMode.reset();
+    }
+
+    @Test
+    void measuresBothLaunchersThenPicksTheCheaper() throws Exception {
+        String basedir = temporaryDir.toString();
+        assertFalse(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+
+        AdaptiveForkMode.record(basedir, execute(false, 200));
+        assertTrue(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+
+        AdaptiveForkMode.record(basedir, execute(true, 0));
+        assertTrue(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+        assertFalse(AdaptiveForkMode.isFork(temporaryDir.resolve("other").toString(), Long.MAX_VALUE));
+
+        // the forked build became slower
+        AdaptiveForkMode.record(basedir, execute(true, 1000));
+        assertFalse(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+    }
+
+    @Test
+    void measuresTheOtherLauncherAgainPeriodically() throws Exception {
+        String basedir = temporaryDir.toString();
+        AdaptiveForkMode.record(basedir, execute(false, 200));
+        for (int i = 0; i < 9; i++) {
+            AdaptiveForkMode.record(basedir, execute(true, 0));
+            assertTrue(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+        }
+
+        AdaptiveForkMode.record(basedir, execute(true, 0));
+        assertFalse(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+
+        // still more expensive than forking
+        AdaptiveForkMode.record(basedir, execute(false, 200));
+        assertTrue(AdaptiveForkMode.isFork(basedir, Long.MAX_VALUE));
+    }
+
+    @Test
+    void forksWhenHeapIsExhausted() {
+        assertTrue(AdaptiveForkMode.isFork(temporaryDir.toString(), 1));
+    }
+
+    private static ExecutionResult execute(boolean forked, long millis) throws InterruptedException {
+        ExecutionMetrics metrics = new ExecutionMetrics();
+        metrics.launcherAcquired(forked);
+        if (!forked) {
+            metrics.processStarted();
+        }
+        Thread.sleep(millis);
+        metrics.processExited();
+        metrics.logFlushed();
+        metrics.finish(false);
+        return new ExecutionResult(0, null, metrics);
+    }
+}
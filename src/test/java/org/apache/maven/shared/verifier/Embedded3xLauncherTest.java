@@ -18,16 +18,26 @@
  */
 package org.apache.maven.shared.verifier;
 
+import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 @SuppressWarnings("deprecation")
 public class Embedded3xLauncherTest {
@@ -49,6 +59,28 @@ public class Embedded3xLauncherTest {
         runLauncher(launcher);
     }
 
+    @Test
+    public void testMojoTimings() throws Exception {
+        MavenLauncher launcher = Embedded3xLauncher.createFromClasspath();
+        Path logFile = temporaryDir.resolve("build.log");
+        List<String> args = new ArrayList<>(Collections.singletonList("clean"));
+        File file = MojoTimings.addArguments(args, new Properties(), logFile.toFile());
+
+        int exitCode = launcher.run(args.toArray(new String[0]), new Properties(), workingDir, logFile.toFile());
+
+        assertThat(new String(Files.readAllBytes(logFile)), exitCode, is(0));
+        assertEquals(temporaryDir.resolve("build-mojos.tsv").toFile(), file);
+        List<MojoTiming> timings = MojoTimings.read(file);
+        assertThat(timings, hasSize(1));
+        MojoTiming clean = timings.get(0);
+        assertThat(
+                clean.getMojo(), allOf(startsWith("org.apache.maven.plugins:maven-clean-plugin:"), endsWith(":clean")));
+        assertEquals("default-clean", clean.getExecutionId());
+        assertEquals("clean", clean.getPhase());
+        assertFalse(clean.isFailed());
+        assertFalse(clean.getDuration().isNegative());
+    }
+
     private void runLauncher(MavenLauncher launcher) throws Exception {
         Path logFile = temporaryDir.resolve("build.log");
 
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SuppressWarnings("deprecation")
+public class FlightRecorderEventsTest {
+    @TempDir
+    private Path temporaryDir;
+
+    @Test
+    void recordsPhasesWhileEnabled() throws Exception {
+        assumeTrue(FlightRecorderEvents.INSTANCE != null, "Flight Recorder API not available");
+        assertEquals(false, FlightRecorderEvents.INSTANCE.isEnabled(VerifierEvent.Phase.EXECUTE));
+
+        Verifier verifier = new Verifier(temporaryDir.toString()) {
+            @Override
+            protected MavenLauncher getMavenLauncher(Map<String, String> envVars) {
+                return new MavenLauncher() {
+                    @Override
+                    public int run(
+                            String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile) {
+                        return 3;
+                    }
+
+                    @Override
+                    public String getMavenVersion() {
+                        return null;
+                    }
+                };
+            }
+        };
+        verifier.setLocalRepo(temporaryDir.resolve("repo").toString());
+        Files.write(temporaryDir.resolve("in.txt"), "@x@".getBytes("UTF-8"));
+
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass
+                .getMethod("enable", String.class)
+                .invoke(recording, FlightRecorderEvents.NAME_PREFIX + "Execute");
+        recordingClass
+                .getMethod("enable", String.class)
+                .invoke(recording, FlightRecorderEvents.NAME_PREFIX + "FilterFile");
+        Path dump = temporaryDir.resolve("verifier.jfr");
+        try {
+            recordingClass.getMethod("start").invoke(recording);
+            assertThrows(VerificationException.class, () -> verifier.executeGoal("test"));
+            verifier.filterFile("in.txt", "out.txt", "UTF-8");
+            verifier.deleteArtifacts("org.example");
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+
+        List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Path.class)
+                .invoke(null, dump);
+        List<String> recorded = new ArrayList<>();
+        for (Object event : events) {
+            Object eventType = event.getClass().getMethod("getEventType").invoke(event);
+            String name = (String) eventType.getClass().getMethod("getName").invoke(eventType);
+            Method getValue = event.getClass().getMethod("getValue", String.class);
+            if (name.endsWith("Execute")) {
+                recorded.add(name + " exitCode=" + getValue.invoke(event, "exitCode") + " forkMode="
+                        + getValue.invoke(event, "forkMode") + " failed=" + getValue.invoke(event, "failed"));
+            } else {
+                recorded.add(name + " detail=" + getValue.invoke(event, "detail"));
+            }
+        }
+        assertThat(
+                recorded,
+                hasItems(
+                        "org.apache.maven.verifier.Execute exitCode=3 forkMode=embedded failed=true",
+                        "org.apache.maven.verifier.Launcher detail=null",
+                        "org.apache.maven.verifier.Run detail=null",
+                        "org.apache.maven.verifier.FilterFile detail=in.txt",
+                        "org.apache.maven.verifier.DeleteArtifacts detail=org.example"));
+    }
+}
@@ -33,7 +33,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 @SuppressWarnings("deprecation")
@@ -72,6 +74,24 @@ public class ForkedLauncherTest {
         assertThat("exit code", exitCode, is(0));
     }
 
+    @Test
+    public void mvnwWithMetrics() throws Exception {
+        launcher = new ForkedLauncher(".", Collections.emptyMap(), false, true);
+        Path logFile = temporaryDir.resolve("build.log");
+        ExecutionMetrics metrics = new ExecutionMetrics();
+        metrics.launcherAcquired();
+
+        int exitCode = launcher.run(new String[0], new Properties(), workingDir, logFile.toFile(), metrics);
+        metrics.finish(false);
+
+        expectFileLine(logFile, "Hello World");
+        assertThat("exit code", exitCode, is(0));
+        assertTrue(metrics.isForked());
+        assertTrue(metrics.getRunNanos() > 0);
+        assertTrue(metrics.getLogFlushNanos() >= 0);
+        assertThat(metrics.getTotalNanos(), greaterThanOrEqualTo(metrics.getRunNanos()));
+    }
+
     static void expectFileLine(Path file, String expectedline) throws IOException {
         try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
             Collection<String> text = new ArrayList<>();
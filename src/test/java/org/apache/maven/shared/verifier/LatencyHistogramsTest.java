@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SuppressWarnings("deprecation")
+public class LatencyHistogramsTest {
+
+    @Test
+    void recordsEndedPhases() throws Exception {
+        LatencyHistograms histograms = new LatencyHistograms();
+        VerifierListeners.register(histograms);
+        try {
+            for (int i = 0; i < 100; i++) {
+                VerifierEvent started = VerifierListeners.started(VerifierEvent.Phase.EXTRACT_RESOURCES, "/test");
+                if (i % 10 == 0) {
+                    Thread.sleep(1);
+                }
+                VerifierListeners.ended(started, null);
+            }
+        } finally {
+            VerifierListeners.unregister(histograms);
+        }
+
+        assertEquals(100, histograms.getCount(VerifierEvent.Phase.EXTRACT_RESOURCES, null));
+        Duration p50 = histograms.getPercentile(VerifierEvent.Phase.EXTRACT_RESOURCES, null, 50);
+        Duration p99 = histograms.getPercentile(VerifierEvent.Phase.EXTRACT_RESOURCES, null, 99);
+        Duration max = histograms.getPercentile(VerifierEvent.Phase.EXTRACT_RESOURCES, null, 100);
+        assertThat(p50, lessThanOrEqualTo(p99));
+        assertThat(p99, lessThanOrEqualTo(max));
+        assertThat(max, lessThanOrEqualTo(Duration.ofSeconds(10)));
+        assertThat(Duration.ofMillis(1), lessThanOrEqualTo(max));
+        assertNull(histograms.getPercentile(VerifierEvent.Phase.RUN, "forked", 50));
+        assertThat(histograms.getSummary(), containsString("EXTRACT_RESOURCES"));
+
+        histograms.reset();
+        assertEquals(0, histograms.getCount(VerifierEvent.Phase.EXTRACT_RESOURCES, null));
+    }
+}
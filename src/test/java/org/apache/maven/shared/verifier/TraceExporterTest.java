@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SuppressWarnings("deprecation")
+public class TraceExporterTest {
+    @TempDir
+    private Path temporaryDir;
+
+    @Test
+    void writesLanePerThread() throws Exception {
+        Path file = temporaryDir.resolve("trace/verifier.json");
+        try (TraceExporter exporter = new TraceExporter(file.toFile())) {
+            VerifierListeners.register(exporter);
+            try {
+                Runnable extraction = () -> VerifierListeners.ended(
+                        VerifierListeners.started(VerifierEvent.Phase.EXTRACT_RESOURCES, "/it/\"quoted\""), null);
+                Thread worker = new Thread(extraction, "worker-1");
+                worker.start();
+                worker.join();
+                extraction.run();
+            } finally {
+                VerifierListeners.unregister(exporter);
+            }
+            exporter.addSpan("compiler:compile", "mojo", System.nanoTime(), 1000, "project", "app");
+            exporter.flush();
+            assertThat(
+                    new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+                    containsString("\"name\":\"EXTRACT_RESOURCES\""));
+        }
+
+        String trace = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(trace, startsWith("["));
+        assertThat(trace, endsWith("]\n"));
+        assertThat(trace, containsString("\"args\":{\"name\":\"worker-1\"}"));
+        assertThat(trace, containsString("\"detail\":\"/it/\\\"quoted\\\"\""));
+        assertThat(trace, containsString("\"name\":\"compiler:compile\",\"cat\":\"mojo\""));
+        assertEquals(3, trace.split("\"ph\":\"X\"", -1).length - 1);
+        assertEquals(2, trace.split("\"name\":\"thread_name\"", -1).length - 1);
+    }
+
+    @Test
+    void reportsWriteFailureOnce() throws Exception {
+        File full = new File("/dev/full");
+        assumeTrue(full.canWrite(), "no device failing writes");
+        TraceExporter exporter = new TraceExporter(full);
+        exporter.addSpan("compiler:compile", "mojo", System.nanoTime(), 1000, "project", "app");
+        assertThrows(IOException.class, exporter::flush);
+
+        // further spans are dropped and the failure is reported to the next verifier operation
+        VerifierListeners.register(exporter);
+        try {
+            VerifierEvent started = VerifierListeners.started(VerifierEvent.Phase.EXTRACT_RESOURCES, null);
+            assertThrows(UncheckedIOException.class, () -> VerifierListeners.ended(started, null));
+            VerifierListeners.ended(VerifierListeners.started(VerifierEvent.Phase.EXTRACT_RESOURCES, null), null);
+        } finally {
+            VerifierListeners.unregister(exporter);
+        }
+        assertThrows(IOException.class, exporter::close);
+    }
+}
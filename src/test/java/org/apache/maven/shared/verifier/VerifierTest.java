@@ -21,9 +21,15 @@ package org.apache.maven.shared.verifier;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -36,18 +42,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItemInArray;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 @SuppressWarnings("deprecation")
@@ -109,6 +123,79 @@ public class VerifierTest {
         verifier.resetStreams();
     }
 
+    @Test
+    void testArchiveEntries() throws VerificationException {
+        Verifier verifier = new Verifier("src/test/resources");
+        verifier.verifyFilePresent("mshared104.jar!/META-INF");
+        verifier.verifyFilePresent("mshared104.jar!/META-INF/*.MF");
+        verifier.verifyArchiveEntries("mshared104.jar", Arrays.asList("pom.xml", "META-INF/MANIFEST.MF", "!fud.xml"));
+
+        VerificationException exception = assertThrows(
+                VerificationException.class,
+                () -> verifier.verifyArchiveEntries(
+                        "mshared104.jar", Arrays.asList("pom.xml", "missing.xml", "!META-INF/**", "!fud.xml")));
+        assertThat(
+                exception.getMessage(),
+                allOf(containsString("missing: missing.xml"), containsString("unwanted: META-INF/**")));
+    }
+
+    @Test
+    void testFilePatternPresence() throws Exception {
+        Files.createDirectories(temporaryDir.resolve("target/classes/org/example"));
+        Files.createFile(temporaryDir.resolve("target/classes/org/example/App.class"));
+        Files.createFile(temporaryDir.resolve("target/app-1.0.jar"));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.verifyFilePresent("target/app-*.jar");
+        verifier.verifyFilePresent("target/**/App.class");
+        verifier.verifyFileNotPresent("target/app*1x0.jar");
+        verifier.verifyFileNotPresent("target/**/Missing.class");
+        // file names are regular expressions as in earlier versions
+        verifier.verifyFilePresent("target/app-[0-9]*.jar");
+        verifier.verifyFilePresent("target/classes/org/*/Ap{1,2}.class");
+        verifier.verifyFileNotPresent("target/app-[2-9]*.jar");
+    }
+
+    @Test
+    void testFilePatternFollowsDirectoryLinks() throws Exception {
+        Path classes = Files.createDirectories(temporaryDir.resolve("shared/classes"));
+        Files.createFile(classes.resolve("Lib.class"));
+        Files.createDirectories(temporaryDir.resolve("target"));
+        try {
+            Files.createSymbolicLink(temporaryDir.resolve("target/classes"), classes);
+            // a cycle is not walked twice
+            Files.createSymbolicLink(classes.resolve("self"), classes);
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "symbolic links not supported");
+        }
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.verifyFilePresent("target/**/Lib.class");
+        verifier.verifyFilePresent("target/*/Lib*");
+        verifier.verifyFileNotPresent("target/**/Missing.class");
+    }
+
+    @Test
+    void testFileManifestAnswersPresenceChecks() throws Exception {
+        Files.createDirectories(temporaryDir.resolve("target/classes/org/example"));
+        Files.createFile(temporaryDir.resolve("target/classes/org/example/App.class"));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.captureFileManifest("target");
+        Files.createFile(temporaryDir.resolve("target/created-after-capture.txt"));
+        Files.createFile(temporaryDir.resolve("outside-manifest.txt"));
+
+        verifier.verifyFilePresent("target/classes/org/example/App.class");
+        verifier.verifyFilePresent("target/**/*.class");
+        verifier.verifyFileNotPresent("target/created-after-capture.txt");
+        verifier.verifyFilePresent("outside-manifest.txt");
+        verifier.verifyFilePresent("target/../target/classes/./org/example/App.class");
+        verifier.verifyFilePresent("target/classes/../../outside-manifest.txt");
+
+        verifier.writeFile("target/written.txt", "content");
+        verifier.verifyFilePresent("target/created-after-capture.txt");
+    }
+
     @Test
     public void testStripAnsi() {
         assertEquals(
@@ -152,6 +239,204 @@ public class VerifierTest {
         assertTrue(filterMap.containsKey("@baseurl@"));
     }
 
+    @Test
+    void testFilterFile() throws Exception {
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 8190; i++) {
+            padding.append('x');
+        }
+        String content = "<a>@basedir@</a><b>@base@</b>" + padding + "@basedir@@unknown@";
+        Files.write(temporaryDir.resolve("pom.xml"), content.getBytes(StandardCharsets.UTF_8));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        Map<String, String> filterMap = verifier.newDefaultFilterMap();
+        filterMap.put("@base@", "@basedir@");
+        File filtered = verifier.filterFile("pom.xml", "pom.xml", "UTF-8", filterMap);
+
+        String basedir = temporaryDir.toAbsolutePath().toString();
+        assertEquals(
+                "<a>" + basedir + "</a><b>@basedir@</b>" + padding + basedir + "@unknown@",
+                new String(Files.readAllBytes(filtered.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFilterFileKeepsPermissions() throws Exception {
+        Path script = temporaryDir.resolve("mvnw");
+        Files.write(script, "#!/bin/sh\necho @basedir@\n".getBytes(StandardCharsets.UTF_8));
+        assumeTrue(script.toFile().setExecutable(true));
+        assumeTrue(Files.getFileAttributeView(script, PosixFileAttributeView.class) != null);
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.filterFile("mvnw", "mvnw", "UTF-8");
+        assertTrue(Files.isExecutable(script));
+
+        Path src = Files.createDirectories(temporaryDir.resolve("src"));
+        Files.move(script, src.resolve("mvnw"));
+        File dst = verifier.filterTree("src", "target/filtered", Arrays.asList("mvnw"), "UTF-8");
+        assertTrue(Files.isExecutable(dst.toPath().resolve("mvnw")));
+    }
+
+    @Test
+    void testFilterTree() throws Exception {
+        Path src = temporaryDir.resolve("src/module");
+        Files.createDirectories(src);
+        Files.write(temporaryDir.resolve("src/pom.xml"), "<a>@basedir@</a>".getBytes(StandardCharsets.UTF_8));
+        Files.write(src.resolve("pom.xml"), "<b>@baseurl@</b>".getBytes(StandardCharsets.UTF_8));
+        Files.write(src.resolve("data.bin"), "@basedir@".getBytes(StandardCharsets.UTF_8));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        File dst = verifier.filterTree("src", "target/filtered", Arrays.asList("**/pom.xml"), "UTF-8");
+        verifier.filterTree("src", "target/filtered", Arrays.asList("**/pom.xml"), "UTF-8");
+
+        Path basedir = temporaryDir.toAbsolutePath();
+        assertEquals(
+                "<a>" + basedir + "</a>",
+                new String(Files.readAllBytes(dst.toPath().resolve("pom.xml")), StandardCharsets.UTF_8));
+        assertEquals(
+                "<b>" + basedir.toUri().toASCIIString() + "</b>",
+                new String(Files.readAllBytes(dst.toPath().resolve("module/pom.xml")), StandardCharsets.UTF_8));
+        assertEquals(
+                "@basedir@",
+                new String(Files.readAllBytes(dst.toPath().resolve("module/data.bin")), StandardCharsets.UTF_8));
+
+        // the unfiltered copies are independent of the input files
+        Files.write(dst.toPath().resolve("module/data.bin"), "changed".getBytes(StandardCharsets.UTF_8));
+        assertEquals("@basedir@", new String(Files.readAllBytes(src.resolve("data.bin")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testVerifyArtifacts() throws Exception {
+        Path versionDir = Files.createDirectories(temporaryDir.resolve("repo/org/example/a/1.0"));
+        Files.write(versionDir.resolve("a-1.0.jar"), new byte[0]);
+        Files.write(versionDir.resolve("maven-metadata-local.xml"), new byte[0]);
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.setLocalRepo(temporaryDir.resolve("repo").toString());
+
+        verifier.verifyArtifactPresent("org.example", "a", "1.0", "jar");
+        verifier.verifyArtifactsPresent(Arrays.asList("org.example:a:1.0:jar"));
+        verifier.verifyArtifactsNotPresent(Arrays.asList("org.example:a:2.0:jar", "org.example:b:1.0:jar"));
+        assertThat(
+                verifier.getArtifactFileNameList("org.example", "a", "1.0", "jar"),
+                hasItem(versionDir.resolve("maven-metadata-local.xml").toString()));
+
+        VerificationException e = assertThrows(
+                VerificationException.class,
+                () -> verifier.verifyArtifactsPresent(
+                        Arrays.asList("org.example:a:1.0:jar", "org.example:a:1.0:pom", "org.example:b:1.0:jar")));
+        assertThat(e.getMessage(), allOf(containsString("a-1.0.pom"), containsString("b-1.0.jar")));
+        assertThrows(
+                VerificationException.class,
+                () -> verifier.verifyArtifactsNotPresent(Arrays.asList("org.example:a:1.0:jar")));
+    }
+
+    @Test
+    void testStreamingContentChecks() throws Exception {
+        Path versionDir = Files.createDirectories(temporaryDir.resolve("repo/org/example/a/1.0"));
+        Path jar = Files.write(versionDir.resolve("a-1.0.jar"), "hello".getBytes(StandardCharsets.UTF_8));
+        Files.write(
+                versionDir.resolve("a-1.0.jar.sha1"), "AAF4C61DDCC5E8A2DABEDE0F3B482CD9AEA9434D\ta-1.0.jar".getBytes());
+        // BSD format
+        Files.write(
+                versionDir.resolve("a-1.0.jar.md5"), "MD5 (a-1.0.jar) = 5d41402abc4b2a76b9719d911017c592".getBytes());
+        Path pom = Files.write(versionDir.resolve("a-1.0.pom"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(versionDir.resolve("a-1.0.pom.sha1"), "0000000000000000000000000000000000000000".getBytes());
+        Files.write(temporaryDir.resolve("copy.jar"), "hello".getBytes(StandardCharsets.UTF_8));
+        Files.write(temporaryDir.resolve("other.jar"), "hallo".getBytes(StandardCharsets.UTF_8));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.setLocalRepo(temporaryDir.resolve("repo").toString());
+
+        verifier.verifyFileDigest(
+                jar.toString(), "SHA-256", "2CF24DBA5FB0A30E26E83B2AC5B9E29E1B161E5C1FA7425E73043362938B9824");
+        assertThrows(VerificationException.class, () -> verifier.verifyFileDigest("copy.jar", "SHA-1", "00"));
+
+        verifier.verifyFileContentEquals("copy.jar", jar.toString());
+        VerificationException e = assertThrows(
+                VerificationException.class, () -> verifier.verifyFileContentEquals("other.jar", "copy.jar"));
+        assertThat(e.getMessage(), containsString("first difference at byte 1"));
+        e = assertThrows(
+                VerificationException.class, () -> verifier.verifyFileContentEquals(pom.toString(), "copy.jar"));
+        assertThat(e.getMessage(), containsString("size 10 differs from expected size 5"));
+
+        verifier.verifyArtifactContent("org.example", "a", "1.0", "jar", "hello");
+        assertThrows(
+                VerificationException.class,
+                () -> verifier.verifyArtifactContent("org.example", "a", "1.0", "jar", "hallo"));
+
+        verifier.verifyArtifactChecksums(Arrays.asList("org.example:a:1.0:jar"));
+        e = assertThrows(
+                VerificationException.class,
+                () -> verifier.verifyArtifactChecksums(
+                        Arrays.asList("org.example:a:1.0:jar", "org.example:a:1.0:pom", "org.example:b:1.0:jar")));
+        assertThat(
+                e.getMessage(),
+                allOf(
+                        containsString("SHA-1 checksum of " + pom),
+                        containsString("not found: "),
+                        not(containsString("a-1.0.jar"))));
+    }
+
+    @Test
+    void testVerifyTreeMatches() throws Exception {
+        Path expected = Files.createDirectories(temporaryDir.resolve("expected/a/b"));
+        Path actual = Files.createDirectories(temporaryDir.resolve("actual/a/b"));
+        for (Path root : Arrays.asList(expected, actual)) {
+            Files.write(root.resolve("same.txt"), "same".getBytes(StandardCharsets.UTF_8));
+            Files.write(root.resolve("../build.log"), root.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(expected.resolve("content.txt"), "one".getBytes(StandardCharsets.UTF_8));
+        Files.write(actual.resolve("content.txt"), "two".getBytes(StandardCharsets.UTF_8));
+        Files.write(expected.resolve("size.txt"), "one".getBytes(StandardCharsets.UTF_8));
+        Files.write(actual.resolve("size.txt"), "three".getBytes(StandardCharsets.UTF_8));
+        Files.write(expected.resolve("missing.txt"), new byte[0]);
+        Files.createDirectories(actual.resolve("extra"));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.verifyTreeMatches("expected", "expected", null);
+
+        VerificationException e = assertThrows(
+                VerificationException.class,
+                () -> verifier.verifyTreeMatches("actual", "expected", new TreeMatchOptions().addIgnore("**/*.log")));
+        assertThat(
+                e.getMessage(),
+                allOf(
+                        containsString("1 missing, 1 extra, 2 changed"),
+                        containsString("missing: a/b/missing.txt"),
+                        containsString("extra:   a/b/extra/"),
+                        containsString("changed: a/b/content.txt (content differs)"),
+                        containsString("changed: a/b/size.txt (size 5, expected 3)"),
+                        not(containsString("same.txt")),
+                        not(containsString("build.log"))));
+
+        verifier.verifyTreeMatches(
+                "actual",
+                "expected",
+                new TreeMatchOptions()
+                        .setTrustTimestamps(false)
+                        .addIgnore("**/*.log")
+                        .addIgnore("a/b/*.txt")
+                        .addIgnore("a/b/extra"));
+    }
+
+    @Test
+    void testVerifyTreeMatchesComparesSymbolicLinks() throws Exception {
+        Path expected = Files.createDirectories(temporaryDir.resolve("expected"));
+        Path actual = Files.createDirectories(temporaryDir.resolve("actual"));
+        try {
+            Files.createSymbolicLink(expected.resolve("loop"), Paths.get("."));
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "symbolic links not supported");
+        }
+        Files.createSymbolicLink(actual.resolve("loop"), Paths.get(".."));
+
+        Verifier verifier = new Verifier(temporaryDir.toString());
+        verifier.verifyTreeMatches("expected", "expected", null);
+        VerificationException e =
+                assertThrows(VerificationException.class, () -> verifier.verifyTreeMatches("actual", "expected", null));
+        assertThat(e.getMessage(), containsString("changed: loop (link to .., expected .)"));
+    }
+
     @Test
     void testDefaultMavenArgument() throws VerificationException {
         TestVerifier verifier = new TestVerifier("src/test/resources");
@@ -187,6 +472,444 @@ public class VerifierTest {
                         "test"));
     }
 
+    @Test
+    void testFastAutoclean() throws Exception {
+        Files.write(
+                temporaryDir.resolve("pom.xml"),
+                ("<project><modules><module>a</module><module>b</module></modules>"
+                                + "<build><directory>out</directory></build></project>")
+                        .getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(temporaryDir.resolve("a/out/classes"));
+        Files.write(temporaryDir.resolve("a/pom.xml"), "<project><parent/></project>".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(temporaryDir.resolve("b/target/classes"));
+        Files.write(temporaryDir.resolve("b/pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(temporaryDir.resolve("src"));
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setAutocleanStrategy("fast");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        assertThat(
+                verifier.launcher.cliArgs,
+                arrayContaining("-e", "--batch-mode", "-Dmaven.repo.local=test-local-repo", "test"));
+        assertFalse(Files.exists(temporaryDir.resolve("a/out")));
+        assertFalse(Files.exists(temporaryDir.resolve("b/target")));
+        assertTrue(Files.exists(temporaryDir.resolve("src")));
+    }
+
+    @Test
+    void testFastAutocleanReadsParentFromLocalRepository() throws Exception {
+        Path repo = Files.createDirectories(temporaryDir.resolve("repo/org/example/parent/1"));
+        Files.write(
+                repo.resolve("parent-1.pom"),
+                "<project><build><directory>${project.basedir}/out</directory></build></project>"
+                        .getBytes(StandardCharsets.UTF_8));
+        Files.write(
+                temporaryDir.resolve("pom.xml"),
+                ("<project><parent><groupId>org.example</groupId><artifactId>parent</artifactId>"
+                                + "<version>1</version><relativePath/></parent><artifactId>app</artifactId></project>")
+                        .getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(temporaryDir.resolve("out/classes"));
+        Files.createDirectories(temporaryDir.resolve("target"));
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setLocalRepo("repo");
+        verifier.setAutocleanStrategy("fast");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        assertThat(verifier.launcher.cliArgs, not(hasItemInArray("org.apache.maven.plugins:maven-clean-plugin:clean")));
+        assertFalse(Files.exists(temporaryDir.resolve("out")));
+        assertTrue(Files.exists(temporaryDir.resolve("target")));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"-pl, 'b,?d', b", "-pl, '!a', b c", "-rf, :c, b c", "--resume-from=b, , b"})
+    void testFastAutocleanCleansSelectedProjects(String option, String value, String cleaned) throws Exception {
+        Files.write(
+                temporaryDir.resolve("pom.xml"),
+                ("<project><groupId>org.example</groupId><artifactId>root</artifactId>"
+                                + "<modules><module>a</module><module>b</module><module>c</module></modules></project>")
+                        .getBytes(StandardCharsets.UTF_8));
+        for (String module : Arrays.asList("a", "b", "c")) {
+            // b depends on c, so the reactor builds a, c, b
+            String dependencies = module.equals("b")
+                    ? "<dependencies><dependency><groupId>${project.groupId}</groupId><artifactId>c</artifactId>"
+                            + "</dependency></dependencies>"
+                    : "";
+            Files.createDirectories(temporaryDir.resolve(module + "/target"));
+            Files.write(
+                    temporaryDir.resolve(module + "/pom.xml"),
+                    ("<project><parent><groupId>org.example</groupId><artifactId>root</artifactId></parent>"
+                                    + "<artifactId>" + module + "</artifactId>" + dependencies + "</project>")
+                            .getBytes(StandardCharsets.UTF_8));
+        }
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setAutocleanStrategy("fast");
+        verifier.addCliArgument(option);
+        if (value != null) {
+            verifier.addCliArgument(value);
+        }
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        assertThat(verifier.launcher.cliArgs, not(hasItemInArray("org.apache.maven.plugins:maven-clean-plugin:clean")));
+        for (String module : Arrays.asList("a", "b", "c")) {
+            assertEquals(!cleaned.contains(module), Files.exists(temporaryDir.resolve(module + "/target")), module);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "<project><build><directory>${dir}</directory></build></project>",
+                "<project><parent><relativePath/></parent></project>",
+                "<project><parent><relativePath>../parent</relativePath></parent></project>"
+            })
+    void testFastAutocleanFallsBackToPlugin(String pom) throws Exception {
+        Files.write(temporaryDir.resolve("pom.xml"), pom.getBytes(StandardCharsets.UTF_8));
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setAutocleanStrategy("fast");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        assertThat(verifier.launcher.cliArgs, hasItemInArray("org.apache.maven.plugins:maven-clean-plugin:clean"));
+    }
+
+    @Test
+    void testChangeJournal() throws Exception {
+        Path repo = Files.createDirectories(temporaryDir.resolve("repo"));
+        Files.write(Files.createDirectories(repo.resolve("org/example/a/1.0")).resolve("a-1.0.jar"), new byte[0]);
+        Path jar = repo.resolve("org/example/b/1.0/b-1.0.jar");
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setLocalRepo(repo.toString());
+        verifier.setAutoclean(false);
+        verifier.setChangeJournal(true);
+        verifier.launcher.outputFile = jar;
+        verifier.executeGoal("install");
+        verifier.resetStreams();
+
+        ChangeJournal journal = verifier.getExecutionResult().changedArtifacts();
+        assertThat(journal.getWrittenFiles(repo.toFile()), contains(jar.toFile()));
+        assertTrue(journal.getDeletedFiles().isEmpty());
+        verifier.verifyFilePresent(jar.toString());
+    }
+
+    @Test
+    void testChangeJournalIgnoresChangesBetweenExecutions() throws Exception {
+        Path repo = Files.createDirectories(temporaryDir.resolve("repo"));
+        Path first = repo.resolve("org/example/a/1.0/a-1.0.jar");
+        Path second = repo.resolve("org/example/b/1.0/b-1.0.jar");
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setLocalRepo(repo.toString());
+        verifier.setAutoclean(false);
+        verifier.setChangeJournal(true);
+        verifier.launcher.outputFile = first;
+        verifier.executeGoal("install");
+
+        Path notes = Files.write(temporaryDir.resolve("notes.txt"), new byte[1]);
+        Files.delete(first);
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 3600 * 1000);
+        for (Path path : Arrays.asList(notes, temporaryDir, first.getParent())) {
+            Files.setLastModifiedTime(path, past);
+        }
+
+        verifier.launcher.outputFile = second;
+        verifier.executeGoal("install");
+        verifier.resetStreams();
+
+        ChangeJournal journal = verifier.getExecutionResult().changedArtifacts();
+        assertThat(journal.getWrittenFiles(repo.toFile()), contains(second.toFile()));
+        assertThat(journal.getCreatedFiles(), not(hasItem(notes.toFile())));
+        assertTrue(journal.getDeletedFiles().isEmpty());
+    }
+
+    @Test
+    void testPrimedProjectRunsOffline() throws Exception {
+        Path pom = Files.write(
+                temporaryDir.resolve("pom.xml"),
+                "<project><modules><module>a</module></modules></project>".getBytes(StandardCharsets.UTF_8));
+        Path module = Files.write(
+                Files.createDirectories(temporaryDir.resolve("a")).resolve("pom.xml"),
+                "<project/>".getBytes(StandardCharsets.UTF_8));
+        RepositoryPrimer.markPrimed(temporaryDir.toFile(), "primed-repo");
+
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setLocalRepo("primed-repo");
+        verifier.executeGoal("test");
+        assertThat(verifier.launcher.cliArgs, hasItemInArray("-o"));
+
+        Files.write(module, "<project></project>".getBytes(StandardCharsets.UTF_8));
+        verifier.executeGoal("test");
+        assertThat(verifier.launcher.cliArgs, not(hasItemInArray("-o")));
+
+        Files.write(
+                pom,
+                "<project><profiles><profile><modules/></profile></profiles></project>"
+                        .getBytes(StandardCharsets.UTF_8));
+        RepositoryPrimer.markPrimed(temporaryDir.toFile(), "primed-repo");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+        assertThat(verifier.launcher.cliArgs, not(hasItemInArray("-o")));
+    }
+
+    @Test
+    void testExecutionResult() throws Exception {
+        TestVerifier verifier = new TestVerifier("src/test/resources");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        ExecutionResult result = verifier.getExecutionResult();
+        assertEquals(0, result.getExitCode());
+        assertFalse(result.isForked());
+        assertFalse(result.getRunDuration().isNegative());
+        assertEquals(
+                result.getDuration(),
+                result.getLauncherDuration()
+                        .plus(result.getSpawnDuration())
+                        .plus(result.getRunDuration())
+                        .plus(result.getLogFlushDuration()));
+        assertThat(result.toString(), containsString("exit code 0"));
+    }
+
+    @Test
+    void testParallelConfiguresNamedLocks() throws Exception {
+        TestVerifier verifier = new TestVerifier("src/test/resources");
+        verifier.setParallel(true);
+        verifier.addCliArgument("-Daether.syncContext.named.time=10");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        assertThat(verifier.launcher.cliArgs, hasItemInArray("-Daether.syncContext.named.factory=file-lock"));
+        assertThat(verifier.launcher.cliArgs, hasItemInArray("-Daether.syncContext.named.nameMapper=file-gav"));
+        assertThat(verifier.launcher.cliArgs, hasItemInArray("-Daether.syncContext.named.time=10"));
+        assertThat(verifier.launcher.cliArgs, not(hasItemInArray("-Daether.syncContext.named.time=300")));
+    }
+
+    @Test
+    void testListenersSeePhases() throws Exception {
+        List<String> phases = new ArrayList<>();
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.addListener(new VerifierListener() {
+            @Override
+            public void ended(VerifierEvent event) {
+                assertTrue(event.isEnd());
+                phases.add(event.getPhase() + (event.isFailed() ? " failed" : ""));
+            }
+        });
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+        Files.write(temporaryDir.resolve(verifier.getLogFileName()), "BUILD SUCCESS".getBytes(StandardCharsets.UTF_8));
+        verifier.verifyTextInLog("BUILD SUCCESS");
+        assertThrows(VerificationException.class, () -> verifier.verifyTextInLog("BUILD FAILURE"));
+
+        assertThat(
+                phases,
+                contains("LAUNCHER", "SPAWN", "RUN", "LOG_FLUSH", "EXECUTE", "VERIFY_LOG", "VERIFY_LOG failed"));
+    }
+
+    @Test
+    void testListenerFailuresAreRethrown() throws Exception {
+        List<String> phases = new ArrayList<>();
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.addListener(new VerifierListener() {
+            @Override
+            public void started(VerifierEvent event) {
+                throw new IllegalStateException(event.getPhase().toString());
+            }
+        });
+        verifier.addListener(new VerifierListener() {
+            @Override
+            public void ended(VerifierEvent event) {
+                phases.add(event.getPhase().toString());
+            }
+        });
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> verifier.executeGoal("test"));
+        verifier.resetStreams();
+        assertEquals("EXECUTE", failure.getMessage());
+        assertEquals(4, failure.getSuppressed().length);
+        assertThat(phases, contains("LAUNCHER", "SPAWN", "RUN", "LOG_FLUSH", "EXECUTE"));
+
+        Files.write(temporaryDir.resolve(verifier.getLogFileName()), "BUILD SUCCESS".getBytes(StandardCharsets.UTF_8));
+        VerificationException verification =
+                assertThrows(VerificationException.class, () -> verifier.verifyTextInLog("BUILD FAILURE"));
+        assertEquals("VERIFY_LOG", verification.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    void testFlightRecording() throws Exception {
+        assumeTrue(FlightRecorderEvents.INSTANCE != null, "Flight Recorder API not available");
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.launcher = new TestMavenLauncher() {
+            @Override
+            public int run(String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile)
+                    throws IOException, LauncherException {
+                List<byte[]> garbage = new ArrayList<>();
+                long end = System.nanoTime() + 300_000_000L;
+                while (System.nanoTime() < end) {
+                    garbage.add(new byte[1024]);
+                    if (garbage.size() > 1000) {
+                        garbage.clear();
+                    }
+                }
+                return super.run(cliArgs, systemProperties, workingDirectory, logFile);
+            }
+        };
+        verifier.setFlightRecording(true);
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        FlightRecordingSummary summary = verifier.getExecutionResult().getFlightRecording();
+        assertEquals(temporaryDir.resolve("log.jfr").toFile(), summary.getFile());
+        assertTrue(summary.getFile().isFile());
+        assertFalse(summary.getDuration().isZero());
+        assertTrue(summary.getAllocatedBytes() > 0);
+        assertTrue(summary.getHotMethods().size() <= 10);
+    }
+
+    @Test
+    void testFlightRecordingStopsWhenBuildFails() throws Exception {
+        assumeTrue(FlightRecorderEvents.INSTANCE != null, "Flight Recorder API not available");
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.launcher = new TestMavenLauncher() {
+            @Override
+            public int run(String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile)
+                    throws LauncherException {
+                throw new LauncherException("Failed to run Maven", new IllegalStateException());
+            }
+        };
+        verifier.setFlightRecording(true);
+        assertThrows(VerificationException.class, () -> verifier.executeGoal("test"));
+        verifier.resetStreams();
+
+        // the recording was stopped and dumped despite the failure
+        assertTrue(temporaryDir.resolve("log.jfr").toFile().isFile());
+    }
+
+    @Test
+    void testFlightRecordingOfForkedBuildAvoidsSpacesInMavenOpts() throws Exception {
+        File file = Files.createDirectories(temporaryDir.resolve("with space"))
+                .resolve("log.jfr")
+                .toFile();
+        FlightRecording recording = new FlightRecording(file);
+        String option = recording.getJvmOption();
+        assertThat(option, not(containsString(" ")));
+
+        // the forked build writes to the temporary file, which is moved into place afterwards
+        Files.write(Paths.get(option.substring(option.indexOf("filename=") + "filename=".length())), new byte[1]);
+        assertNull(recording.summarize());
+        assertTrue(file.isFile());
+    }
+
+    @Test
+    void testMojoTimingsInjectSpy() throws Exception {
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setMojoTimings(true);
+        verifier.addCliArgument("-Dmaven.ext.class.path=other.jar");
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        List<String> args = Arrays.asList(verifier.launcher.cliArgs);
+        assertThat(args, hasItem(startsWith("-Dmaven.ext.class.path=other.jar" + File.pathSeparator)));
+        assertThat(args, not(hasItem("-Dmaven.ext.class.path=other.jar")));
+        assertThat(args, hasItem("-Dverifier.mojoTimings.file=" + temporaryDir.resolve("log-mojos.tsv")));
+        // the spy did not run
+        assertNull(verifier.getExecutionResult().getMojoTimings());
+    }
+
+    @Test
+    void testTraceShowsMojosPerBuildThread() throws Exception {
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.setMojoTimings(true);
+        verifier.launcher = new TestMavenLauncher() {
+            @Override
+            public int run(String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile)
+                    throws IOException, LauncherException {
+                long now = System.currentTimeMillis() * 1_000_000L;
+                Files.write(
+                        temporaryDir.resolve("log-mojos.tsv"),
+                        Arrays.asList(
+                                now + "\t1000\tok\tg:a\tcompiler:compile\tdefault-compile\tcompile\tbuilder-1",
+                                now + "\t1000\tok\tg:b\tcompiler:compile\tdefault-compile\tcompile\tbuilder-2"),
+                        StandardCharsets.UTF_8);
+                return super.run(cliArgs, systemProperties, workingDirectory, logFile);
+            }
+        };
+        Path file = temporaryDir.resolve("trace.json");
+        try (TraceExporter exporter = new TraceExporter(file.toFile())) {
+            verifier.addListener(exporter);
+            verifier.executeGoal("test");
+            verifier.resetStreams();
+        }
+
+        String trace = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        String thread = Thread.currentThread().getName();
+        assertThat(trace, containsString("\"args\":{\"name\":\"" + thread + " / builder-1\"}"));
+        assertThat(trace, containsString("\"args\":{\"name\":\"" + thread + " / builder-2\"}"));
+        assertEquals(3, trace.split("\"name\":\"thread_name\"", -1).length - 1);
+    }
+
+    @Test
+    void testVerifyExecutionTimeWithBaseline() throws Exception {
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+
+        verifier.verifyExecutionTime(Duration.ofMinutes(1));
+        assertThrows(VerificationException.class, () -> verifier.verifyExecutionTime(Duration.ZERO));
+
+        File store = temporaryDir.resolve("baselines").toFile();
+        PerformanceBaseline baseline = new PerformanceBaseline(store, "VerifierTest#baseline");
+        verifier.setPerformanceBaseline(baseline);
+        // no baseline recorded yet, seeded by the first measurement
+        verifier.verifyExecutionTime(null);
+        assertTrue(baseline.getMedian("execution", "unknown").compareTo(Duration.ZERO) > 0);
+
+        baseline.setRecording(true);
+        baseline.setWindow(3);
+        for (int i = 0; i < 5; i++) {
+            verifier.verifyExecutionTime(null);
+        }
+        Properties recorded = new Properties();
+        try (InputStream in = Files.newInputStream(store.toPath().resolve("VerifierTest_baseline.properties"))) {
+            recorded.load(in);
+        }
+        assertEquals(3, recorded.getProperty("unknown/execution").split(",").length);
+        assertTrue(baseline.getMedian("execution", "unknown").compareTo(Duration.ZERO) > 0);
+
+        // a baseline of 1 ns is exceeded by any execution
+        PerformanceBaseline fast = new PerformanceBaseline(store, "fast");
+        Files.write(
+                store.toPath().resolve("fast.properties"), "unknown/execution=1,1,2".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Duration.ofNanos(1), fast.getMedian("execution", "unknown"));
+        verifier.setPerformanceBaseline(fast);
+        VerificationException e = assertThrows(VerificationException.class, () -> verifier.verifyExecutionTime(null));
+        assertThat(e.getMessage(), containsString("above the baseline median"));
+    }
+
+    @Test
+    void testVerifyMojoTime() throws Exception {
+        TestVerifier verifier = new TestVerifier(temporaryDir.toString());
+        verifier.executeGoal("test");
+        verifier.resetStreams();
+        assertThrows(VerificationException.class, () -> verifier.verifyMojoTime("compiler:compile", null));
+
+        MojoTiming compile = MojoTiming.parse("1\t2000000\tok\tg:app\t"
+                + "org.apache.maven.plugins:maven-compiler-plugin:3.13.0:compile\tdefault-compile\tcompile\tmain");
+        assertTrue(compile.matches("compiler:compile"));
+        assertTrue(compile.matches("maven-compiler-plugin:compile"));
+        assertTrue(compile.matches("org.apache.maven.plugins:maven-compiler-plugin:compile@default-compile"));
+        assertFalse(compile.matches("compiler:testCompile"));
+        assertFalse(compile.matches("compiler:compile@other"));
+        assertEquals(Duration.ofMillis(2), compile.getDuration());
+        assertNull(MojoTiming.parse("garbage"));
+    }
+
     public static Stream<Arguments> argumentsForTest() {
         return Stream.of(
                 arguments("test-argument", "test-argument"),
@@ -247,10 +970,16 @@ public class VerifierTest {
     private static class TestMavenLauncher implements MavenLauncher {
         String[] cliArgs;
 
+        Path outputFile;
+
         @Override
         public int run(String[] cliArgs, Properties systemProperties, String workingDirectory, File logFile)
                 throws IOException, LauncherException {
             this.cliArgs = cliArgs;
+            if (outputFile != null) {
+                Files.createDirectories(outputFile.getParent());
+                Files.write(outputFile, new byte[1]);
+            }
             return 0;
         }
 
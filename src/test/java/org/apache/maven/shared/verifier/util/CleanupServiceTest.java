@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class CleanupServiceTest {
+    @TempDir
+    private Path temporaryDir;
+
+    @Test
+    void deletesTreeInBackground() throws Exception {
+        Path target = temporaryDir.resolve("target");
+        for (int i = 0; i < 10; i++) {
+            Path dir = Files.createDirectories(target.resolve("classes/dir" + i));
+            Files.write(dir.resolve("A.class"), new byte[100]);
+        }
+
+        CleanupService service = CleanupService.getInstance();
+        long reclaimedBefore = service.getReclaimedBytes();
+        Future<Long> deletion = service.delete(target.toFile());
+
+        assertFalse(Files.exists(target));
+        assertEquals(1000L, deletion.get().longValue());
+        assertTrue(service.getReclaimedBytes() >= reclaimedBefore + 1000L);
+    }
+
+    @Test
+    void ignoresMissingFile() throws Exception {
+        assertEquals(
+                0L,
+                CleanupService.getInstance()
+                        .delete(temporaryDir.resolve("missing").toFile())
+                        .get()
+                        .longValue());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class LocalRepositoryMaintenanceTest {
+    @TempDir
+    private Path repository;
+
+    private Path install(String artifactId, String version, int daysAgo) throws IOException {
+        Path dir = Files.createDirectories(repository.resolve("org/example/" + artifactId + "/" + version));
+        Path jar = Files.write(dir.resolve(artifactId + "-" + version + ".jar"), new byte[1000]);
+        FileTime time = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo));
+        Files.getFileAttributeView(jar, BasicFileAttributeView.class).setTimes(time, time, null);
+        return dir;
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAboveMaxSize() throws Exception {
+        Path oldest = install("a", "1.0", 3);
+        Path pinned = install("b", "1.0", 2);
+        Path recent = install("a", "2.0", 1);
+
+        LocalRepositoryMaintenance maintenance = new LocalRepositoryMaintenance(repository.toFile());
+        maintenance.setMaxSize(2000);
+        maintenance.pin("org.example:b:*");
+
+        assertEquals(1, maintenance.evict());
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(pinned));
+        assertTrue(Files.exists(recent));
+    }
+
+    @Test
+    void evictsExpiredVersions() throws Exception {
+        Path expired = install("a", "1.0-SNAPSHOT", 10);
+        Path recent = install("b", "1.0", 1);
+
+        LocalRepositoryMaintenance maintenance = new LocalRepositoryMaintenance(repository.toFile());
+        maintenance.setMaxAge(TimeUnit.DAYS.toMillis(5));
+
+        assertEquals(1, maintenance.evict());
+        assertFalse(Files.exists(expired));
+        assertFalse(Files.exists(expired.getParent()));
+        assertTrue(Files.exists(recent));
+    }
+
+    @Test
+    void postponesEvictionWhileBuildIsRunning() throws Exception {
+        Path expired = install("a", "1.0", 10);
+
+        LocalRepositoryMaintenance maintenance = new LocalRepositoryMaintenance(repository.toFile());
+        maintenance.setMaxAge(TimeUnit.DAYS.toMillis(5));
+
+        maintenance.beginExecution();
+        try {
+            assertEquals(0, maintenance.evict());
+        } finally {
+            maintenance.endExecution();
+        }
+        assertTrue(Files.exists(expired));
+        assertEquals(1, maintenance.evict());
+    }
+
+    @Test
+    void postponesEvictionWhileLockFileIsHeldByOtherBuild() throws Exception {
+        Path expired = install("a", "1.0", 10);
+
+        LocalRepositoryMaintenance maintenance = new LocalRepositoryMaintenance(repository.toFile());
+        maintenance.setMaxAge(TimeUnit.DAYS.toMillis(5));
+
+        try (FileChannel channel = FileChannel.open(
+                repository.resolve(".verifier-maintenance.lock"),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+            assertEquals(0, maintenance.evict());
+            lock.release();
+        }
+        assertTrue(Files.exists(expired));
+        assertEquals(1, maintenance.evict());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SuppressWarnings("deprecation")
+public class RepositoryServerTest {
+    @TempDir
+    private Path temporaryDir;
+
+    private static HttpURLConnection open(RepositoryServer server, String path, String range) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getUrl() + path).openConnection();
+        if (range != null) {
+            connection.setRequestProperty("Range", range);
+        }
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesDirectory() throws Exception {
+        Path repository = Files.createDirectories(temporaryDir.resolve("repo/org/example/a/1.0"));
+        Files.write(repository.resolve("a-1.0.pom"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        Files.write(temporaryDir.resolve("outside.txt"), new byte[1]);
+
+        try (RepositoryServer server =
+                RepositoryServer.start(temporaryDir.resolve("repo").toFile())) {
+            HttpURLConnection connection = open(server, "org/example/a/1.0/a-1.0.pom", null);
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("0123456789", read(connection));
+
+            connection = open(server, "org/example/a/1.0/a-1.0.pom", "bytes=4-");
+            assertEquals(206, connection.getResponseCode());
+            assertEquals("bytes 4-9/10", connection.getHeaderField("Content-Range"));
+            assertEquals("456789", read(connection));
+
+            assertEquals(404, open(server, "org/example/a/1.0/a-1.0.jar", null).getResponseCode());
+            assertEquals(404, open(server, "../outside.txt", null).getResponseCode());
+        }
+    }
+
+    @Test
+    void servesArchive() throws Exception {
+        Path archive = temporaryDir.resolve("repo.zip");
+        try (OutputStream out = Files.newOutputStream(archive);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("org/example/a/1.0/a-1.0.pom"));
+            zip.write("<project/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        try (RepositoryServer server = RepositoryServer.start(archive.toFile())) {
+            assertEquals("<project/>", read(open(server, "org/example/a/1.0/a-1.0.pom", null)));
+            assertEquals("project/>", read(open(server, "org/example/a/1.0/a-1.0.pom", "bytes=1-")));
+        }
+    }
+
+    @Test
+    void replacesMirrorsOfGivenSettings() throws Exception {
+        Path settings = temporaryDir.resolve("settings.xml");
+        Files.write(
+                settings,
+                ("<settings><localRepository>/tmp/repo</localRepository><mirrors><mirror><id>nexus</id>"
+                                + "<mirrorOf>*</mirrorOf><url>https://nexus.example.org/</url></mirror></mirrors>"
+                                + "</settings>")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        Path generatedFile;
+        try (RepositoryServer server = RepositoryServer.start(
+                Files.createDirectories(temporaryDir.resolve("repo")).toFile())) {
+            List<String> arguments = new ArrayList<>(Arrays.asList("-s", "settings.xml", "verify"));
+            server.addMirrorSettings(arguments, temporaryDir.toString());
+
+            generatedFile = Paths.get(arguments.get(1));
+            String generated = new String(Files.readAllBytes(generatedFile), StandardCharsets.UTF_8);
+            assertThat(generated, containsString("<localRepository>/tmp/repo</localRepository>"));
+            assertThat(generated, containsString("<url>" + server.getUrl() + "</url>"));
+            assertThat(generated, not(containsString("nexus")));
+            assertEquals("verify", arguments.get(2));
+
+            // the settings are reused by later builds
+            List<String> next = new ArrayList<>(Arrays.asList("-s", settings.toString(), "verify"));
+            server.addMirrorSettings(next, temporaryDir.toString());
+            assertEquals(generatedFile.toString(), next.get(1));
+        }
+        assertFalse(Files.exists(generatedFile));
+    }
+
+    @Test
+    void replacesMirrorsOfGlobalSettings() throws Exception {
+        Path globalSettings = temporaryDir.resolve("global-settings.xml");
+        Files.write(
+                globalSettings,
+                ("<settings><mirrors><mirror><id>central-proxy</id><mirrorOf>central</mirrorOf>"
+                                + "<url>https://proxy.example.org/</url></mirror></mirrors></settings>")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        try (RepositoryServer server = RepositoryServer.start(
+                Files.createDirectories(temporaryDir.resolve("repo")).toFile())) {
+            List<String> arguments = new ArrayList<>(Arrays.asList("--global-settings", "global-settings.xml"));
+            server.addMirrorSettings(arguments, temporaryDir.toString());
+
+            assertEquals(Arrays.asList("--global-settings", "-s"), Arrays.asList(arguments.get(0), arguments.get(2)));
+            String generated = new String(Files.readAllBytes(Paths.get(arguments.get(1))), StandardCharsets.UTF_8);
+            assertThat(generated, containsString("<url>" + server.getUrl() + "</url>"));
+            assertThat(generated, not(containsString("central-proxy")));
+
+            // without global settings on the command line, the default ones are replaced as well
+            List<String> next = new ArrayList<>(Arrays.asList("verify"));
+            server.addMirrorSettings(next, temporaryDir.toString());
+            assertEquals(Arrays.asList("verify", "-s"), next.subList(0, 2));
+            assertEquals("-gs", next.get(3));
+            generated = new String(Files.readAllBytes(Paths.get(next.get(4))), StandardCharsets.UTF_8);
+            assertThat(generated, containsString("<url>" + server.getUrl() + "</url>"));
+        }
+    }
+}
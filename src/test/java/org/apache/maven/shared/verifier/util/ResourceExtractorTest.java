@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SuppressWarnings("deprecation")
+public class ResourceExtractorTest {
+    @TempDir
+    private Path temporaryDir;
+
+    /**
+     * Loaded from the test jar to locate the resources in it.
+     */
+    public static final class Anchor {}
+
+    @Test
+    void extractsDirectoryFromJar() throws Exception {
+        File jar = temporaryDir.resolve("resources.jar").toFile();
+        String anchor = Anchor.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()));
+                InputStream in = Anchor.class.getResourceAsStream('/' + anchor)) {
+            out.putNextEntry(new JarEntry(anchor));
+            copy(in, out);
+            out.putNextEntry(new JarEntry("project/"));
+            out.putNextEntry(new JarEntry("project/sub/"));
+            for (String name : new String[] {"project/pom.xml", "project/sub/a.txt", "project/sub/b.txt"}) {
+                out.putNextEntry(new JarEntry(name));
+                out.write(name.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        File extracted;
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null)) {
+            Class<?> cl = loader.loadClass(Anchor.class.getName());
+            extracted = ResourceExtractor.extractResourcePath(cl, "/project", temporaryDir.toFile());
+        }
+
+        assertEquals(temporaryDir.resolve("project").toFile(), extracted);
+        for (String name : new String[] {"pom.xml", "sub/a.txt", "sub/b.txt"}) {
+            assertEquals(
+                    "project/" + name,
+                    new String(Files.readAllBytes(new File(extracted, name).toPath()), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws Exception {
+        byte[] buffer = new byte[4096];
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.shared.verifier.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("deprecation")
+public class WorkspaceManagerTest {
+    @TempDir
+    private Path ramDir;
+
+    @TempDir
+    private Path diskDir;
+
+    @TempDir
+    private Path postMortemDir;
+
+    @Test
+    void extractsToMemoryBelowThreshold() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(ramDir.toFile(), diskDir.toFile(), null, 1.0);
+
+        File workspace = manager.extractResources(WorkspaceManagerTest.class, "/wrapper-project");
+
+        assertTrue(manager.isMemoryBacked(workspace));
+        assertTrue(new File(workspace, "mvnw").isFile());
+    }
+
+    @Test
+    void spillsToDiskAboveThreshold() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(ramDir.toFile(), diskDir.toFile(), null, 0.0);
+
+        File workspace = manager.extractResources(WorkspaceManagerTest.class, "/wrapper-project");
+
+        assertFalse(manager.isMemoryBacked(workspace));
+        assertTrue(workspace.toPath().startsWith(diskDir));
+    }
+
+    @Test
+    void copiesLocalRepositoryAtomically() throws Exception {
+        Path localRepo = Files.createDirectories(diskDir.resolve("m2/org/example/a/1.0"));
+        Files.write(localRepo.resolve("a-1.0.jar"), new byte[10]);
+        WorkspaceManager manager = new WorkspaceManager(ramDir.toFile(), diskDir.toFile(), null, 1.0);
+
+        File copy = manager.copyLocalRepository(diskDir.resolve("m2").toFile(), "suite");
+
+        assertTrue(manager.isMemoryBacked(copy));
+        assertTrue(new File(copy, "org/example/a/1.0/a-1.0.jar").isFile());
+        // only the complete copy is visible, no temporary directory is left behind
+        assertArrayEquals(new String[] {"suite"}, copy.getParentFile().list());
+        assertEquals(copy, manager.copyLocalRepository(diskDir.resolve("m2").toFile(), "suite"));
+    }
+
+    @Test
+    void archivesLogsOfMemoryBackedWorkspace() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(ramDir.toFile(), diskDir.toFile(), postMortemDir.toFile(), 1.0);
+        File workspace = manager.extractResources(WorkspaceManagerTest.class, "/wrapper-project");
+        Files.write(new File(workspace, "log.txt").toPath(), "BUILD SUCCESS".getBytes("UTF-8"));
+
+        manager.release(workspace, false);
+
+        assertFalse(workspace.exists());
+        File[] archived = postMortemDir.toFile().listFiles();
+        assertTrue(archived != null && archived.length == 1);
+        assertTrue(new File(archived[0], "log.txt").isFile());
+        assertFalse(new File(archived[0], "mvnw").exists());
+    }
+
+    @Test
+    void keepsNothingWithoutPostMortemDirectory() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(ramDir.toFile(), diskDir.toFile(), null, 1.0);
+        File workspace = manager.extractResources(WorkspaceManagerTest.class, "/wrapper-project");
+
+        assertNull(manager.archive(workspace, true));
+    }
+}